@@ -0,0 +1,86 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Output stream that, besides counting the bytes written through it, checksums them with CRC32C in blocks of a fixed
+ * size, for the footer of a CIFF file. {@link CRC32C} is accelerated by hardware instructions on current CPUs, so
+ * checksumming costs little next to encoding and compressing the output.
+ */
+public class ChecksumOutputStream extends CountingOutputStream {
+  private final int blockSize;
+  private final CRC32C crc = new CRC32C();
+  private int[] checksums = new int[64];
+  private int numChecksums;
+
+  public ChecksumOutputStream(OutputStream out, int blockSize) {
+    super(out);
+    this.blockSize = blockSize;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Returns the checksums of the bytes written so far: one for every full block, followed by one for the rest, if any.
+   */
+  public int[] getChecksums() {
+    int[] result = Arrays.copyOf(checksums, numChecksums + (getCount() % blockSize != 0 ? 1 : 0));
+    if (result.length > numChecksums) {
+      result[numChecksums] = (int) crc.getValue();
+    }
+    return result;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    super.write(b);
+    crc.update(b);
+    if (getCount() % blockSize == 0) {
+      finishBlock();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = (int) Math.min(len, blockSize - getCount() % blockSize);
+      super.write(b, off, n);
+      crc.update(b, off, n);
+      if (getCount() % blockSize == 0) {
+        finishBlock();
+      }
+      off += n;
+      len -= n;
+    }
+  }
+
+  private void finishBlock() {
+    if (numChecksums == checksums.length) {
+      checksums = Arrays.copyOf(checksums, numChecksums * 2);
+    }
+    checksums[numChecksums++] = (int) crc.getValue();
+    crc.reset();
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression codecs for CIFF files. A codec is inferred from the file name suffix when writing, and from the suffix
+ * or, failing that, the leading magic bytes when reading.
+ */
+public enum CiffCodec {
+  NONE("", new byte[0]) {
+    @Override
+    public OutputStream compress(OutputStream out, int threads) {
+      return out;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) {
+      return in;
+    }
+  },
+
+  GZIP(".gz", new byte[] {(byte) 0x1f, (byte) 0x8b}) {
+    @Override
+    public OutputStream compress(OutputStream out, int threads) throws IOException {
+      return threads > 1 ? new ParallelGZIPOutputStream(out, threads) : new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+      return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+  },
+
+  ZSTD(".zst", new byte[] {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd}) {
+    @Override
+    public OutputStream compress(OutputStream out, int threads) throws IOException {
+      ZstdOutputStream zstd = new ZstdOutputStream(out);
+      // Frames end with a checksum of their content, which ZstdInputStream verifies.
+      zstd.setChecksum(true);
+      if (threads > 1) {
+        zstd.setWorkers(threads);
+      }
+      return zstd;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+      return new ZstdInputStream(in);
+    }
+  },
+
+  LZ4(".lz4", new byte[] {(byte) 0x04, (byte) 0x22, (byte) 0x4d, (byte) 0x18}) {
+    @Override
+    public OutputStream compress(OutputStream out, int threads) throws IOException {
+      // Frames end with a checksum of their content, which LZ4FrameInputStream verifies.
+      return new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB,
+          LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE, LZ4FrameOutputStream.FLG.Bits.CONTENT_CHECKSUM);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+      return new LZ4FrameInputStream(in);
+    }
+  };
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAGIC_LENGTH = 4;
+
+  private final String suffix;
+  private final byte[] magic;
+
+  CiffCodec(String suffix, byte[] magic) {
+    this.suffix = suffix;
+    this.magic = magic;
+  }
+
+  public String getSuffix() {
+    return suffix;
+  }
+
+  /**
+   * Wraps a stream to compress what is written to it.
+   *
+   * @param out underlying stream
+   * @param threads number of compression threads, for codecs that support multi-threaded compression
+   */
+  public abstract OutputStream compress(OutputStream out, int threads) throws IOException;
+
+  /**
+   * Wraps a stream to decompress what is read from it.
+   */
+  public abstract InputStream decompress(InputStream in) throws IOException;
+
+  /**
+   * Infers the codec from a file name suffix, defaulting to no compression.
+   */
+  public static CiffCodec fromFileName(String fileName) {
+    for (CiffCodec codec : values()) {
+      if (codec != NONE && fileName.endsWith(codec.suffix)) {
+        return codec;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Infers the codec from the leading bytes of a file, defaulting to no compression. An uncompressed CIFF file starts
+   * with the varint size of the header followed by its first tag, which doesn't collide with any of the magic numbers.
+   */
+  public static CiffCodec fromMagic(byte[] bytes, int length) {
+    for (CiffCodec codec : values()) {
+      if (codec != NONE && length >= codec.magic.length) {
+        boolean matches = true;
+        for (int i = 0; i < codec.magic.length; i++) {
+          matches &= bytes[i] == codec.magic[i];
+        }
+        if (matches) {
+          return codec;
+        }
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Opens a CIFF file for reading, decompressing it with the codec inferred from its suffix or its magic bytes.
+   *
+   * @param path file to open
+   * @param readAhead whether to read (and decompress) the file on a background thread
+   */
+  public static InputStream open(String path, boolean readAhead) throws IOException {
+    InputStream in = new BufferedInputStream(new FileInputStream(path), BUFFER_SIZE);
+
+    CiffCodec codec = fromFileName(path);
+    if (codec == NONE) {
+      codec = fromMagic(in);
+    }
+
+    return readAhead ? new ReadAheadInputStream(codec.decompress(in)) : codec.decompress(in);
+  }
+
+  /**
+   * Infers the codec of an existing file from its suffix or, failing that, its magic bytes.
+   */
+  public static CiffCodec fromFile(String path) throws IOException {
+    CiffCodec codec = fromFileName(path);
+    if (codec == NONE) {
+      try (InputStream in = new BufferedInputStream(new FileInputStream(path), MAGIC_LENGTH)) {
+        codec = fromMagic(in);
+      }
+    }
+    return codec;
+  }
+
+  // Peeks at the leading bytes of a stream, which must support mark/reset.
+  private static CiffCodec fromMagic(InputStream in) throws IOException {
+    byte[] bytes = new byte[MAGIC_LENGTH];
+    in.mark(bytes.length);
+    int length = in.readNBytes(bytes, 0, bytes.length);
+    in.reset();
+    return fromMagic(bytes, length);
+  }
+
+  /**
+   * Creates a CIFF file for writing, compressing it with the codec inferred from its suffix.
+   *
+   * @param path file to create
+   * @param threads number of compression threads, for codecs that support multi-threaded compression
+   * @param writeBehind whether to write to disk on a background thread
+   */
+  public static OutputStream create(String path, int threads, boolean writeBehind) throws IOException {
+    return fromFileName(path).compress(new FileChannelOutputStream(Paths.get(path), writeBehind), threads);
+  }
+}
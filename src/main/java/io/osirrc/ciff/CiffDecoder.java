@@ -0,0 +1,428 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import java.util.Arrays;
+
+/**
+ * Decoder specialized for PostingsList messages, of both version 1 (Posting messages) and version 2 (packed arrays, or
+ * blocks compressed with {@link StreamVByte}), which works directly on byte arrays and decodes into a
+ * {@link PostingsListBuffer}. It is wire compatible with the generated {@link CommonIndexFileFormat.PostingsList}
+ * parser, unknown fields included, but skips its generic machinery: fields are dispatched on their full tag, runs of
+ * postings are decoded in a loop of their own, varints are decoded with an unrolled loop whenever enough bytes are
+ * left, and no object is allocated per posting.
+ */
+public final class CiffDecoder {
+  private static final int MAX_VARINT_SIZE = 10;
+  private static final int MAX_NESTING_DEPTH = 100;
+
+  private byte[] bytes;
+  private int pos;
+  // Docid of the last posting decoded from blocks, to check the max docids of the blocks against.
+  private int lastBlockDocid;
+
+  /**
+   * Decodes a PostingsList message, without its length prefix, into a reusable buffer.
+   *
+   * @param bytes array holding the message
+   * @param offset offset of the message in the array
+   * @param length length of the message
+   * @param buffer buffer to decode the postings list into
+   * @throws InvalidProtocolBufferException if the message is malformed
+   */
+  public void decodePostingsList(byte[] bytes, int offset, int length, PostingsListBuffer buffer)
+      throws InvalidProtocolBufferException {
+    this.bytes = bytes;
+    this.pos = offset;
+    int limit = offset + length;
+
+    buffer.reset();
+    // Numbers of docids and tfs decoded from the packed arrays of version 2.
+    int numDocids = 0;
+    int numTfs = 0;
+    // Number of postings decoded from blocks.
+    int numBlocked = 0;
+    lastBlockDocid = 0;
+    while (pos < limit) {
+      int tag = readVarint32(limit);
+      if (tag == CiffTags.POSTINGS_LIST_POSTINGS) {
+        decodePostings(limit, buffer);
+      } else if (tag == CiffTags.POSTINGS_LIST_BLOCKS) {
+        numBlocked = decodeBlock(limit, numBlocked, buffer);
+      } else if (tag == CiffTags.POSTINGS_LIST_DOCIDS) {
+        int end = readLength(limit);
+        // Every varint takes at least a byte.
+        buffer.ensureCapacity(numDocids + (end - pos));
+        int[] docids = buffer.getDocids();
+        while (pos < end) {
+          docids[numDocids++] = readVarint32(limit);
+        }
+        checkEnd(end);
+      } else if (tag == CiffTags.POSTINGS_LIST_TFS) {
+        int end = readLength(limit);
+        buffer.ensureCapacity(numTfs + (end - pos));
+        int[] tfs = buffer.getTfs();
+        while (pos < end) {
+          tfs[numTfs++] = readVarint32(limit);
+        }
+        checkEnd(end);
+      } else if (tag == CiffTags.POSTINGS_LIST_DOCIDS_UNPACKED) {
+        buffer.ensureCapacity(numDocids + 1);
+        buffer.getDocids()[numDocids++] = readVarint32(limit);
+      } else if (tag == CiffTags.POSTINGS_LIST_TFS_UNPACKED) {
+        buffer.ensureCapacity(numTfs + 1);
+        buffer.getTfs()[numTfs++] = readVarint32(limit);
+      } else if (tag == CiffTags.POSTINGS_LIST_TERM) {
+        int end = readLength(limit);
+        // Like the generated parser, reject terms that aren't valid UTF-8, as proto3 requires of strings.
+        if (!isValidUtf8(bytes, pos, end)) {
+          throw new InvalidProtocolBufferException("Protocol message had invalid UTF-8.");
+        }
+        buffer.setTerm(Arrays.copyOfRange(bytes, pos, end));
+        pos = end;
+      } else if (tag == CiffTags.POSTINGS_LIST_DF) {
+        long df = readVarint64(limit);
+        buffer.setDf(df);
+        // Every posting takes at least two bytes, which bounds how much to allocate for a corrupt df.
+        buffer.ensureCapacity((int) Math.max(0, Math.min(df, (limit - pos) / 2)));
+      } else if (tag == CiffTags.POSTINGS_LIST_CF) {
+        buffer.setCf(readVarint64(limit));
+      } else if (tag == CiffTags.POSTINGS_LIST_MAX_TF) {
+        buffer.setMaxTf(readVarint32(limit));
+      } else if (tag == CiffTags.POSTINGS_LIST_MAX_SCORE) {
+        buffer.setMaxScore(Float.intBitsToFloat(readFixed32(limit)));
+      } else if (tag == CiffTags.POSTINGS_LIST_BLOCK_MAX_SCORES) {
+        int end = readLength(limit);
+        while (pos < end) {
+          buffer.addBlockMaxScore(Float.intBitsToFloat(readFixed32(end)));
+        }
+      } else if (tag == CiffTags.POSTINGS_LIST_BLOCK_MAX_SCORES_UNPACKED) {
+        buffer.addBlockMaxScore(Float.intBitsToFloat(readFixed32(limit)));
+      } else {
+        skipField(tag, limit);
+      }
+    }
+    checkEnd(limit);
+
+    if (numBlocked != 0) {
+      if (numDocids != 0 || numTfs != 0 || buffer.size() != 0) {
+        throw new InvalidProtocolBufferException(String.format(
+            "PostingsList has %d postings in blocks, %d docids, %d tfs and %d Posting messages!",
+            numBlocked, numDocids, numTfs, buffer.size()));
+      }
+      buffer.setResolvedSize(numBlocked);
+    } else if (numDocids != 0 || numTfs != 0) {
+      if (numDocids != numTfs || buffer.size() != 0) {
+        throw new InvalidProtocolBufferException(String.format(
+            "PostingsList has %d docids, %d tfs and %d Posting messages!", numDocids, numTfs, buffer.size()));
+      }
+      buffer.setSize(numDocids);
+    }
+
+    // Don't hold on to the caller's array.
+    this.bytes = null;
+  }
+
+  // Decodes the run of consecutive postings starting at the current position, right after the tag of the first one.
+  private void decodePostings(int limit, PostingsListBuffer buffer) throws InvalidProtocolBufferException {
+    while (true) {
+      int end = readLength(limit);
+      int gap = 0;
+      int tf = 0;
+      // Postings are only a few bytes long, so varints are read up to the limit of the postings list rather than of
+      // the posting, for the unrolled loop to apply. Reading past the end of the posting is caught by checkEnd().
+      if (pos < end && bytes[pos] == CiffTags.POSTING_DOCID) {
+        pos++;
+        gap = readVarint32(limit);
+      }
+      if (pos < end && bytes[pos] == CiffTags.POSTING_TF) {
+        pos++;
+        tf = readVarint32(limit);
+      }
+      // Anything else, such as unknown fields or fields out of order, goes through the general field loop.
+      while (pos < end) {
+        int postingTag = readVarint32(limit);
+        if (postingTag == CiffTags.POSTING_DOCID) {
+          gap = readVarint32(limit);
+        } else if (postingTag == CiffTags.POSTING_TF) {
+          tf = readVarint32(limit);
+        } else {
+          skipField(postingTag, end, 1);
+        }
+      }
+      checkEnd(end);
+      buffer.addPosting(gap, tf);
+
+      // Tags of the fields of CIFF messages take a single byte.
+      if (pos == limit || bytes[pos] != CiffTags.POSTINGS_LIST_POSTINGS) {
+        return;
+      }
+      pos++;
+    }
+  }
+
+  // Decodes a block of postings, right after its tag, appending its d-gaps and tfs to those of the previous blocks, and
+  // returns the number of postings decoded from blocks so far.
+  private int decodeBlock(int limit, int numBlocked, PostingsListBuffer buffer) throws InvalidProtocolBufferException {
+    int end = readLength(limit);
+    int n = 0;
+    int maxDocid = 0;
+    int docidsStart = 0;
+    int docidsEnd = 0;
+    int tfsStart = 0;
+    int tfsEnd = 0;
+    while (pos < end) {
+      int tag = readVarint32(limit);
+      if (tag == CiffTags.POSTINGS_BLOCK_NUM_POSTINGS) {
+        n = readVarint32(limit);
+      } else if (tag == CiffTags.POSTINGS_BLOCK_MAX_DOCID) {
+        maxDocid = readVarint32(limit);
+      } else if (tag == CiffTags.POSTINGS_BLOCK_DOCIDS) {
+        docidsEnd = readLength(end);
+        docidsStart = pos;
+        pos = docidsEnd;
+      } else if (tag == CiffTags.POSTINGS_BLOCK_TFS) {
+        tfsEnd = readLength(end);
+        tfsStart = pos;
+        pos = tfsEnd;
+      } else {
+        skipField(tag, end, 1);
+      }
+    }
+    checkEnd(end);
+
+    // Every value takes at least a byte, so the control bytes are within the fields whenever n is this small, and the
+    // lengths of the values the control bytes add up to must then match the fields exactly for decoding to stay within
+    // them.
+    if (n < 0 || n > docidsEnd - docidsStart || n > tfsEnd - tfsStart
+        || StreamVByte.encodedLength(bytes, docidsStart, n) != docidsEnd - docidsStart
+        || StreamVByte.encodedLength(bytes, tfsStart, n) != tfsEnd - tfsStart) {
+      throw new InvalidProtocolBufferException(String.format(
+          "PostingsBlock of %d postings doesn't match the %d bytes of docids and %d bytes of tfs!",
+          n, docidsEnd - docidsStart, tfsEnd - tfsStart));
+    }
+
+    buffer.ensureCapacity(numBlocked + n);
+    int[] docids = buffer.getDocids();
+    StreamVByte.decode(bytes, docidsStart, n, docids, numBlocked);
+    StreamVByte.decode(bytes, tfsStart, n, buffer.getTfs(), numBlocked);
+    // The d-gaps are resolved along the way, which the max docid is checked against.
+    int docid = lastBlockDocid;
+    for (int i = numBlocked; i < numBlocked + n; i++) {
+      docid += docids[i];
+      docids[i] = docid;
+    }
+    lastBlockDocid = docid;
+    if (n > 0 && lastBlockDocid != maxDocid) {
+      throw new InvalidProtocolBufferException(String.format(
+          "PostingsBlock has max docid %d, but its last posting has docid %d!", maxDocid, lastBlockDocid));
+    }
+    return numBlocked + n;
+  }
+
+  // Reads the length of a length-delimited field, returning the position at which the field ends.
+  private int readLength(int limit) throws InvalidProtocolBufferException {
+    int length = readVarint32(limit);
+    if (length < 0 || length > limit - pos) {
+      throw new InvalidProtocolBufferException(
+          "While parsing a protocol message, the input ended unexpectedly in the middle of a field.");
+    }
+    return pos + length;
+  }
+
+  private void checkNotEnd(int limit) throws InvalidProtocolBufferException {
+    if (pos == limit) {
+      throw new InvalidProtocolBufferException(
+          "While parsing a protocol message, the input ended unexpectedly in the middle of a field.");
+    }
+  }
+
+  private void checkEnd(int end) throws InvalidProtocolBufferException {
+    if (pos != end) {
+      throw new InvalidProtocolBufferException(
+          "While parsing a protocol message, the input ended unexpectedly in the middle of a field.");
+    }
+  }
+
+  private void skipField(int tag, int limit) throws InvalidProtocolBufferException {
+    skipField(tag, limit, 0);
+  }
+
+  // Skips an unknown field, at the given depth of nested messages and groups, which the generated parser limits.
+  private void skipField(int tag, int limit, int depth) throws InvalidProtocolBufferException {
+    if (WireFormat.getTagFieldNumber(tag) == 0) {
+      throw new InvalidProtocolBufferException("Protocol message contained an invalid tag (zero).");
+    }
+    switch (WireFormat.getTagWireType(tag)) {
+      case WireFormat.WIRETYPE_VARINT:
+        readVarint64(limit);
+        return;
+      case WireFormat.WIRETYPE_FIXED64:
+        skip(8, limit);
+        return;
+      case WireFormat.WIRETYPE_LENGTH_DELIMITED:
+        pos = readLength(limit);
+        return;
+      case WireFormat.WIRETYPE_FIXED32:
+        skip(4, limit);
+        return;
+      case WireFormat.WIRETYPE_START_GROUP:
+        // Groups are deprecated, but the generated parser still skips them as unknown fields, up to a nesting depth.
+        if (depth == MAX_NESTING_DEPTH) {
+          throw new InvalidProtocolBufferException("Protocol message had too many levels of nesting.");
+        }
+        int endTag = CiffTags.tag(WireFormat.getTagFieldNumber(tag), WireFormat.WIRETYPE_END_GROUP);
+        while (true) {
+          checkNotEnd(limit);
+          int groupTag = readVarint32(limit);
+          if (groupTag == endTag) {
+            return;
+          }
+          skipField(groupTag, limit, depth + 1);
+        }
+      default:
+        throw new InvalidProtocolBufferException(String.format("Unexpected tag %d in a CIFF message!", tag));
+    }
+  }
+
+  private int readFixed32(int limit) throws InvalidProtocolBufferException {
+    skip(Integer.BYTES, limit);
+    return (bytes[pos - 4] & 0xff) | (bytes[pos - 3] & 0xff) << 8 | (bytes[pos - 2] & 0xff) << 16
+        | (bytes[pos - 1] & 0xff) << 24;
+  }
+
+  private void skip(int length, int limit) throws InvalidProtocolBufferException {
+    if (length > limit - pos) {
+      throw new InvalidProtocolBufferException(
+          "While parsing a protocol message, the input ended unexpectedly in the middle of a field.");
+    }
+    pos += length;
+  }
+
+  // Checks for well-formed UTF-8, which excludes overlong encodings and surrogates, like protobuf's own check.
+  private static boolean isValidUtf8(byte[] bytes, int from, int to) {
+    int i = from;
+    while (i < to) {
+      byte b = bytes[i++];
+      if (b >= 0) {
+        continue;
+      }
+      if (b < (byte) 0xc2) {
+        return false;
+      } else if (b < (byte) 0xe0) {
+        if (i == to || bytes[i++] > (byte) 0xbf) {
+          return false;
+        }
+      } else if (b < (byte) 0xf0) {
+        if (to - i < 2) {
+          return false;
+        }
+        byte b2 = bytes[i++];
+        if (b2 > (byte) 0xbf || (b == (byte) 0xe0 && b2 < (byte) 0xa0) || (b == (byte) 0xed && b2 >= (byte) 0xa0)
+            || bytes[i++] > (byte) 0xbf) {
+          return false;
+        }
+      } else {
+        if (to - i < 3) {
+          return false;
+        }
+        byte b2 = bytes[i++];
+        if (b2 > (byte) 0xbf || (((b << 28) + (b2 - (byte) 0x90)) >> 30) != 0
+            || bytes[i++] > (byte) 0xbf || bytes[i++] > (byte) 0xbf) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // Reads a varint as an int, which for negative int32 values takes ten bytes, of which the upper ones are ignored.
+  private int readVarint32(int limit) throws InvalidProtocolBufferException {
+    if (limit - pos < MAX_VARINT_SIZE) {
+      return (int) readVarint64Slow(limit);
+    }
+
+    byte[] bytes = this.bytes;
+    int p = pos;
+    int x;
+    if ((x = bytes[p++]) >= 0) {
+      pos = p;
+      return x;
+    } else if ((x ^= (bytes[p++] << 7)) < 0) {
+      x ^= (~0 << 7);
+    } else if ((x ^= (bytes[p++] << 14)) >= 0) {
+      x ^= (~0 << 7) ^ (~0 << 14);
+    } else if ((x ^= (bytes[p++] << 21)) < 0) {
+      x ^= (~0 << 7) ^ (~0 << 14) ^ (~0 << 21);
+    } else {
+      int y = bytes[p++];
+      x ^= y << 28;
+      x ^= (~0 << 7) ^ (~0 << 14) ^ (~0 << 21) ^ (~0 << 28);
+      if (y < 0 && bytes[p++] < 0 && bytes[p++] < 0 && bytes[p++] < 0 && bytes[p++] < 0 && bytes[p++] < 0) {
+        throw new InvalidProtocolBufferException("CodedInputStream encountered a malformed varint.");
+      }
+    }
+    pos = p;
+    return x;
+  }
+
+  private long readVarint64(int limit) throws InvalidProtocolBufferException {
+    if (limit - pos < MAX_VARINT_SIZE) {
+      return readVarint64Slow(limit);
+    }
+
+    byte[] bytes = this.bytes;
+    int p = pos;
+    long x = 0;
+    for (int shift = 0; shift < 63; shift += 7) {
+      byte b = bytes[p++];
+      x |= (long) (b & 0x7f) << shift;
+      if (b >= 0) {
+        pos = p;
+        return x;
+      }
+    }
+    // The tenth byte holds bit 63. Like the generated parser, take it to be set, as it is in canonical varints,
+    // whatever the value of the byte, as long as it ends the varint.
+    if (bytes[p++] < 0) {
+      throw new InvalidProtocolBufferException("CodedInputStream encountered a malformed varint.");
+    }
+    pos = p;
+    return x | Long.MIN_VALUE;
+  }
+
+  // Reads a varint one byte at a time, checking for the end of the input along the way.
+  private long readVarint64Slow(int limit) throws InvalidProtocolBufferException {
+    long x = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      if (pos == limit) {
+        throw new InvalidProtocolBufferException(
+            "While parsing a protocol message, the input ended unexpectedly in the middle of a field.");
+      }
+      byte b = bytes[pos++];
+      if (b >= 0) {
+        return shift == 63 ? x | Long.MIN_VALUE : x | (long) b << shift;
+      }
+      x |= (long) (b & 0x7f) << shift;
+    }
+    throw new InvalidProtocolBufferException("CodedInputStream encountered a malformed varint.");
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Sidecar offset index for a CIFF file (conventionally with the extension {@code .ciffidx}), which maps every term to
+ * the byte offset of its postings list, and records the byte offset of the first doc record. Offsets are positions in
+ * the uncompressed CIFF stream, so they can be used to seek directly into uncompressed files, see
+ * {@link CiffReader#openSeekable(String)}.
+ *
+ * <p>The sidecar holds, after a magic number, the number of terms, followed by the terms in sorted (UTF-8 byte) order,
+ * each front coded against the previous term and followed by its offset, gap encoded against the previous offset, and
+ * then the doc records offset, and finally the number of doc records and the length of the (uncompressed) CIFF file,
+ * which are checked on load against the file the index is used with. All numbers are varints. This layout is written
+ * in a single streaming pass over the CIFF file, without holding the vocabulary in memory.
+ */
+public class CiffIndex {
+  public static final String SUFFIX = ".ciffidx";
+
+  private static final int MAGIC = 0x43494458; // "CIDX"
+  private static final int VERSION = 2;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final long docRecordsOffset;
+  private final int numTerms;
+  private final byte[] termBytes;
+  private final int[] termStarts;
+  private final long[] offsets;
+
+  private CiffIndex(long docRecordsOffset, int numTerms, byte[] termBytes, int[] termStarts, long[] offsets) {
+    this.docRecordsOffset = docRecordsOffset;
+    this.numTerms = numTerms;
+    this.termBytes = termBytes;
+    this.termStarts = termStarts;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Returns the conventional path of the sidecar index of a CIFF file, i.e., the path of the file with any compression
+   * suffix and {@code .ciff} replaced by {@code .ciffidx}. Since offsets are positions in the uncompressed stream, the
+   * sidecar of a compressed file also applies to the file after decompression.
+   */
+  public static String getDefaultPath(String ciffPath) {
+    String path = ciffPath.substring(0, ciffPath.length() - CiffCodec.fromFileName(ciffPath).getSuffix().length());
+    if (path.endsWith(".ciff")) {
+      path = path.substring(0, path.length() - ".ciff".length());
+    }
+    return path + SUFFIX;
+  }
+
+  /**
+   * Builds the sidecar index of a CIFF file, compressed or not, in a single streaming pass. The postings lists in the
+   * CIFF file must be sorted by term, as they are in exports from Lucene.
+   */
+  public static void build(String ciffPath, String indexPath) throws IOException {
+    try (CiffReader reader = CiffReader.open(ciffPath);
+         OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(Paths.get(indexPath)), BUFFER_SIZE)) {
+      CodedOutputStream out = CodedOutputStream.newInstance(fileOut, BUFFER_SIZE);
+      out.writeFixed32NoTag(MAGIC);
+      out.writeUInt32NoTag(VERSION);
+
+      int numTerms = reader.getHeader().getNumPostingsLists();
+      out.writeUInt32NoTag(numTerms);
+
+      PostingsListBuffer pl = new PostingsListBuffer();
+      byte[] prevTerm = null;
+      long prevOffset = 0;
+      for (int i = 0; i < numTerms; i++) {
+        long offset = reader.getOffset();
+        reader.nextPostingsListStats(pl);
+        byte[] term = pl.getTermBytes();
+        if (prevTerm != null && Arrays.compareUnsigned(prevTerm, term) >= 0) {
+          throw new RuntimeException(String.format("Terms are not sorted! '%s' comes after '%s'",
+              pl.getTerm(), new String(prevTerm, StandardCharsets.UTF_8)));
+        }
+
+        int prefix = prevTerm == null ? 0 : sharedPrefix(prevTerm, term);
+        out.writeUInt32NoTag(prefix);
+        out.writeUInt32NoTag(term.length - prefix);
+        out.write(term, prefix, term.length - prefix);
+        out.writeUInt64NoTag(offset - prevOffset);
+        prevTerm = term;
+        prevOffset = offset;
+      }
+
+      // The doc records start right after the last postings list.
+      out.writeUInt64NoTag(reader.getOffset());
+      out.writeUInt32NoTag(reader.getHeader().getNumDocs());
+      out.writeUInt64NoTag(reader.skipToEnd());
+      out.flush();
+    }
+  }
+
+  private static int sharedPrefix(byte[] a, byte[] b) {
+    int mismatch = Arrays.mismatch(a, b);
+    return mismatch == -1 ? a.length : mismatch;
+  }
+
+  /**
+   * Loads a sidecar index into memory, checking that it belongs to the file of a reader, i.e., that the file has as
+   * many postings lists and doc records, and as many bytes, as the file that the index was built from.
+   *
+   * @param indexPath path of the sidecar index
+   * @param reader reader of the file to use the index with, opened with {@link CiffReader#openSeekable(String)} or
+   *               {@link CiffReader#openMapped(String)}
+   */
+  public static CiffIndex load(String indexPath, CiffReader reader) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(indexPath)), BUFFER_SIZE)) {
+      CodedInputStream input = CodedInputStream.newInstance(in, BUFFER_SIZE);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      if (input.readFixed32() != MAGIC) {
+        throw new IOException(indexPath + " is not a CIFF index!");
+      }
+      int version = input.readUInt32();
+      if (version != VERSION) {
+        throw new IOException(String.format("Unsupported CIFF index version %d, rebuild %s with IndexCIFF!", version,
+            indexPath));
+      }
+
+      int numTerms = input.readUInt32();
+      int[] termStarts = new int[numTerms + 1];
+      long[] offsets = new long[numTerms];
+      byte[] termBytes = new byte[1024];
+      int length = 0;
+      int prevStart = 0;
+      for (int i = 0; i < numTerms; i++) {
+        // Long vocabularies would exceed the size limit, which applies to the total number of bytes read.
+        input.resetSizeCounter();
+        int prefix = input.readUInt32();
+        int suffix = input.readUInt32();
+        if (termBytes.length < length + prefix + suffix) {
+          termBytes = Arrays.copyOf(termBytes, Math.max(termBytes.length * 2, length + prefix + suffix));
+        }
+        System.arraycopy(termBytes, prevStart, termBytes, length, prefix);
+        byte[] bytes = input.readRawBytes(suffix);
+        System.arraycopy(bytes, 0, termBytes, length + prefix, suffix);
+
+        termStarts[i] = length;
+        prevStart = length;
+        length += prefix + suffix;
+        offsets[i] = i == 0 ? input.readUInt64() : offsets[i - 1] + input.readUInt64();
+      }
+      termStarts[numTerms] = length;
+      long docRecordsOffset = input.readUInt64();
+      int numDocs = input.readUInt32();
+      long fileLength = input.readUInt64();
+
+      // Offsets into any other file would point anywhere.
+      CommonIndexFileFormat.Header header = reader.getHeader();
+      if (numTerms != header.getNumPostingsLists() || numDocs != header.getNumDocs() ||
+          fileLength != reader.getFileLength()) {
+        throw new IOException(String.format(
+            "%s was built from a file of %,d postings lists, %,d doc records and %,d bytes, not from one of %,d " +
+                "postings lists, %,d doc records and %,d bytes!", indexPath, numTerms, numDocs, fileLength,
+            header.getNumPostingsLists(), header.getNumDocs(), reader.getFileLength()));
+      }
+
+      return new CiffIndex(docRecordsOffset, numTerms, termBytes, termStarts, offsets);
+    }
+  }
+
+  public int getNumTerms() {
+    return numTerms;
+  }
+
+  public long getDocRecordsOffset() {
+    return docRecordsOffset;
+  }
+
+  /**
+   * Returns the ordinal of a term, i.e., the position of its postings list in the CIFF file, or -1 if the term doesn't
+   * exist.
+   */
+  public int getOrdinal(String term) {
+    byte[] key = term.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = numTerms - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = Arrays.compareUnsigned(termBytes, termStarts[mid], termStarts[mid + 1], key, 0, key.length);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the byte offset of the postings list with the given ordinal.
+   */
+  public long getOffset(int ordinal) {
+    return offsets[ordinal];
+  }
+}
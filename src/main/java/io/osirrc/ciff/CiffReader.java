@@ -0,0 +1,730 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Streaming reader for CIFF files. The header is read when the reader is created, after which the postings lists and
+ * then the doc records are read one at a time, in order. Postings lists can either be read as generated
+ * {@link CommonIndexFileFormat.PostingsList} messages, or decoded into a reusable {@link PostingsListBuffer}, which
+ * avoids allocating an object per posting and resolves the d-gaps along the way. Scans that only need the term
+ * statistics can use {@link #nextPostingsListStats(PostingsListBuffer)}, which doesn't decode the postings at all.
+ * Files of version 1 and version 2, with or without a postings codec, are read alike.
+ *
+ * <pre>
+ * try (CiffReader reader = CiffReader.open("robust04-complete-20200306.ciff.gz")) {
+ *   PostingsListBuffer buffer = new PostingsListBuffer();
+ *   while (reader.nextPostingsList(buffer)) {
+ *     ...
+ *   }
+ *   CommonIndexFileFormat.DocRecord docRecord;
+ *   while ((docRecord = reader.nextDocRecord()) != null) {
+ *     ...
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>Uncompressed files can also be opened with {@link #openSeekable(String)}, after which the reader can seek straight
+ * to the postings list of a term, or to the doc records, using a sidecar {@link CiffIndex}. They can moreover be opened
+ * with {@link #openMapped(String)}, which parses messages straight from a memory-mapped file, and can also seek. Files
+ * that end with a footer can be sought in without a sidecar index, see {@link #getFooter()}.
+ */
+public class CiffReader implements Closeable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  // A MappedByteBuffer is limited to 2 GB, so large files are mapped in windows of this size.
+  private static final int WINDOW_SIZE = 1 << 30;
+  private static final int MAX_VARINT32_SIZE = 5;
+
+  private final InputStream in;
+  private final FileChannel channel;
+  private CodedInputStream input;
+  // For memory-mapped files, the currently mapped window of the file, and where it starts.
+  private final int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;
+  // A view of the window with a position of its own, for bulk copies out of it.
+  private ByteBuffer windowView;
+  private final CommonIndexFileFormat.Header header;
+  // The footer of files that can be sought in, or null, and its sampled terms as UTF-8 bytes.
+  private final CommonIndexFileFormat.Footer footer;
+  private final byte[][] sampledTerms;
+  private long footerOffset;
+  private final CiffDecoder decoder = new CiffDecoder();
+  // Reusable array that postings lists are copied into for the decoder, which only grows.
+  private byte[] scratch = new byte[BUFFER_SIZE];
+  private int postingsListsRead;
+  private int docRecordsRead;
+  // Offset in the uncompressed stream at which the size counter of the CodedInputStream was last reset.
+  private long offset;
+
+  /**
+   * Creates a reader over an (uncompressed) stream of CIFF messages, and reads the header.
+   */
+  public CiffReader(InputStream in) throws IOException {
+    this(in, null, 0);
+  }
+
+  private CiffReader(InputStream in, FileChannel channel, int windowSize) throws IOException {
+    this.in = in;
+    this.channel = channel;
+    this.windowSize = windowSize;
+    if (windowSize > 0) {
+      map(0);
+    } else {
+      this.input = CodedInputStream.newInstance(in, BUFFER_SIZE);
+    }
+    this.header = parseDelimitedFrom(CommonIndexFileFormat.Header.parser());
+    if (header.getVersion() > CommonIndexFileFormatConstants.VERSION) {
+      throw new IOException(String.format("Unsupported CIFF version %d!", header.getVersion()));
+    }
+    if (!header.getPostingsCodec().isEmpty() &&
+        !header.getPostingsCodec().equals(CommonIndexFileFormatConstants.POSTINGS_CODEC_STREAM_VBYTE)) {
+      throw new IOException(String.format("Unsupported postings codec '%s'!", header.getPostingsCodec()));
+    }
+
+    this.footer = channel != null ? readFooter(channel) : null;
+    if (footer != null) {
+      if (footer.getSampledTermsCount() != footer.getSampledOffsetsCount() || footer.getTermSampleInterval() <= 0) {
+        throw new IOException(String.format("Footer has %d sampled terms, %d sampled offsets and interval %d!",
+            footer.getSampledTermsCount(), footer.getSampledOffsetsCount(), footer.getTermSampleInterval()));
+      }
+      this.sampledTerms = new byte[footer.getSampledTermsCount()][];
+      for (int i = 0; i < sampledTerms.length; i++) {
+        sampledTerms[i] = footer.getSampledTermsBytes(i).toByteArray();
+      }
+    } else {
+      this.sampledTerms = null;
+    }
+  }
+
+  // Reads the footer that the trailer at the end of the file points to, without moving the position of the channel,
+  // or returns null if the file doesn't end with a trailer.
+  private CommonIndexFileFormat.Footer readFooter(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size < CommonIndexFileFormatConstants.TRAILER_SIZE) {
+      return null;
+    }
+    ByteBuffer trailer = ByteBuffer.allocate(CommonIndexFileFormatConstants.TRAILER_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, trailer, size - CommonIndexFileFormatConstants.TRAILER_SIZE);
+    if (trailer.getLong(8) != CommonIndexFileFormatConstants.TRAILER_MAGIC) {
+      return null;
+    }
+
+    long offset = trailer.getLong(0);
+    long length = size - CommonIndexFileFormatConstants.TRAILER_SIZE - offset;
+    if (offset < 0 || length <= 0 || length > Integer.MAX_VALUE) {
+      throw new IOException(String.format("Trailer points to a footer at offset %,d, outside of the file!", offset));
+    }
+    ByteBuffer bytes = ByteBuffer.allocate((int) length);
+    readFully(channel, bytes, offset);
+    CodedInputStream input = CodedInputStream.newInstance(bytes.array());
+    int limit = input.pushLimit(input.readRawVarint32());
+    CommonIndexFileFormat.Footer footer = CommonIndexFileFormat.Footer.parser().parseFrom(input);
+    input.popLimit(limit);
+    if (!input.isAtEnd()) {
+      throw new IOException(String.format("Footer at offset %,d doesn't end at the trailer!", offset));
+    }
+    footerOffset = offset;
+    return footer;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of file!");
+      }
+    }
+  }
+
+  /**
+   * Opens a CIFF file, compressed or not, reading and decompressing it ahead on a background thread.
+   */
+  public static CiffReader open(String path) throws IOException {
+    return new CiffReader(CiffCodec.open(path, true));
+  }
+
+  /**
+   * Opens a CIFF file, compressed or not, the fastest way there is: memory-mapped if it's uncompressed, see
+   * {@link #openMapped(String)}, or read and decompressed ahead on a background thread otherwise, see
+   * {@link #open(String)}.
+   */
+  public static CiffReader openFastest(String path) throws IOException {
+    return CiffCodec.fromFile(path) == CiffCodec.NONE ? openMapped(path) : open(path);
+  }
+
+  /**
+   * Opens an uncompressed CIFF file for random access, see {@link #seekPostingsList(CiffIndex, String)} and
+   * {@link #seekDocRecords(CiffIndex)}.
+   */
+  public static CiffReader openSeekable(String path) throws IOException {
+    CiffCodec codec = CiffCodec.fromFile(path);
+    if (codec != CiffCodec.NONE) {
+      throw new IllegalArgumentException(String.format("Can't seek in %s, which is compressed with %s!", path, codec));
+    }
+
+    FileChannel channel = FileChannel.open(Paths.get(path));
+    return new CiffReader(Channels.newInputStream(channel), channel, 0);
+  }
+
+  /**
+   * Opens an uncompressed CIFF file by memory-mapping it, so that messages are read from the page cache, which is
+   * shared by all processes reading the same file, rather than through system calls and stream buffers. Generated
+   * messages are parsed from the mapped memory in place. Postings lists decoded into a {@link PostingsListBuffer} are
+   * not: since the decoder works on arrays, each one is first copied in bulk into an array that is reused from one list
+   * to the next, so that reading them allocates nothing once it has grown to the longest list. The copy takes about a
+   * tenth of the time of decoding, which is still four to five times faster than parsing generated messages in place.
+   * The file is mapped in windows of 1 GB, moving the window along whenever the next message doesn't fit. Supports
+   * seeking, like {@link #openSeekable(String)}.
+   */
+  public static CiffReader openMapped(String path) throws IOException {
+    return openMapped(path, WINDOW_SIZE);
+  }
+
+  // Visible for testing window moves on small files.
+  static CiffReader openMapped(String path, int windowSize) throws IOException {
+    CiffCodec codec = CiffCodec.fromFile(path);
+    if (codec != CiffCodec.NONE) {
+      throw new IllegalArgumentException(String.format("Can't map %s, which is compressed with %s!", path, codec));
+    }
+
+    return new CiffReader(null, FileChannel.open(Paths.get(path)), windowSize);
+  }
+
+  public CommonIndexFileFormat.Header getHeader() {
+    return header;
+  }
+
+  /**
+   * Returns the footer, if the file has one and the reader was opened with {@link #openSeekable(String)} or
+   * {@link #openMapped(String)}, or null otherwise. With a footer, the reader can seek to the doc records and to the
+   * postings list of a term without a sidecar index, see {@link #seekDocRecords()} and
+   * {@link #seekPostingsList(String)}.
+   */
+  public CommonIndexFileFormat.Footer getFooter() {
+    return footer;
+  }
+
+  // Length of the file, for readers that can seek.
+  long getFileLength() throws IOException {
+    if (channel == null) {
+      throw new UnsupportedOperationException("Seeking requires a reader opened with openSeekable() or openMapped()!");
+    }
+    return channel.size();
+  }
+
+  // Skips the rest of the stream, any footer and trailer after the doc records included, and returns its length.
+  long skipToEnd() throws IOException {
+    if (channel != null) {
+      return channel.size();
+    }
+
+    skipPostingsLists();
+    while (docRecordsRead < header.getNumDocs()) {
+      resetSizeCounter();
+      input.skipRawBytes(input.readRawVarint32());
+      docRecordsRead++;
+    }
+    // Whatever follows the doc records is small enough to be skipped byte by byte.
+    resetSizeCounter();
+    while (!input.isAtEnd()) {
+      input.readRawByte();
+    }
+    return getOffset();
+  }
+
+  /**
+   * Returns the offset of the next message in the uncompressed stream, i.e., the number of (uncompressed) bytes read so
+   * far, including the header.
+   */
+  public long getOffset() {
+    return offset + input.getTotalBytesRead();
+  }
+
+  /**
+   * Seeks to the postings list of a term, so that it's the next one read. Only supported by readers opened with
+   * {@link #openSeekable(String)} or {@link #openMapped(String)}.
+   *
+   * @param index sidecar index of the file
+   * @param term term to seek to
+   * @return false if the term doesn't exist, in which case the position is unchanged
+   */
+  public boolean seekPostingsList(CiffIndex index, String term) throws IOException {
+    int ordinal = index.getOrdinal(term);
+    if (ordinal == -1) {
+      return false;
+    }
+
+    seek(index.getOffset(ordinal));
+    postingsListsRead = ordinal;
+    docRecordsRead = 0;
+    return true;
+  }
+
+  /**
+   * Seeks to the first doc record, skipping all postings lists. Only supported by readers opened with
+   * {@link #openSeekable(String)} or {@link #openMapped(String)}.
+   *
+   * @param index sidecar index of the file
+   */
+  public void seekDocRecords(CiffIndex index) throws IOException {
+    seek(index.getDocRecordsOffset());
+    postingsListsRead = header.getNumPostingsLists();
+    docRecordsRead = 0;
+  }
+
+  /**
+   * Seeks to the postings list of a term, so that it's the next one read, using the sampled terms of the footer: the
+   * postings list is found by scanning the term statistics of at most {@code term_sample_interval} postings lists,
+   * starting from the last sampled term that doesn't come after the term. Requires a footer, see {@link #getFooter()}.
+   *
+   * @param term term to seek to
+   * @return false if the term doesn't exist, in which case the position is unchanged
+   */
+  public boolean seekPostingsList(String term) throws IOException {
+    checkFooter();
+    byte[] key = term.getBytes(StandardCharsets.UTF_8);
+    // Finds the last sampled term that doesn't come after the term.
+    int low = 0;
+    int high = sampledTerms.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (Arrays.compareUnsigned(sampledTerms[mid], key) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (high < 0) {
+      return false;
+    }
+
+    long position = getOffset();
+    int prevPostingsListsRead = postingsListsRead;
+    int prevDocRecordsRead = docRecordsRead;
+    seek(footer.getSampledOffsets(high));
+    postingsListsRead = high * footer.getTermSampleInterval();
+    docRecordsRead = 0;
+    PostingsListBuffer buffer = new PostingsListBuffer();
+    for (int i = 0; i < footer.getTermSampleInterval() && postingsListsRead < header.getNumPostingsLists(); i++) {
+      long offset = getOffset();
+      nextPostingsListStats(buffer);
+      int cmp = Arrays.compareUnsigned(buffer.getTermBytes(), key);
+      if (cmp == 0) {
+        seek(offset);
+        postingsListsRead--;
+        return true;
+      } else if (cmp > 0) {
+        break;
+      }
+    }
+
+    seek(position);
+    postingsListsRead = prevPostingsListsRead;
+    docRecordsRead = prevDocRecordsRead;
+    return false;
+  }
+
+  /**
+   * Seeks to the first doc record, skipping all postings lists, using the footer. Requires a footer, see
+   * {@link #getFooter()}.
+   */
+  public void seekDocRecords() throws IOException {
+    checkFooter();
+    seek(footer.getDocRecordsOffset());
+    postingsListsRead = header.getNumPostingsLists();
+    docRecordsRead = 0;
+  }
+
+  /**
+   * Verifies the file against the CRC32C checksums in the footer, on a pool of threads, each reading and checksumming
+   * blocks of the file with positional reads, independently of the position of the reader. Requires a footer, see
+   * {@link #getFooter()}.
+   *
+   * @param threads number of threads to checksum blocks with
+   * @return the numbers of the blocks (of {@code checksum_block_size} bytes, from the start of the file) whose
+   *     checksums don't match, which is empty if the file is intact or the footer has no checksums
+   */
+  public List<Integer> verifyChecksums(int threads) throws IOException {
+    checkFooter();
+    long blockSize = footer.getChecksumBlockSize();
+    long numBlocks = blockSize > 0 ? (footerOffset + blockSize - 1) / blockSize : 0;
+    if (footer.getChecksumsCount() != numBlocks) {
+      throw new IOException(String.format("Footer has %,d checksums, rather than %,d for %,d bytes in blocks of %,d!",
+          footer.getChecksumsCount(), numBlocks, footerOffset, blockSize));
+    }
+
+    List<Integer> failed = new ArrayList<>();
+    int[] block = new int[1];
+    ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    try (OrderedExecutor<Integer> executor = new OrderedExecutor<>(threads, checksum -> {
+      if (checksum != footer.getChecksums(block[0])) {
+        failed.add(block[0]);
+      }
+      block[0]++;
+    })) {
+      for (long i = 0; i < numBlocks; i++) {
+        long start = i * blockSize;
+        long end = Math.min(start + blockSize, footerOffset);
+        executor.submit(() -> {
+          ByteBuffer buffer = buffers.get();
+          CRC32C crc = new CRC32C();
+          for (long position = start; position < end; position += buffer.limit()) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            readFully(channel, buffer, position);
+            crc.update(buffer.flip());
+          }
+          return (int) crc.getValue();
+        });
+      }
+      executor.finish();
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+    return failed;
+  }
+
+  private void checkFooter() {
+    if (footer == null) {
+      throw new UnsupportedOperationException(
+          "Seeking without a sidecar index requires a file with a footer, opened with openSeekable() or openMapped()!");
+    }
+  }
+
+  private void seek(long position) throws IOException {
+    if (channel == null) {
+      throw new UnsupportedOperationException("Seeking requires a reader opened with openSeekable() or openMapped()!");
+    }
+
+    if (window != null) {
+      map(position);
+      return;
+    }
+
+    // The CodedInputStream buffers ahead, so it's replaced by a new one reading from the new position.
+    channel.position(position);
+    input = CodedInputStream.newInstance(in, BUFFER_SIZE);
+    offset = position;
+  }
+
+  // Maps the window of the file starting at the given position, and reads from its start.
+  private void map(long position) throws IOException {
+    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, channel.size() - position));
+    windowView = window.duplicate();
+    windowStart = position;
+    // Over a direct buffer, the CodedInputStream reads the mapped memory in place.
+    input = CodedInputStream.newInstance(window);
+    offset = position;
+  }
+
+  // Moves the mapped window along to the next message, if that message doesn't fit in the current window.
+  private void ensureMapped() throws IOException {
+    long position = getOffset();
+    int start = (int) (position - windowStart);
+    if (window.limit() - start < MAX_VARINT32_SIZE && windowStart + window.limit() < channel.size()) {
+      map(position);
+      start = 0;
+    }
+
+    // Peeks at the varint size of the message, without consuming it.
+    int size = 0;
+    int end = start;
+    for (int shift = 0; end < window.limit() && shift < 32; shift += 7) {
+      byte b = window.get(end++);
+      size |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        break;
+      }
+    }
+
+    if ((long) end + size > window.limit()) {
+      if ((end - start) + (long) size > windowSize) {
+        throw new IOException(String.format("Message of %,d bytes at offset %,d is larger than the mapped window!",
+            size, position));
+      }
+      map(position);
+    }
+  }
+
+  /**
+   * Reads the next postings list. The postings of version 2 files are moved out of the packed arrays or blocks into
+   * Posting messages, so that callers see the same messages regardless of the version.
+   *
+   * @return the next postings list, or null if all postings lists have been read
+   */
+  public CommonIndexFileFormat.PostingsList nextPostingsList() throws IOException {
+    if (postingsListsRead == header.getNumPostingsLists()) {
+      return null;
+    }
+
+    postingsListsRead++;
+    CommonIndexFileFormat.PostingsList postingsList = parseDelimitedFrom(CommonIndexFileFormat.PostingsList.parser());
+    if (postingsList.getBlocksCount() != 0) {
+      return decodeBlocks(postingsList);
+    }
+    if (postingsList.getDocidsCount() == 0 && postingsList.getTfsCount() == 0) {
+      return postingsList;
+    }
+
+    if (postingsList.getDocidsCount() != postingsList.getTfsCount() || postingsList.getPostingsCount() != 0) {
+      throw new IOException(String.format("PostingsList has %d docids, %d tfs and %d Posting messages!",
+          postingsList.getDocidsCount(), postingsList.getTfsCount(), postingsList.getPostingsCount()));
+    }
+    CommonIndexFileFormat.PostingsList.Builder builder = postingsList.toBuilder().clearDocids().clearTfs();
+    for (int i = 0; i < postingsList.getDocidsCount(); i++) {
+      builder.addPostings(CommonIndexFileFormat.Posting.newBuilder()
+          .setDocid(postingsList.getDocids(i))
+          .setTf(postingsList.getTfs(i)));
+    }
+    return builder.build();
+  }
+
+  // Moves the postings of a postings list out of its blocks into Posting messages.
+  private static CommonIndexFileFormat.PostingsList decodeBlocks(CommonIndexFileFormat.PostingsList postingsList)
+      throws IOException {
+    if (postingsList.getDocidsCount() != 0 || postingsList.getTfsCount() != 0 || postingsList.getPostingsCount() != 0) {
+      throw new IOException(String.format("PostingsList has %d blocks, %d docids, %d tfs and %d Posting messages!",
+          postingsList.getBlocksCount(), postingsList.getDocidsCount(), postingsList.getTfsCount(),
+          postingsList.getPostingsCount()));
+    }
+
+    CommonIndexFileFormat.PostingsList.Builder builder = postingsList.toBuilder().clearBlocks();
+    int[] docids = new int[CommonIndexFileFormatConstants.BLOCK_SIZE];
+    int[] tfs = new int[CommonIndexFileFormatConstants.BLOCK_SIZE];
+    for (CommonIndexFileFormat.PostingsBlock block : postingsList.getBlocksList()) {
+      byte[] docidBytes = block.getDocids().toByteArray();
+      byte[] tfBytes = block.getTfs().toByteArray();
+      int n = block.getNumPostings();
+      // See CiffDecoder, which checks blocks the same way.
+      if (n < 0 || n > docidBytes.length || n > tfBytes.length
+          || StreamVByte.encodedLength(docidBytes, 0, n) != docidBytes.length
+          || StreamVByte.encodedLength(tfBytes, 0, n) != tfBytes.length) {
+        throw new IOException(String.format(
+            "PostingsBlock of %d postings doesn't match the %d bytes of docids and %d bytes of tfs!",
+            n, docidBytes.length, tfBytes.length));
+      }
+      if (docids.length < n) {
+        docids = new int[n];
+        tfs = new int[n];
+      }
+      StreamVByte.decode(docidBytes, 0, n, docids, 0);
+      StreamVByte.decode(tfBytes, 0, n, tfs, 0);
+      for (int i = 0; i < n; i++) {
+        builder.addPostings(CommonIndexFileFormat.Posting.newBuilder().setDocid(docids[i]).setTf(tfs[i]));
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Decodes the next postings list into a reusable buffer.
+   *
+   * @param buffer buffer to decode the postings list into
+   * @return false if all postings lists have been read
+   */
+  public boolean nextPostingsList(PostingsListBuffer buffer) throws IOException {
+    if (postingsListsRead == header.getNumPostingsLists()) {
+      return false;
+    }
+
+    postingsListsRead++;
+    resetSizeCounter();
+    int size = input.readRawVarint32();
+    if (scratch.length < size) {
+      scratch = new byte[Math.max(size, scratch.length * 2)];
+    }
+    readRawBytes(scratch, 0, size);
+    decoder.decodePostingsList(scratch, 0, size, buffer);
+
+    return true;
+  }
+
+  // Reads the given number of bytes into an array, rather than into a new one as CodedInputStream.readRawBytes() does.
+  // Mapped windows are copied from in bulk, which is the one copy of mapped postings lists, see openMapped(). Streams
+  // still go through a new array, as the CodedInputStream has no way of copying into a given one, and copying out of it
+  // byte by byte turned out to cost more than the allocation.
+  private void readRawBytes(byte[] bytes, int offset, int length) throws IOException {
+    if (window != null) {
+      windowView.position((int) (getOffset() - windowStart));
+      windowView.get(bytes, offset, length);
+      input.skipRawBytes(length);
+    } else {
+      System.arraycopy(input.readRawBytes(length), 0, bytes, offset, length);
+    }
+  }
+
+  /**
+   * Decodes only the term, df and cf of the next postings list into a reusable buffer, jumping over its postings
+   * without decoding them. This relies on the fields of the message being written in field number order, as protobuf
+   * does, so that the postings (in either version) come last. The buffer ends up holding no postings, nor any score
+   * bounds, which come after the postings.
+   *
+   * @param buffer buffer to decode the term statistics into
+   * @return false if all postings lists have been read
+   */
+  public boolean nextPostingsListStats(PostingsListBuffer buffer) throws IOException {
+    if (postingsListsRead == header.getNumPostingsLists()) {
+      return false;
+    }
+
+    postingsListsRead++;
+    int limit = beginMessage();
+    buffer.reset();
+    while (true) {
+      int tag = input.readTag();
+      if (tag == 0) {
+        break;
+      } else if (tag == CiffTags.POSTINGS_LIST_POSTINGS || tag == CiffTags.POSTINGS_LIST_DOCIDS
+          || tag == CiffTags.POSTINGS_LIST_BLOCKS) {
+        input.skipRawBytes(input.getBytesUntilLimit());
+        break;
+      } else if (tag == CiffTags.POSTINGS_LIST_TERM) {
+        buffer.setTerm(input.readByteArray());
+      } else if (tag == CiffTags.POSTINGS_LIST_DF) {
+        buffer.setDf(input.readInt64());
+      } else if (tag == CiffTags.POSTINGS_LIST_CF) {
+        buffer.setCf(input.readInt64());
+      } else {
+        input.skipField(tag);
+      }
+    }
+    input.popLimit(limit);
+
+    return true;
+  }
+
+  /**
+   * Reads the next postings lists without decoding them, for them to be decoded elsewhere, e.g., on other threads. The
+   * length-delimited messages are copied as they are into a chunk of frames, until the chunk holds at least the given
+   * number of bytes or all postings lists have been read.
+   *
+   * @param chunkSize number of bytes after which to stop adding postings lists to the chunk
+   * @return the chunk of postings lists, or null if all postings lists have been read
+   */
+  public PostingsListFrames nextPostingsListFrames(int chunkSize) throws IOException {
+    if (postingsListsRead == header.getNumPostingsLists()) {
+      return null;
+    }
+
+    int first = postingsListsRead;
+    long chunkOffset = getOffset();
+    byte[] bytes = new byte[chunkSize + MAX_VARINT32_SIZE];
+    int length = 0;
+    while (length < chunkSize && postingsListsRead < header.getNumPostingsLists()) {
+      resetSizeCounter();
+      int size = input.readRawVarint32();
+      if (bytes.length < length + MAX_VARINT32_SIZE + size) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + MAX_VARINT32_SIZE + size));
+      }
+      length = writeVarint32(bytes, length, size);
+      readRawBytes(bytes, length, size);
+      length += size;
+      postingsListsRead++;
+    }
+
+    return new PostingsListFrames(bytes, first, postingsListsRead - first, chunkOffset);
+  }
+
+  private static int writeVarint32(byte[] bytes, int pos, int value) {
+    while ((value & ~0x7f) != 0) {
+      bytes[pos++] = (byte) ((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    bytes[pos++] = (byte) value;
+    return pos;
+  }
+
+  /**
+   * Reads the next doc record, skipping over any postings lists that haven't been read yet.
+   *
+   * @return the next doc record, or null if all doc records have been read
+   */
+  public CommonIndexFileFormat.DocRecord nextDocRecord() throws IOException {
+    skipPostingsLists();
+    if (docRecordsRead == header.getNumDocs()) {
+      return null;
+    }
+
+    docRecordsRead++;
+    return parseDelimitedFrom(CommonIndexFileFormat.DocRecord.parser());
+  }
+
+  /**
+   * Skips over the postings lists that haven't been read yet, without parsing them, using the length prefix of each
+   * postings list. Scans of the doc records only thus cost little more than reading through the postings.
+   */
+  public void skipPostingsLists() throws IOException {
+    while (postingsListsRead < header.getNumPostingsLists()) {
+      resetSizeCounter();
+      input.skipRawBytes(input.readRawVarint32());
+      postingsListsRead++;
+    }
+  }
+
+  // Reads the size of the next delimited message and limits the input to it, returning the previous limit.
+  private int beginMessage() throws IOException {
+    resetSizeCounter();
+    return input.pushLimit(input.readRawVarint32());
+  }
+
+  private void resetSizeCounter() throws IOException {
+    if (window != null) {
+      ensureMapped();
+    }
+    // The size limit applies to the total number of bytes read, which would be exceeded by large files.
+    offset += input.getTotalBytesRead();
+    input.resetSizeCounter();
+  }
+
+  // Equivalent of parseDelimitedFrom() on the generated messages, but reading from a CodedInputStream that is reused
+  // across messages, rather than wrapping the stream in a new one for every message.
+  private <T> T parseDelimitedFrom(Parser<T> parser) throws IOException {
+    int limit = beginMessage();
+    T message = parser.parseFrom(input);
+    input.popLimit(limit);
+    return message;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+    } else {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.WireFormat;
+
+/**
+ * Tags, i.e., (field number << 3) | wire type, of the fields of the messages as defined in CommonIndexFileFormat.proto,
+ * for the code that writes and parses them without the generated classes. Field numbers are all below 16, so every tag
+ * takes a single byte.
+ */
+final class CiffTags {
+  static final int POSTINGS_LIST_TERM = tag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int POSTINGS_LIST_DF = tag(2, WireFormat.WIRETYPE_VARINT);
+  static final int POSTINGS_LIST_CF = tag(3, WireFormat.WIRETYPE_VARINT);
+  static final int POSTINGS_LIST_POSTINGS = tag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int POSTINGS_LIST_DOCIDS = tag(5, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int POSTINGS_LIST_TFS = tag(6, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  // Parsers must also accept repeated scalar fields that aren't packed.
+  static final int POSTINGS_LIST_DOCIDS_UNPACKED = tag(5, WireFormat.WIRETYPE_VARINT);
+  static final int POSTINGS_LIST_TFS_UNPACKED = tag(6, WireFormat.WIRETYPE_VARINT);
+  static final int POSTINGS_LIST_BLOCKS = tag(7, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int POSTINGS_LIST_MAX_TF = tag(8, WireFormat.WIRETYPE_VARINT);
+  static final int POSTINGS_LIST_MAX_SCORE = tag(9, WireFormat.WIRETYPE_FIXED32);
+  static final int POSTINGS_LIST_BLOCK_MAX_SCORES = tag(10, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int POSTINGS_LIST_BLOCK_MAX_SCORES_UNPACKED = tag(10, WireFormat.WIRETYPE_FIXED32);
+  static final int POSTINGS_BLOCK_NUM_POSTINGS = tag(1, WireFormat.WIRETYPE_VARINT);
+  static final int POSTINGS_BLOCK_MAX_DOCID = tag(2, WireFormat.WIRETYPE_VARINT);
+  static final int POSTINGS_BLOCK_DOCIDS = tag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int POSTINGS_BLOCK_TFS = tag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int POSTING_DOCID = tag(1, WireFormat.WIRETYPE_VARINT);
+  static final int POSTING_TF = tag(2, WireFormat.WIRETYPE_VARINT);
+  static final int DOC_RECORD_DOCID = tag(1, WireFormat.WIRETYPE_VARINT);
+  static final int DOC_RECORD_COLLECTION_DOCID = tag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+  static final int DOC_RECORD_DOCLENGTH = tag(3, WireFormat.WIRETYPE_VARINT);
+
+  private CiffTags() {
+  }
+
+  static int tag(int fieldNumber, int wireType) {
+    return (fieldNumber << 3) | wireType;
+  }
+}
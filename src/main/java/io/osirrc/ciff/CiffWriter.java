@@ -0,0 +1,498 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming writer for delimited CIFF messages. Postings are accumulated in reusable primitive buffers and written
+ * straight through a {@link CodedOutputStream}, without materializing {@code Posting} and {@code PostingsList}
+ * objects. The output is byte-for-byte identical to {@code writeDelimitedTo()} on the equivalent messages built with
+ * the generated classes: fields are written in field number order, and (as in proto3) fields holding default values
+ * are omitted. Postings are written as Posting messages (version 1), or as packed arrays of docids and tfs (version 2),
+ * or as blocks compressed with a postings codec (version 2 with a {@code postings_codec} in the header).
+ *
+ * <p>The writer counts the bytes it writes, and can sample the terms and offsets of the postings lists it writes, for
+ * the optional footer, see {@link #sampleTerms(int, int)} and {@link #writeFooter(CommonIndexFileFormat.Footer, long)}.
+ * It can also compute the score bounds of the postings lists it writes, see {@link #scoreBounds(ScoreBounds)}.
+ *
+ * <p>The writer buffers internally: call {@link #flush()} before writing to the underlying stream directly.
+ */
+public class CiffWriter {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int BLOCK_SIZE = CommonIndexFileFormatConstants.BLOCK_SIZE;
+
+  private final CodedOutputStream out;
+  private final int version;
+  private final boolean blocked;
+
+  private byte[] term = new byte[0];
+  private int termLength;
+  private long df;
+  private long cf;
+  private int[] docids = new int[1024];
+  private int[] tfs = new int[1024];
+  private int numPostings;
+  private int prevDocid;
+
+  // The blocks of the current postings list, encoded one after the other, and for each block, the lengths of its
+  // docids and tfs, and its max docid.
+  private byte[] blocks = new byte[0];
+  private int[] blockDocidsLengths = new int[0];
+  private int[] blockTfsLengths = new int[0];
+  private int[] blockMaxDocids = new int[0];
+
+  // The score bounds of the current postings list, and what to compute them with, if anything.
+  private ScoreBounds scoreBounds;
+  private int maxTf;
+  private float maxScore;
+  private float[] blockMaxScores = new float[0];
+  private int numBlockMaxScores;
+
+  private long bytesWritten;
+  // Sample of the terms of the postings lists written, with their offsets relative to the start of this writer, and
+  // the ordinal of the next postings list.
+  private int termSampleInterval;
+  private CommonIndexFileFormat.Footer.Builder termSamples;
+  private int ordinal;
+
+  /**
+   * Creates a writer of version 1 messages.
+   */
+  public CiffWriter(OutputStream out) {
+    this(out, CommonIndexFileFormatConstants.VERSION_1);
+  }
+
+  /**
+   * Creates a writer of messages of the given version, which should match the version in the header.
+   */
+  public CiffWriter(OutputStream out, int version) {
+    this(out, version, "");
+  }
+
+  /**
+   * Creates a writer of messages of the given version and postings codec, which should match those in the header. An
+   * empty postings codec stands for none, i.e., for Posting messages or packed arrays, depending on the version.
+   */
+  public CiffWriter(OutputStream out, int version, String postingsCodec) {
+    checkFormat(version, postingsCodec);
+    this.out = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+    this.version = version;
+    this.blocked = !postingsCodec.isEmpty();
+  }
+
+  /**
+   * Checks that a writer can write messages of the given version and postings codec, e.g., for tools to check their
+   * arguments before creating their output.
+   *
+   * @throws IllegalArgumentException if the version or the postings codec is unsupported, or they don't go together
+   */
+  public static void checkFormat(int version, String postingsCodec) {
+    if (version != CommonIndexFileFormatConstants.VERSION_1 && version != CommonIndexFileFormatConstants.VERSION) {
+      throw new IllegalArgumentException(String.format("Unsupported CIFF version %d!", version));
+    }
+    if (!postingsCodec.isEmpty() && !postingsCodec.equals(CommonIndexFileFormatConstants.POSTINGS_CODEC_STREAM_VBYTE)) {
+      throw new IllegalArgumentException(String.format("Unsupported postings codec '%s'!", postingsCodec));
+    }
+    if (!postingsCodec.isEmpty() && version == CommonIndexFileFormatConstants.VERSION_1) {
+      throw new IllegalArgumentException("Postings codecs require CIFF version 2!");
+    }
+  }
+
+  public void writeHeader(CommonIndexFileFormat.Header header) throws IOException {
+    out.writeUInt32NoTag(header.getSerializedSize());
+    header.writeTo(out);
+    bytesWritten += CodedOutputStream.computeUInt32SizeNoTag(header.getSerializedSize()) + header.getSerializedSize();
+  }
+
+  /**
+   * Samples every interval-th postings list written from now on, recording its term and offset for the footer, see
+   * {@link #addTermSamples(CommonIndexFileFormat.Footer.Builder, long)}.
+   *
+   * @param interval interval at which to sample postings lists
+   * @param ordinal ordinal of the next postings list among all postings lists in the file, for writers that only write
+   *     some of them
+   */
+  public void sampleTerms(int interval, int ordinal) {
+    this.termSampleInterval = interval;
+    this.termSamples = CommonIndexFileFormat.Footer.newBuilder();
+    this.ordinal = ordinal;
+  }
+
+  /**
+   * Adds the sampled terms and their offsets to a footer.
+   *
+   * @param footer footer to add the samples to
+   * @param offset offset in the file of the first byte written by this writer, which is added to the offsets
+   */
+  public void addTermSamples(CommonIndexFileFormat.Footer.Builder footer, long offset) {
+    footer.setTermSampleInterval(termSampleInterval);
+    for (int i = 0; i < termSamples.getSampledTermsCount(); i++) {
+      footer.addSampledTermsBytes(termSamples.getSampledTermsBytes(i));
+      footer.addSampledOffsets(offset + termSamples.getSampledOffsets(i));
+    }
+  }
+
+  /**
+   * Computes the score bounds of every postings list written from now on, which should match the scoring function in
+   * the header, see {@link ScoreBounds#addTo(CommonIndexFileFormat.Header.Builder)}.
+   */
+  public void scoreBounds(ScoreBounds scoreBounds) {
+    this.scoreBounds = scoreBounds;
+  }
+
+  /**
+   * Sets the score bounds of the current postings list, e.g., to copy those of a postings list read from another file,
+   * rather than computing them.
+   *
+   * @param maxTf max tf
+   * @param maxScore max score of any posting
+   * @param blockMaxScores max score of every block of postings
+   * @param numBlockMaxScores number of blocks of postings
+   */
+  public void setScoreBounds(int maxTf, float maxScore, float[] blockMaxScores, int numBlockMaxScores) {
+    this.maxTf = maxTf;
+    this.maxScore = maxScore;
+    if (this.blockMaxScores.length < numBlockMaxScores) {
+      this.blockMaxScores = new float[numBlockMaxScores];
+    }
+    System.arraycopy(blockMaxScores, 0, this.blockMaxScores, 0, numBlockMaxScores);
+    this.numBlockMaxScores = numBlockMaxScores;
+  }
+
+  /**
+   * Returns the number of bytes written so far, whether flushed or not.
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * Starts a new postings list.
+   *
+   * @param term UTF-8 encoded term
+   * @param offset offset of the term in {@code term}
+   * @param length length of the term in bytes
+   * @param df document frequency
+   * @param cf collection frequency
+   */
+  public void startPostingsList(byte[] term, int offset, int length, long df, long cf) {
+    if (this.term.length < length) {
+      this.term = new byte[length];
+    }
+    System.arraycopy(term, offset, this.term, 0, length);
+    this.termLength = length;
+    this.df = df;
+    this.cf = cf;
+    this.numPostings = 0;
+    this.prevDocid = -1;
+    this.maxTf = 0;
+    this.maxScore = 0;
+    this.numBlockMaxScores = 0;
+  }
+
+  /**
+   * Adds a posting to the current postings list. Docids must be added in increasing order; they are written as
+   * d-gaps, i.e., the first docid as is, and each subsequent one as the difference from the previous one.
+   */
+  public void addPosting(int docid, int tf) {
+    if (numPostings == docids.length) {
+      docids = Arrays.copyOf(docids, numPostings * 2);
+      tfs = Arrays.copyOf(tfs, numPostings * 2);
+    }
+    docids[numPostings] = prevDocid == -1 ? docid : docid - prevDocid;
+    tfs[numPostings] = tf;
+    numPostings++;
+    prevDocid = docid;
+  }
+
+  public int getNumPostings() {
+    return numPostings;
+  }
+
+  public void finishPostingsList() throws IOException {
+    // Every tag takes a single byte, see CiffTags.
+    int size = 0;
+    if (termLength != 0) {
+      size += 1 + CodedOutputStream.computeUInt32SizeNoTag(termLength) + termLength;
+    }
+    if (df != 0) {
+      size += 1 + CodedOutputStream.computeInt64SizeNoTag(df);
+    }
+    if (cf != 0) {
+      size += 1 + CodedOutputStream.computeInt64SizeNoTag(cf);
+    }
+    int docidsSize = 0;
+    int tfsSize = 0;
+    int numBlocks = 0;
+    if (version == CommonIndexFileFormatConstants.VERSION_1) {
+      for (int i = 0; i < numPostings; i++) {
+        int postingSize = computePostingSize(docids[i], tfs[i]);
+        size += 1 + CodedOutputStream.computeUInt32SizeNoTag(postingSize) + postingSize;
+      }
+    } else if (blocked) {
+      numBlocks = encodeBlocks();
+      for (int b = 0; b < numBlocks; b++) {
+        int blockSize = computeBlockSize(b);
+        size += 1 + CodedOutputStream.computeUInt32SizeNoTag(blockSize) + blockSize;
+      }
+    } else if (numPostings > 0) {
+      // Unlike singular fields, zeros in packed arrays are written.
+      for (int i = 0; i < numPostings; i++) {
+        docidsSize += CodedOutputStream.computeInt32SizeNoTag(docids[i]);
+        tfsSize += CodedOutputStream.computeInt32SizeNoTag(tfs[i]);
+      }
+      size += 1 + CodedOutputStream.computeUInt32SizeNoTag(docidsSize) + docidsSize;
+      size += 1 + CodedOutputStream.computeUInt32SizeNoTag(tfsSize) + tfsSize;
+    }
+    if (scoreBounds != null) {
+      computeScoreBounds();
+    }
+    if (maxTf != 0) {
+      size += 1 + CodedOutputStream.computeInt32SizeNoTag(maxTf);
+    }
+    // As in the generated code, a float is only omitted if it's exactly zero, i.e., not negative zero.
+    if (Float.floatToRawIntBits(maxScore) != 0) {
+      size += 1 + Float.BYTES;
+    }
+    if (numBlockMaxScores > 0) {
+      size += 1 + CodedOutputStream.computeUInt32SizeNoTag(numBlockMaxScores * Float.BYTES)
+          + numBlockMaxScores * Float.BYTES;
+    }
+
+    if (termSamples != null && ordinal % termSampleInterval == 0) {
+      termSamples.addSampledTermsBytes(ByteString.copyFrom(term, 0, termLength));
+      termSamples.addSampledOffsets(bytesWritten);
+    }
+    ordinal++;
+    bytesWritten += CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+
+    out.writeUInt32NoTag(size);
+    if (termLength != 0) {
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_TERM);
+      out.writeUInt32NoTag(termLength);
+      out.write(term, 0, termLength);
+    }
+    if (df != 0) {
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_DF);
+      out.writeInt64NoTag(df);
+    }
+    if (cf != 0) {
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_CF);
+      out.writeInt64NoTag(cf);
+    }
+    if (version == CommonIndexFileFormatConstants.VERSION_1) {
+      for (int i = 0; i < numPostings; i++) {
+        out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_POSTINGS);
+        out.writeUInt32NoTag(computePostingSize(docids[i], tfs[i]));
+        if (docids[i] != 0) {
+          out.writeUInt32NoTag(CiffTags.POSTING_DOCID);
+          out.writeInt32NoTag(docids[i]);
+        }
+        if (tfs[i] != 0) {
+          out.writeUInt32NoTag(CiffTags.POSTING_TF);
+          out.writeInt32NoTag(tfs[i]);
+        }
+      }
+    } else if (blocked) {
+      int pos = 0;
+      for (int b = 0; b < numBlocks; b++) {
+        out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_BLOCKS);
+        out.writeUInt32NoTag(computeBlockSize(b));
+        out.writeUInt32NoTag(CiffTags.POSTINGS_BLOCK_NUM_POSTINGS);
+        out.writeInt32NoTag(getBlockNumPostings(b));
+        if (blockMaxDocids[b] != 0) {
+          out.writeUInt32NoTag(CiffTags.POSTINGS_BLOCK_MAX_DOCID);
+          out.writeInt32NoTag(blockMaxDocids[b]);
+        }
+        out.writeUInt32NoTag(CiffTags.POSTINGS_BLOCK_DOCIDS);
+        out.writeUInt32NoTag(blockDocidsLengths[b]);
+        out.write(blocks, pos, blockDocidsLengths[b]);
+        pos += blockDocidsLengths[b];
+        out.writeUInt32NoTag(CiffTags.POSTINGS_BLOCK_TFS);
+        out.writeUInt32NoTag(blockTfsLengths[b]);
+        out.write(blocks, pos, blockTfsLengths[b]);
+        pos += blockTfsLengths[b];
+      }
+    } else if (numPostings > 0) {
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_DOCIDS);
+      out.writeUInt32NoTag(docidsSize);
+      for (int i = 0; i < numPostings; i++) {
+        out.writeInt32NoTag(docids[i]);
+      }
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_TFS);
+      out.writeUInt32NoTag(tfsSize);
+      for (int i = 0; i < numPostings; i++) {
+        out.writeInt32NoTag(tfs[i]);
+      }
+    }
+    if (maxTf != 0) {
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_MAX_TF);
+      out.writeInt32NoTag(maxTf);
+    }
+    if (Float.floatToRawIntBits(maxScore) != 0) {
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_MAX_SCORE);
+      out.writeFloatNoTag(maxScore);
+    }
+    if (numBlockMaxScores > 0) {
+      out.writeUInt32NoTag(CiffTags.POSTINGS_LIST_BLOCK_MAX_SCORES);
+      out.writeUInt32NoTag(numBlockMaxScores * Float.BYTES);
+      for (int b = 0; b < numBlockMaxScores; b++) {
+        out.writeFloatNoTag(blockMaxScores[b]);
+      }
+    }
+  }
+
+  // Computes the score bounds of the current postings list, over the same blocks of postings as encodeBlocks(), with
+  // the d-gaps resolved along the way.
+  private void computeScoreBounds() {
+    int numBlocks = (numPostings + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    if (blockMaxScores.length < numBlocks) {
+      blockMaxScores = new float[numBlocks];
+    }
+
+    double idf = scoreBounds.idf(df);
+    int docid = 0;
+    maxTf = 0;
+    maxScore = 0;
+    for (int b = 0; b < numBlocks; b++) {
+      int from = b * BLOCK_SIZE;
+      int to = from + getBlockNumPostings(b);
+      double blockMaxScore = 0;
+      for (int i = from; i < to; i++) {
+        docid += docids[i];
+        maxTf = Math.max(maxTf, tfs[i]);
+        blockMaxScore = Math.max(blockMaxScore, scoreBounds.score(idf, docid, tfs[i]));
+      }
+      blockMaxScores[b] = ScoreBounds.toBound(blockMaxScore);
+      maxScore = Math.max(maxScore, blockMaxScores[b]);
+    }
+    numBlockMaxScores = numBlocks;
+  }
+
+  // Encodes the d-gaps and tfs of the current postings list in blocks, returning the number of blocks.
+  private int encodeBlocks() {
+    int numBlocks = (numPostings + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    if (blockMaxDocids.length < numBlocks) {
+      blockDocidsLengths = new int[numBlocks];
+      blockTfsLengths = new int[numBlocks];
+      blockMaxDocids = new int[numBlocks];
+    }
+    // Each block may take one control byte more than if the postings were encoded in one go.
+    int maxLength = 2 * (StreamVByte.maxEncodedLength(numPostings) + numBlocks);
+    if (blocks.length < maxLength) {
+      blocks = new byte[maxLength];
+    }
+
+    int pos = 0;
+    int docid = 0;
+    for (int b = 0; b < numBlocks; b++) {
+      int from = b * BLOCK_SIZE;
+      int n = getBlockNumPostings(b);
+      for (int i = from; i < from + n; i++) {
+        docid += docids[i];
+      }
+      blockMaxDocids[b] = docid;
+
+      int start = pos;
+      pos = StreamVByte.encode(docids, from, n, blocks, pos);
+      blockDocidsLengths[b] = pos - start;
+      start = pos;
+      pos = StreamVByte.encode(tfs, from, n, blocks, pos);
+      blockTfsLengths[b] = pos - start;
+    }
+    return numBlocks;
+  }
+
+  private int getBlockNumPostings(int block) {
+    return Math.min(BLOCK_SIZE, numPostings - block * BLOCK_SIZE);
+  }
+
+  private int computeBlockSize(int block) {
+    int size = 1 + CodedOutputStream.computeInt32SizeNoTag(getBlockNumPostings(block));
+    if (blockMaxDocids[block] != 0) {
+      size += 1 + CodedOutputStream.computeInt32SizeNoTag(blockMaxDocids[block]);
+    }
+    size += 1 + CodedOutputStream.computeUInt32SizeNoTag(blockDocidsLengths[block]) + blockDocidsLengths[block];
+    size += 1 + CodedOutputStream.computeUInt32SizeNoTag(blockTfsLengths[block]) + blockTfsLengths[block];
+    return size;
+  }
+
+  private static int computePostingSize(int docid, int tf) {
+    int size = 0;
+    if (docid != 0) {
+      size += 1 + CodedOutputStream.computeInt32SizeNoTag(docid);
+    }
+    if (tf != 0) {
+      size += 1 + CodedOutputStream.computeInt32SizeNoTag(tf);
+    }
+    return size;
+  }
+
+  public void writeDocRecord(int docid, String collectionDocid, int doclength) throws IOException {
+    int size = 0;
+    if (docid != 0) {
+      size += 1 + CodedOutputStream.computeInt32SizeNoTag(docid);
+    }
+    if (!collectionDocid.isEmpty()) {
+      size += 1 + CodedOutputStream.computeStringSizeNoTag(collectionDocid);
+    }
+    if (doclength != 0) {
+      size += 1 + CodedOutputStream.computeInt32SizeNoTag(doclength);
+    }
+
+    bytesWritten += CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    out.writeUInt32NoTag(size);
+    if (docid != 0) {
+      out.writeUInt32NoTag(CiffTags.DOC_RECORD_DOCID);
+      out.writeInt32NoTag(docid);
+    }
+    if (!collectionDocid.isEmpty()) {
+      out.writeUInt32NoTag(CiffTags.DOC_RECORD_COLLECTION_DOCID);
+      out.writeStringNoTag(collectionDocid);
+    }
+    if (doclength != 0) {
+      out.writeUInt32NoTag(CiffTags.DOC_RECORD_DOCLENGTH);
+      out.writeInt32NoTag(doclength);
+    }
+  }
+
+  /**
+   * Writes the footer, after the doc records, followed by the trailer that points to it.
+   *
+   * @param footer footer to write
+   * @param offset offset of the footer in the file
+   */
+  public void writeFooter(CommonIndexFileFormat.Footer footer, long offset) throws IOException {
+    out.writeUInt32NoTag(footer.getSerializedSize());
+    footer.writeTo(out);
+    out.writeFixed64NoTag(offset);
+    out.writeFixed64NoTag(CommonIndexFileFormatConstants.TRAILER_MAGIC);
+    bytesWritten += CodedOutputStream.computeUInt32SizeNoTag(footer.getSerializedSize()) + footer.getSerializedSize()
+        + CommonIndexFileFormatConstants.TRAILER_SIZE;
+  }
+
+  public void flush() throws IOException {
+    out.flush();
+  }
+}
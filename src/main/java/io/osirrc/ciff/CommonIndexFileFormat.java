@@ -103,6 +103,68 @@ public final class CommonIndexFileFormat {
      */
     com.google.protobuf.ByteString
         getDescriptionBytes();
+
+    /**
+     * <pre>
+     * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+     * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+     * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+     * from the least significant bits, and each value takes one to four bytes, little endian.
+     * </pre>
+     *
+     * <code>string postings_codec = 9;</code>
+     */
+    java.lang.String getPostingsCodec();
+    /**
+     * <pre>
+     * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+     * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+     * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+     * from the least significant bits, and each value takes one to four bytes, little endian.
+     * </pre>
+     *
+     * <code>string postings_codec = 9;</code>
+     */
+    com.google.protobuf.ByteString
+        getPostingsCodecBytes();
+
+    /**
+     * <pre>
+     * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+     * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+     * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+     *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+     * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+     * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+     * </pre>
+     *
+     * <code>string scoring_function = 10;</code>
+     */
+    java.lang.String getScoringFunction();
+    /**
+     * <pre>
+     * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+     * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+     * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+     *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+     * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+     * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+     * </pre>
+     *
+     * <code>string scoring_function = 10;</code>
+     */
+    com.google.protobuf.ByteString
+        getScoringFunctionBytes();
+
+    /**
+     * <code>double bm25_k1 = 11;</code>
+     */
+    double getBm25K1();
+
+    /**
+     * <code>double bm25_b = 12;</code>
+     */
+    double getBm25B();
   }
   /**
    * <pre>
@@ -122,6 +184,8 @@ public final class CommonIndexFileFormat {
     }
     private Header() {
       description_ = "";
+      postingsCodec_ = "";
+      scoringFunction_ = "";
     }
 
     @java.lang.Override
@@ -195,6 +259,28 @@ public final class CommonIndexFileFormat {
               description_ = s;
               break;
             }
+            case 74: {
+              java.lang.String s = input.readStringRequireUtf8();
+
+              postingsCodec_ = s;
+              break;
+            }
+            case 82: {
+              java.lang.String s = input.readStringRequireUtf8();
+
+              scoringFunction_ = s;
+              break;
+            }
+            case 89: {
+
+              bm25K1_ = input.readDouble();
+              break;
+            }
+            case 97: {
+
+              bm25B_ = input.readDouble();
+              break;
+            }
             default: {
               if (!parseUnknownField(
                   input, unknownFields, extensionRegistry, tag)) {
@@ -365,6 +451,124 @@ public final class CommonIndexFileFormat {
       }
     }
 
+    public static final int POSTINGS_CODEC_FIELD_NUMBER = 9;
+    private volatile java.lang.Object postingsCodec_;
+    /**
+     * <pre>
+     * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+     * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+     * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+     * from the least significant bits, and each value takes one to four bytes, little endian.
+     * </pre>
+     *
+     * <code>string postings_codec = 9;</code>
+     */
+    public java.lang.String getPostingsCodec() {
+      java.lang.Object ref = postingsCodec_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        postingsCodec_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+     * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+     * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+     * from the least significant bits, and each value takes one to four bytes, little endian.
+     * </pre>
+     *
+     * <code>string postings_codec = 9;</code>
+     */
+    public com.google.protobuf.ByteString
+        getPostingsCodecBytes() {
+      java.lang.Object ref = postingsCodec_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        postingsCodec_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int SCORING_FUNCTION_FIELD_NUMBER = 10;
+    private volatile java.lang.Object scoringFunction_;
+    /**
+     * <pre>
+     * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+     * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+     * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+     *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+     * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+     * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+     * </pre>
+     *
+     * <code>string scoring_function = 10;</code>
+     */
+    public java.lang.String getScoringFunction() {
+      java.lang.Object ref = scoringFunction_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        scoringFunction_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+     * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+     * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+     *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+     * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+     * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+     * </pre>
+     *
+     * <code>string scoring_function = 10;</code>
+     */
+    public com.google.protobuf.ByteString
+        getScoringFunctionBytes() {
+      java.lang.Object ref = scoringFunction_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        scoringFunction_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int BM25_K1_FIELD_NUMBER = 11;
+    private double bm25K1_;
+    /**
+     * <code>double bm25_k1 = 11;</code>
+     */
+    public double getBm25K1() {
+      return bm25K1_;
+    }
+
+    public static final int BM25_B_FIELD_NUMBER = 12;
+    private double bm25B_;
+    /**
+     * <code>double bm25_b = 12;</code>
+     */
+    public double getBm25B() {
+      return bm25B_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -403,6 +607,18 @@ public final class CommonIndexFileFormat {
       if (!getDescriptionBytes().isEmpty()) {
         com.google.protobuf.GeneratedMessageV3.writeString(output, 8, description_);
       }
+      if (!getPostingsCodecBytes().isEmpty()) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 9, postingsCodec_);
+      }
+      if (!getScoringFunctionBytes().isEmpty()) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 10, scoringFunction_);
+      }
+      if (bm25K1_ != 0D) {
+        output.writeDouble(11, bm25K1_);
+      }
+      if (bm25B_ != 0D) {
+        output.writeDouble(12, bm25B_);
+      }
       unknownFields.writeTo(output);
     }
 
@@ -443,6 +659,20 @@ public final class CommonIndexFileFormat {
       if (!getDescriptionBytes().isEmpty()) {
         size += com.google.protobuf.GeneratedMessageV3.computeStringSize(8, description_);
       }
+      if (!getPostingsCodecBytes().isEmpty()) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(9, postingsCodec_);
+      }
+      if (!getScoringFunctionBytes().isEmpty()) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(10, scoringFunction_);
+      }
+      if (bm25K1_ != 0D) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeDoubleSize(11, bm25K1_);
+      }
+      if (bm25B_ != 0D) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeDoubleSize(12, bm25B_);
+      }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
       return size;
@@ -475,6 +705,16 @@ public final class CommonIndexFileFormat {
               other.getAverageDoclength())) return false;
       if (!getDescription()
           .equals(other.getDescription())) return false;
+      if (!getPostingsCodec()
+          .equals(other.getPostingsCodec())) return false;
+      if (!getScoringFunction()
+          .equals(other.getScoringFunction())) return false;
+      if (java.lang.Double.doubleToLongBits(getBm25K1())
+          != java.lang.Double.doubleToLongBits(
+              other.getBm25K1())) return false;
+      if (java.lang.Double.doubleToLongBits(getBm25B())
+          != java.lang.Double.doubleToLongBits(
+              other.getBm25B())) return false;
       if (!unknownFields.equals(other.unknownFields)) return false;
       return true;
     }
@@ -504,6 +744,16 @@ public final class CommonIndexFileFormat {
           java.lang.Double.doubleToLongBits(getAverageDoclength()));
       hash = (37 * hash) + DESCRIPTION_FIELD_NUMBER;
       hash = (53 * hash) + getDescription().hashCode();
+      hash = (37 * hash) + POSTINGS_CODEC_FIELD_NUMBER;
+      hash = (53 * hash) + getPostingsCodec().hashCode();
+      hash = (37 * hash) + SCORING_FUNCTION_FIELD_NUMBER;
+      hash = (53 * hash) + getScoringFunction().hashCode();
+      hash = (37 * hash) + BM25_K1_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          java.lang.Double.doubleToLongBits(getBm25K1()));
+      hash = (37 * hash) + BM25_B_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          java.lang.Double.doubleToLongBits(getBm25B()));
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -657,6 +907,14 @@ public final class CommonIndexFileFormat {
 
         description_ = "";
 
+        postingsCodec_ = "";
+
+        scoringFunction_ = "";
+
+        bm25K1_ = 0D;
+
+        bm25B_ = 0D;
+
         return this;
       }
 
@@ -691,6 +949,10 @@ public final class CommonIndexFileFormat {
         result.totalTermsInCollection_ = totalTermsInCollection_;
         result.averageDoclength_ = averageDoclength_;
         result.description_ = description_;
+        result.postingsCodec_ = postingsCodec_;
+        result.scoringFunction_ = scoringFunction_;
+        result.bm25K1_ = bm25K1_;
+        result.bm25B_ = bm25B_;
         onBuilt();
         return result;
       }
@@ -764,6 +1026,20 @@ public final class CommonIndexFileFormat {
           description_ = other.description_;
           onChanged();
         }
+        if (!other.getPostingsCodec().isEmpty()) {
+          postingsCodec_ = other.postingsCodec_;
+          onChanged();
+        }
+        if (!other.getScoringFunction().isEmpty()) {
+          scoringFunction_ = other.scoringFunction_;
+          onChanged();
+        }
+        if (other.getBm25K1() != 0D) {
+          setBm25K1(other.getBm25K1());
+        }
+        if (other.getBm25B() != 0D) {
+          setBm25B(other.getBm25B());
+        }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
         return this;
@@ -1161,75 +1437,349 @@ public final class CommonIndexFileFormat {
         onChanged();
         return this;
       }
-      @java.lang.Override
-      public final Builder setUnknownFields(
-          final com.google.protobuf.UnknownFieldSet unknownFields) {
-        return super.setUnknownFields(unknownFields);
-      }
 
-      @java.lang.Override
-      public final Builder mergeUnknownFields(
-          final com.google.protobuf.UnknownFieldSet unknownFields) {
-        return super.mergeUnknownFields(unknownFields);
+      private java.lang.Object postingsCodec_ = "";
+      /**
+       * <pre>
+       * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+       * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+       * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+       * from the least significant bits, and each value takes one to four bytes, little endian.
+       * </pre>
+       *
+       * <code>string postings_codec = 9;</code>
+       */
+      public java.lang.String getPostingsCodec() {
+        java.lang.Object ref = postingsCodec_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          postingsCodec_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
       }
-
-
-      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.Header)
-    }
-
-    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.Header)
-    private static final io.osirrc.ciff.CommonIndexFileFormat.Header DEFAULT_INSTANCE;
-    static {
-      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.Header();
-    }
-
-    public static io.osirrc.ciff.CommonIndexFileFormat.Header getDefaultInstance() {
-      return DEFAULT_INSTANCE;
-    }
-
-    private static final com.google.protobuf.Parser<Header>
-        PARSER = new com.google.protobuf.AbstractParser<Header>() {
-      @java.lang.Override
-      public Header parsePartialFrom(
-          com.google.protobuf.CodedInputStream input,
-          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        return new Header(input, extensionRegistry);
+      /**
+       * <pre>
+       * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+       * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+       * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+       * from the least significant bits, and each value takes one to four bytes, little endian.
+       * </pre>
+       *
+       * <code>string postings_codec = 9;</code>
+       */
+      public com.google.protobuf.ByteString
+          getPostingsCodecBytes() {
+        java.lang.Object ref = postingsCodec_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          postingsCodec_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
       }
-    };
-
-    public static com.google.protobuf.Parser<Header> parser() {
-      return PARSER;
-    }
-
-    @java.lang.Override
-    public com.google.protobuf.Parser<Header> getParserForType() {
-      return PARSER;
-    }
-
-    @java.lang.Override
-    public io.osirrc.ciff.CommonIndexFileFormat.Header getDefaultInstanceForType() {
-      return DEFAULT_INSTANCE;
-    }
-
+      /**
+       * <pre>
+       * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+       * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+       * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+       * from the least significant bits, and each value takes one to four bytes, little endian.
+       * </pre>
+       *
+       * <code>string postings_codec = 9;</code>
+       */
+      public Builder setPostingsCodec(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
   }
-
-  public interface PostingOrBuilder extends
-      // @@protoc_insertion_point(interface_extends:io.osirrc.ciff.Posting)
-      com.google.protobuf.MessageOrBuilder {
-
-    /**
-     * <code>int32 docid = 1;</code>
-     */
-    int getDocid();
-
-    /**
-     * <code>int32 tf = 2;</code>
-     */
-    int getTf();
+  
+        postingsCodec_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+       * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+       * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+       * from the least significant bits, and each value takes one to four bytes, little endian.
+       * </pre>
+       *
+       * <code>string postings_codec = 9;</code>
+       */
+      public Builder clearPostingsCodec() {
+        
+        postingsCodec_ = getDefaultInstance().getPostingsCodec();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The codec the postings in PostingsList.blocks are compressed with, in version 2. Empty if the postings are stored
+       * in the packed arrays instead. The only codec defined so far is "streamvbyte": Stream VByte, where the values are
+       * preceded by control bytes, each holding the byte lengths (minus one) of four values in two bits apiece, starting
+       * from the least significant bits, and each value takes one to four bytes, little endian.
+       * </pre>
+       *
+       * <code>string postings_codec = 9;</code>
+       */
+      public Builder setPostingsCodecBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
   }
-  /**
-   * <pre>
+  checkByteStringIsUtf8(value);
+        
+        postingsCodec_ = value;
+        onChanged();
+        return this;
+      }
+
+      private java.lang.Object scoringFunction_ = "";
+      /**
+       * <pre>
+       * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+       * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+       * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+       *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+       * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+       * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+       * </pre>
+       *
+       * <code>string scoring_function = 10;</code>
+       */
+      public java.lang.String getScoringFunction() {
+        java.lang.Object ref = scoringFunction_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          scoringFunction_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <pre>
+       * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+       * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+       * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+       *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+       * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+       * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+       * </pre>
+       *
+       * <code>string scoring_function = 10;</code>
+       */
+      public com.google.protobuf.ByteString
+          getScoringFunctionBytes() {
+        java.lang.Object ref = scoringFunction_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          scoringFunction_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <pre>
+       * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+       * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+       * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+       *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+       * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+       * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+       * </pre>
+       *
+       * <code>string scoring_function = 10;</code>
+       */
+      public Builder setScoringFunction(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        scoringFunction_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+       * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+       * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+       *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+       * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+       * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+       * </pre>
+       *
+       * <code>string scoring_function = 10;</code>
+       */
+      public Builder clearScoringFunction() {
+        
+        scoringFunction_ = getDefaultInstance().getScoringFunction();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The scoring function that the score bounds in PostingsList.max_score and PostingsList.block_max_scores hold for,
+       * along with its parameters. Empty if the postings lists hold no score bounds. The only scoring function defined so
+       * far is "bm25": BM25 as scored by Lucene, where the score of a posting is
+       *   idf * tf / (tf + bm25_k1 * (1 - bm25_b + bm25_b * doclength / average_doclength)),
+       * with idf = ln(1 + (total_docs - df + 0.5) / (df + 0.5)), and the doclength from the DocRecord of the posting.
+       * Engines that score with the classic formula, which multiplies by (bm25_k1 + 1), can scale the bounds accordingly.
+       * </pre>
+       *
+       * <code>string scoring_function = 10;</code>
+       */
+      public Builder setScoringFunctionBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        
+        scoringFunction_ = value;
+        onChanged();
+        return this;
+      }
+
+      private double bm25K1_ ;
+      /**
+       * <code>double bm25_k1 = 11;</code>
+       */
+      public double getBm25K1() {
+        return bm25K1_;
+      }
+      /**
+       * <code>double bm25_k1 = 11;</code>
+       */
+      public Builder setBm25K1(double value) {
+        
+        bm25K1_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>double bm25_k1 = 11;</code>
+       */
+      public Builder clearBm25K1() {
+        
+        bm25K1_ = 0D;
+        onChanged();
+        return this;
+      }
+
+      private double bm25B_ ;
+      /**
+       * <code>double bm25_b = 12;</code>
+       */
+      public double getBm25B() {
+        return bm25B_;
+      }
+      /**
+       * <code>double bm25_b = 12;</code>
+       */
+      public Builder setBm25B(double value) {
+        
+        bm25B_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>double bm25_b = 12;</code>
+       */
+      public Builder clearBm25B() {
+        
+        bm25B_ = 0D;
+        onChanged();
+        return this;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.Header)
+    }
+
+    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.Header)
+    private static final io.osirrc.ciff.CommonIndexFileFormat.Header DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.Header();
+    }
+
+    public static io.osirrc.ciff.CommonIndexFileFormat.Header getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    private static final com.google.protobuf.Parser<Header>
+        PARSER = new com.google.protobuf.AbstractParser<Header>() {
+      @java.lang.Override
+      public Header parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new Header(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<Header> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<Header> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public io.osirrc.ciff.CommonIndexFileFormat.Header getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface PostingOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.osirrc.ciff.Posting)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <pre>
+     *the *delta-gap* compressed docid
+     * </pre>
+     *
+     * <code>int32 docid = 1;</code>
+     */
+    int getDocid();
+
+    /**
+     * <code>int32 tf = 2;</code>
+     */
+    int getTf();
+  }
+  /**
+   * <pre>
    * An individual posting.
    * </pre>
    *
@@ -1322,6 +1872,10 @@ public final class CommonIndexFileFormat {
     public static final int DOCID_FIELD_NUMBER = 1;
     private int docid_;
     /**
+     * <pre>
+     *the *delta-gap* compressed docid
+     * </pre>
+     *
      * <code>int32 docid = 1;</code>
      */
     public int getDocid() {
@@ -1662,12 +2216,20 @@ public final class CommonIndexFileFormat {
 
       private int docid_ ;
       /**
+       * <pre>
+       *the *delta-gap* compressed docid
+       * </pre>
+       *
        * <code>int32 docid = 1;</code>
        */
       public int getDocid() {
         return docid_;
       }
       /**
+       * <pre>
+       *the *delta-gap* compressed docid
+       * </pre>
+       *
        * <code>int32 docid = 1;</code>
        */
       public Builder setDocid(int value) {
@@ -1677,6 +2239,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       *the *delta-gap* compressed docid
+       * </pre>
+       *
        * <code>int32 docid = 1;</code>
        */
       public Builder clearDocid() {
@@ -1805,69 +2371,210 @@ public final class CommonIndexFileFormat {
     long getCf();
 
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     java.util.List<io.osirrc.ciff.CommonIndexFileFormat.Posting> 
         getPostingsList();
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     io.osirrc.ciff.CommonIndexFileFormat.Posting getPostings(int index);
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     int getPostingsCount();
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     java.util.List<? extends io.osirrc.ciff.CommonIndexFileFormat.PostingOrBuilder> 
         getPostingsOrBuilderList();
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     io.osirrc.ciff.CommonIndexFileFormat.PostingOrBuilder getPostingsOrBuilder(
         int index);
-  }
-  /**
-   * <pre>
-   * A postings list, comprised of one ore more postings.
-   * </pre>
-   *
-   * Protobuf type {@code io.osirrc.ciff.PostingsList}
-   */
-  public  static final class PostingsList extends
-      com.google.protobuf.GeneratedMessageV3 implements
-      // @@protoc_insertion_point(message_implements:io.osirrc.ciff.PostingsList)
-      PostingsListOrBuilder {
-  private static final long serialVersionUID = 0L;
-    // Use PostingsList.newBuilder() to construct.
-    private PostingsList(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
-      super(builder);
-    }
-    private PostingsList() {
-      term_ = "";
-      postings_ = java.util.Collections.emptyList();
-    }
 
-    @java.lang.Override
-    @SuppressWarnings({"unused"})
-    protected java.lang.Object newInstance(
-        UnusedPrivateParameter unused) {
-      return new PostingsList();
-    }
+    /**
+     * <pre>
+     * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+     * </pre>
+     *
+     * <code>repeated int32 docids = 5 [packed = true];</code>
+     */
+    java.util.List<java.lang.Integer> getDocidsList();
+    /**
+     * <pre>
+     * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+     * </pre>
+     *
+     * <code>repeated int32 docids = 5 [packed = true];</code>
+     */
+    int getDocidsCount();
+    /**
+     * <pre>
+     * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+     * </pre>
+     *
+     * <code>repeated int32 docids = 5 [packed = true];</code>
+     */
+    int getDocids(int index);
 
-    @java.lang.Override
-    public final com.google.protobuf.UnknownFieldSet
-    getUnknownFields() {
-      return this.unknownFields;
-    }
-    private PostingsList(
-        com.google.protobuf.CodedInputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      this();
-      if (extensionRegistry == null) {
-        throw new java.lang.NullPointerException();
+    /**
+     * <code>repeated int32 tfs = 6 [packed = true];</code>
+     */
+    java.util.List<java.lang.Integer> getTfsList();
+    /**
+     * <code>repeated int32 tfs = 6 [packed = true];</code>
+     */
+    int getTfsCount();
+    /**
+     * <code>repeated int32 tfs = 6 [packed = true];</code>
+     */
+    int getTfs(int index);
+
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    java.util.List<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock> 
+        getBlocksList();
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock getBlocks(int index);
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    int getBlocksCount();
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    java.util.List<? extends io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder> 
+        getBlocksOrBuilderList();
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder getBlocksOrBuilder(
+        int index);
+
+    /**
+     * <pre>
+     * Upper bounds for dynamic pruning (e.g., WAND, MaxScore and block-max WAND), if the Header names a
+     * scoring_function: the max tf, the max score of any posting, and the max score of every 128 postings (the same
+     * postings as in PostingsList.blocks, if any), the last one for the rest. Bounds may exceed the actual max scores by
+     * a small margin, as they are meant to hold for scores computed in single precision as well.
+     * </pre>
+     *
+     * <code>int32 max_tf = 8;</code>
+     */
+    int getMaxTf();
+
+    /**
+     * <code>float max_score = 9;</code>
+     */
+    float getMaxScore();
+
+    /**
+     * <code>repeated float block_max_scores = 10 [packed = true];</code>
+     */
+    java.util.List<java.lang.Float> getBlockMaxScoresList();
+    /**
+     * <code>repeated float block_max_scores = 10 [packed = true];</code>
+     */
+    int getBlockMaxScoresCount();
+    /**
+     * <code>repeated float block_max_scores = 10 [packed = true];</code>
+     */
+    float getBlockMaxScores(int index);
+  }
+  /**
+   * <pre>
+   * A postings list, comprised of one ore more postings.
+   * </pre>
+   *
+   * Protobuf type {@code io.osirrc.ciff.PostingsList}
+   */
+  public  static final class PostingsList extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:io.osirrc.ciff.PostingsList)
+      PostingsListOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use PostingsList.newBuilder() to construct.
+    private PostingsList(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private PostingsList() {
+      term_ = "";
+      postings_ = java.util.Collections.emptyList();
+      docids_ = emptyIntList();
+      tfs_ = emptyIntList();
+      blocks_ = java.util.Collections.emptyList();
+      blockMaxScores_ = emptyFloatList();
+    }
+
+    @java.lang.Override
+    @SuppressWarnings({"unused"})
+    protected java.lang.Object newInstance(
+        UnusedPrivateParameter unused) {
+      return new PostingsList();
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private PostingsList(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
       }
       int mutable_bitField0_ = 0;
       com.google.protobuf.UnknownFieldSet.Builder unknownFields =
@@ -1905,6 +2612,88 @@ public final class CommonIndexFileFormat {
                   input.readMessage(io.osirrc.ciff.CommonIndexFileFormat.Posting.parser(), extensionRegistry));
               break;
             }
+            case 40: {
+              if (!((mutable_bitField0_ & 0x00000002) != 0)) {
+                docids_ = newIntList();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              docids_.addInt(input.readInt32());
+              break;
+            }
+            case 42: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000002) != 0) && input.getBytesUntilLimit() > 0) {
+                docids_ = newIntList();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                docids_.addInt(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 48: {
+              if (!((mutable_bitField0_ & 0x00000004) != 0)) {
+                tfs_ = newIntList();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              tfs_.addInt(input.readInt32());
+              break;
+            }
+            case 50: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000004) != 0) && input.getBytesUntilLimit() > 0) {
+                tfs_ = newIntList();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                tfs_.addInt(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 58: {
+              if (!((mutable_bitField0_ & 0x00000008) != 0)) {
+                blocks_ = new java.util.ArrayList<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock>();
+                mutable_bitField0_ |= 0x00000008;
+              }
+              blocks_.add(
+                  input.readMessage(io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.parser(), extensionRegistry));
+              break;
+            }
+            case 64: {
+
+              maxTf_ = input.readInt32();
+              break;
+            }
+            case 77: {
+
+              maxScore_ = input.readFloat();
+              break;
+            }
+            case 85: {
+              if (!((mutable_bitField0_ & 0x00000010) != 0)) {
+                blockMaxScores_ = newFloatList();
+                mutable_bitField0_ |= 0x00000010;
+              }
+              blockMaxScores_.addFloat(input.readFloat());
+              break;
+            }
+            case 82: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000010) != 0) && input.getBytesUntilLimit() > 0) {
+                blockMaxScores_ = newFloatList();
+                mutable_bitField0_ |= 0x00000010;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                blockMaxScores_.addFloat(input.readFloat());
+              }
+              input.popLimit(limit);
+              break;
+            }
             default: {
               if (!parseUnknownField(
                   input, unknownFields, extensionRegistry, tag)) {
@@ -1923,6 +2712,18 @@ public final class CommonIndexFileFormat {
         if (((mutable_bitField0_ & 0x00000001) != 0)) {
           postings_ = java.util.Collections.unmodifiableList(postings_);
         }
+        if (((mutable_bitField0_ & 0x00000002) != 0)) {
+          docids_.makeImmutable(); // C
+        }
+        if (((mutable_bitField0_ & 0x00000004) != 0)) {
+          tfs_.makeImmutable(); // C
+        }
+        if (((mutable_bitField0_ & 0x00000008) != 0)) {
+          blocks_ = java.util.Collections.unmodifiableList(blocks_);
+        }
+        if (((mutable_bitField0_ & 0x00000010) != 0)) {
+          blockMaxScores_.makeImmutable(); // C
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
@@ -2011,12 +2812,20 @@ public final class CommonIndexFileFormat {
     public static final int POSTINGS_FIELD_NUMBER = 4;
     private java.util.List<io.osirrc.ciff.CommonIndexFileFormat.Posting> postings_;
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     public java.util.List<io.osirrc.ciff.CommonIndexFileFormat.Posting> getPostingsList() {
       return postings_;
     }
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     public java.util.List<? extends io.osirrc.ciff.CommonIndexFileFormat.PostingOrBuilder> 
@@ -2024,18 +2833,30 @@ public final class CommonIndexFileFormat {
       return postings_;
     }
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     public int getPostingsCount() {
       return postings_.size();
     }
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     public io.osirrc.ciff.CommonIndexFileFormat.Posting getPostings(int index) {
       return postings_.get(index);
     }
     /**
+     * <pre>
+     * The postings, in version 1.
+     * </pre>
+     *
      * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
      */
     public io.osirrc.ciff.CommonIndexFileFormat.PostingOrBuilder getPostingsOrBuilder(
@@ -2043,6 +2864,172 @@ public final class CommonIndexFileFormat {
       return postings_.get(index);
     }
 
+    public static final int DOCIDS_FIELD_NUMBER = 5;
+    private com.google.protobuf.Internal.IntList docids_;
+    /**
+     * <pre>
+     * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+     * </pre>
+     *
+     * <code>repeated int32 docids = 5 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Integer>
+        getDocidsList() {
+      return docids_;
+    }
+    /**
+     * <pre>
+     * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+     * </pre>
+     *
+     * <code>repeated int32 docids = 5 [packed = true];</code>
+     */
+    public int getDocidsCount() {
+      return docids_.size();
+    }
+    /**
+     * <pre>
+     * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+     * </pre>
+     *
+     * <code>repeated int32 docids = 5 [packed = true];</code>
+     */
+    public int getDocids(int index) {
+      return docids_.getInt(index);
+    }
+    private int docidsMemoizedSerializedSize = -1;
+
+    public static final int TFS_FIELD_NUMBER = 6;
+    private com.google.protobuf.Internal.IntList tfs_;
+    /**
+     * <code>repeated int32 tfs = 6 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Integer>
+        getTfsList() {
+      return tfs_;
+    }
+    /**
+     * <code>repeated int32 tfs = 6 [packed = true];</code>
+     */
+    public int getTfsCount() {
+      return tfs_.size();
+    }
+    /**
+     * <code>repeated int32 tfs = 6 [packed = true];</code>
+     */
+    public int getTfs(int index) {
+      return tfs_.getInt(index);
+    }
+    private int tfsMemoizedSerializedSize = -1;
+
+    public static final int BLOCKS_FIELD_NUMBER = 7;
+    private java.util.List<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock> blocks_;
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    public java.util.List<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock> getBlocksList() {
+      return blocks_;
+    }
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    public java.util.List<? extends io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder> 
+        getBlocksOrBuilderList() {
+      return blocks_;
+    }
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    public int getBlocksCount() {
+      return blocks_.size();
+    }
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock getBlocks(int index) {
+      return blocks_.get(index);
+    }
+    /**
+     * <pre>
+     * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+     * which holds the rest.
+     * </pre>
+     *
+     * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+     */
+    public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder getBlocksOrBuilder(
+        int index) {
+      return blocks_.get(index);
+    }
+
+    public static final int MAX_TF_FIELD_NUMBER = 8;
+    private int maxTf_;
+    /**
+     * <pre>
+     * Upper bounds for dynamic pruning (e.g., WAND, MaxScore and block-max WAND), if the Header names a
+     * scoring_function: the max tf, the max score of any posting, and the max score of every 128 postings (the same
+     * postings as in PostingsList.blocks, if any), the last one for the rest. Bounds may exceed the actual max scores by
+     * a small margin, as they are meant to hold for scores computed in single precision as well.
+     * </pre>
+     *
+     * <code>int32 max_tf = 8;</code>
+     */
+    public int getMaxTf() {
+      return maxTf_;
+    }
+
+    public static final int MAX_SCORE_FIELD_NUMBER = 9;
+    private float maxScore_;
+    /**
+     * <code>float max_score = 9;</code>
+     */
+    public float getMaxScore() {
+      return maxScore_;
+    }
+
+    public static final int BLOCK_MAX_SCORES_FIELD_NUMBER = 10;
+    private com.google.protobuf.Internal.FloatList blockMaxScores_;
+    /**
+     * <code>repeated float block_max_scores = 10 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Float>
+        getBlockMaxScoresList() {
+      return blockMaxScores_;
+    }
+    /**
+     * <code>repeated float block_max_scores = 10 [packed = true];</code>
+     */
+    public int getBlockMaxScoresCount() {
+      return blockMaxScores_.size();
+    }
+    /**
+     * <code>repeated float block_max_scores = 10 [packed = true];</code>
+     */
+    public float getBlockMaxScores(int index) {
+      return blockMaxScores_.getFloat(index);
+    }
+    private int blockMaxScoresMemoizedSerializedSize = -1;
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -2057,6 +3044,7 @@ public final class CommonIndexFileFormat {
     @java.lang.Override
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
+      getSerializedSize();
       if (!getTermBytes().isEmpty()) {
         com.google.protobuf.GeneratedMessageV3.writeString(output, 1, term_);
       }
@@ -2069,6 +3057,36 @@ public final class CommonIndexFileFormat {
       for (int i = 0; i < postings_.size(); i++) {
         output.writeMessage(4, postings_.get(i));
       }
+      if (getDocidsList().size() > 0) {
+        output.writeUInt32NoTag(42);
+        output.writeUInt32NoTag(docidsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < docids_.size(); i++) {
+        output.writeInt32NoTag(docids_.getInt(i));
+      }
+      if (getTfsList().size() > 0) {
+        output.writeUInt32NoTag(50);
+        output.writeUInt32NoTag(tfsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < tfs_.size(); i++) {
+        output.writeInt32NoTag(tfs_.getInt(i));
+      }
+      for (int i = 0; i < blocks_.size(); i++) {
+        output.writeMessage(7, blocks_.get(i));
+      }
+      if (maxTf_ != 0) {
+        output.writeInt32(8, maxTf_);
+      }
+      if (maxScore_ != 0F) {
+        output.writeFloat(9, maxScore_);
+      }
+      if (getBlockMaxScoresList().size() > 0) {
+        output.writeUInt32NoTag(82);
+        output.writeUInt32NoTag(blockMaxScoresMemoizedSerializedSize);
+      }
+      for (int i = 0; i < blockMaxScores_.size(); i++) {
+        output.writeFloatNoTag(blockMaxScores_.getFloat(i));
+      }
       unknownFields.writeTo(output);
     }
 
@@ -2093,6 +3111,57 @@ public final class CommonIndexFileFormat {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(4, postings_.get(i));
       }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < docids_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(docids_.getInt(i));
+        }
+        size += dataSize;
+        if (!getDocidsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        docidsMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < tfs_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(tfs_.getInt(i));
+        }
+        size += dataSize;
+        if (!getTfsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        tfsMemoizedSerializedSize = dataSize;
+      }
+      for (int i = 0; i < blocks_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(7, blocks_.get(i));
+      }
+      if (maxTf_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(8, maxTf_);
+      }
+      if (maxScore_ != 0F) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeFloatSize(9, maxScore_);
+      }
+      {
+        int dataSize = 0;
+        dataSize = 4 * getBlockMaxScoresList().size();
+        size += dataSize;
+        if (!getBlockMaxScoresList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        blockMaxScoresMemoizedSerializedSize = dataSize;
+      }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
       return size;
@@ -2116,6 +3185,19 @@ public final class CommonIndexFileFormat {
           != other.getCf()) return false;
       if (!getPostingsList()
           .equals(other.getPostingsList())) return false;
+      if (!getDocidsList()
+          .equals(other.getDocidsList())) return false;
+      if (!getTfsList()
+          .equals(other.getTfsList())) return false;
+      if (!getBlocksList()
+          .equals(other.getBlocksList())) return false;
+      if (getMaxTf()
+          != other.getMaxTf()) return false;
+      if (java.lang.Float.floatToIntBits(getMaxScore())
+          != java.lang.Float.floatToIntBits(
+              other.getMaxScore())) return false;
+      if (!getBlockMaxScoresList()
+          .equals(other.getBlockMaxScoresList())) return false;
       if (!unknownFields.equals(other.unknownFields)) return false;
       return true;
     }
@@ -2139,6 +3221,27 @@ public final class CommonIndexFileFormat {
         hash = (37 * hash) + POSTINGS_FIELD_NUMBER;
         hash = (53 * hash) + getPostingsList().hashCode();
       }
+      if (getDocidsCount() > 0) {
+        hash = (37 * hash) + DOCIDS_FIELD_NUMBER;
+        hash = (53 * hash) + getDocidsList().hashCode();
+      }
+      if (getTfsCount() > 0) {
+        hash = (37 * hash) + TFS_FIELD_NUMBER;
+        hash = (53 * hash) + getTfsList().hashCode();
+      }
+      if (getBlocksCount() > 0) {
+        hash = (37 * hash) + BLOCKS_FIELD_NUMBER;
+        hash = (53 * hash) + getBlocksList().hashCode();
+      }
+      hash = (37 * hash) + MAX_TF_FIELD_NUMBER;
+      hash = (53 * hash) + getMaxTf();
+      hash = (37 * hash) + MAX_SCORE_FIELD_NUMBER;
+      hash = (53 * hash) + java.lang.Float.floatToIntBits(
+          getMaxScore());
+      if (getBlockMaxScoresCount() > 0) {
+        hash = (37 * hash) + BLOCK_MAX_SCORES_FIELD_NUMBER;
+        hash = (53 * hash) + getBlockMaxScoresList().hashCode();
+      }
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -2272,6 +3375,7 @@ public final class CommonIndexFileFormat {
         if (com.google.protobuf.GeneratedMessageV3
                 .alwaysUseFieldBuilders) {
           getPostingsFieldBuilder();
+          getBlocksFieldBuilder();
         }
       }
       @java.lang.Override
@@ -2289,6 +3393,22 @@ public final class CommonIndexFileFormat {
         } else {
           postingsBuilder_.clear();
         }
+        docids_ = emptyIntList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        tfs_ = emptyIntList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        if (blocksBuilder_ == null) {
+          blocks_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000008);
+        } else {
+          blocksBuilder_.clear();
+        }
+        maxTf_ = 0;
+
+        maxScore_ = 0F;
+
+        blockMaxScores_ = emptyFloatList();
+        bitField0_ = (bitField0_ & ~0x00000010);
         return this;
       }
 
@@ -2328,9 +3448,35 @@ public final class CommonIndexFileFormat {
         } else {
           result.postings_ = postingsBuilder_.build();
         }
-        onBuilt();
-        return result;
-      }
+        if (((bitField0_ & 0x00000002) != 0)) {
+          docids_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        }
+        result.docids_ = docids_;
+        if (((bitField0_ & 0x00000004) != 0)) {
+          tfs_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000004);
+        }
+        result.tfs_ = tfs_;
+        if (blocksBuilder_ == null) {
+          if (((bitField0_ & 0x00000008) != 0)) {
+            blocks_ = java.util.Collections.unmodifiableList(blocks_);
+            bitField0_ = (bitField0_ & ~0x00000008);
+          }
+          result.blocks_ = blocks_;
+        } else {
+          result.blocks_ = blocksBuilder_.build();
+        }
+        result.maxTf_ = maxTf_;
+        result.maxScore_ = maxScore_;
+        if (((bitField0_ & 0x00000010) != 0)) {
+          blockMaxScores_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000010);
+        }
+        result.blockMaxScores_ = blockMaxScores_;
+        onBuilt();
+        return result;
+      }
 
       @java.lang.Override
       public Builder clone() {
@@ -2412,6 +3558,68 @@ public final class CommonIndexFileFormat {
             }
           }
         }
+        if (!other.docids_.isEmpty()) {
+          if (docids_.isEmpty()) {
+            docids_ = other.docids_;
+            bitField0_ = (bitField0_ & ~0x00000002);
+          } else {
+            ensureDocidsIsMutable();
+            docids_.addAll(other.docids_);
+          }
+          onChanged();
+        }
+        if (!other.tfs_.isEmpty()) {
+          if (tfs_.isEmpty()) {
+            tfs_ = other.tfs_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+          } else {
+            ensureTfsIsMutable();
+            tfs_.addAll(other.tfs_);
+          }
+          onChanged();
+        }
+        if (blocksBuilder_ == null) {
+          if (!other.blocks_.isEmpty()) {
+            if (blocks_.isEmpty()) {
+              blocks_ = other.blocks_;
+              bitField0_ = (bitField0_ & ~0x00000008);
+            } else {
+              ensureBlocksIsMutable();
+              blocks_.addAll(other.blocks_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.blocks_.isEmpty()) {
+            if (blocksBuilder_.isEmpty()) {
+              blocksBuilder_.dispose();
+              blocksBuilder_ = null;
+              blocks_ = other.blocks_;
+              bitField0_ = (bitField0_ & ~0x00000008);
+              blocksBuilder_ = 
+                com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                   getBlocksFieldBuilder() : null;
+            } else {
+              blocksBuilder_.addAllMessages(other.blocks_);
+            }
+          }
+        }
+        if (other.getMaxTf() != 0) {
+          setMaxTf(other.getMaxTf());
+        }
+        if (other.getMaxScore() != 0F) {
+          setMaxScore(other.getMaxScore());
+        }
+        if (!other.blockMaxScores_.isEmpty()) {
+          if (blockMaxScores_.isEmpty()) {
+            blockMaxScores_ = other.blockMaxScores_;
+            bitField0_ = (bitField0_ & ~0x00000010);
+          } else {
+            ensureBlockMaxScoresIsMutable();
+            blockMaxScores_.addAll(other.blockMaxScores_);
+          }
+          onChanged();
+        }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
         return this;
@@ -2620,6 +3828,10 @@ public final class CommonIndexFileFormat {
           io.osirrc.ciff.CommonIndexFileFormat.Posting, io.osirrc.ciff.CommonIndexFileFormat.Posting.Builder, io.osirrc.ciff.CommonIndexFileFormat.PostingOrBuilder> postingsBuilder_;
 
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public java.util.List<io.osirrc.ciff.CommonIndexFileFormat.Posting> getPostingsList() {
@@ -2630,6 +3842,10 @@ public final class CommonIndexFileFormat {
         }
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public int getPostingsCount() {
@@ -2640,6 +3856,10 @@ public final class CommonIndexFileFormat {
         }
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public io.osirrc.ciff.CommonIndexFileFormat.Posting getPostings(int index) {
@@ -2650,6 +3870,10 @@ public final class CommonIndexFileFormat {
         }
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder setPostings(
@@ -2667,6 +3891,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder setPostings(
@@ -2681,6 +3909,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder addPostings(io.osirrc.ciff.CommonIndexFileFormat.Posting value) {
@@ -2697,6 +3929,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder addPostings(
@@ -2714,6 +3950,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder addPostings(
@@ -2728,6 +3968,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder addPostings(
@@ -2742,6 +3986,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder addAllPostings(
@@ -2757,6 +4005,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder clearPostings() {
@@ -2770,6 +4022,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public Builder removePostings(int index) {
@@ -2783,6 +4039,10 @@ public final class CommonIndexFileFormat {
         return this;
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public io.osirrc.ciff.CommonIndexFileFormat.Posting.Builder getPostingsBuilder(
@@ -2790,6 +4050,10 @@ public final class CommonIndexFileFormat {
         return getPostingsFieldBuilder().getBuilder(index);
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public io.osirrc.ciff.CommonIndexFileFormat.PostingOrBuilder getPostingsOrBuilder(
@@ -2800,6 +4064,10 @@ public final class CommonIndexFileFormat {
         }
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public java.util.List<? extends io.osirrc.ciff.CommonIndexFileFormat.PostingOrBuilder> 
@@ -2811,6 +4079,10 @@ public final class CommonIndexFileFormat {
         }
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public io.osirrc.ciff.CommonIndexFileFormat.Posting.Builder addPostingsBuilder() {
@@ -2818,6 +4090,10 @@ public final class CommonIndexFileFormat {
             io.osirrc.ciff.CommonIndexFileFormat.Posting.getDefaultInstance());
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public io.osirrc.ciff.CommonIndexFileFormat.Posting.Builder addPostingsBuilder(
@@ -2826,6 +4102,10 @@ public final class CommonIndexFileFormat {
             index, io.osirrc.ciff.CommonIndexFileFormat.Posting.getDefaultInstance());
       }
       /**
+       * <pre>
+       * The postings, in version 1.
+       * </pre>
+       *
        * <code>repeated .io.osirrc.ciff.Posting postings = 4;</code>
        */
       public java.util.List<io.osirrc.ciff.CommonIndexFileFormat.Posting.Builder> 
@@ -2846,124 +4126,2332 @@ public final class CommonIndexFileFormat {
         }
         return postingsBuilder_;
       }
-      @java.lang.Override
-      public final Builder setUnknownFields(
-          final com.google.protobuf.UnknownFieldSet unknownFields) {
-        return super.setUnknownFields(unknownFields);
-      }
 
-      @java.lang.Override
-      public final Builder mergeUnknownFields(
-          final com.google.protobuf.UnknownFieldSet unknownFields) {
-        return super.mergeUnknownFields(unknownFields);
+      private com.google.protobuf.Internal.IntList docids_ = emptyIntList();
+      private void ensureDocidsIsMutable() {
+        if (!((bitField0_ & 0x00000002) != 0)) {
+          docids_ = mutableCopy(docids_);
+          bitField0_ |= 0x00000002;
+         }
       }
-
-
-      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.PostingsList)
-    }
-
-    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.PostingsList)
-    private static final io.osirrc.ciff.CommonIndexFileFormat.PostingsList DEFAULT_INSTANCE;
-    static {
-      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.PostingsList();
-    }
-
-    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsList getDefaultInstance() {
-      return DEFAULT_INSTANCE;
-    }
-
-    private static final com.google.protobuf.Parser<PostingsList>
-        PARSER = new com.google.protobuf.AbstractParser<PostingsList>() {
-      @java.lang.Override
-      public PostingsList parsePartialFrom(
-          com.google.protobuf.CodedInputStream input,
-          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        return new PostingsList(input, extensionRegistry);
+      /**
+       * <pre>
+       * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+       * </pre>
+       *
+       * <code>repeated int32 docids = 5 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Integer>
+          getDocidsList() {
+        return ((bitField0_ & 0x00000002) != 0) ?
+                 java.util.Collections.unmodifiableList(docids_) : docids_;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+       * </pre>
+       *
+       * <code>repeated int32 docids = 5 [packed = true];</code>
+       */
+      public int getDocidsCount() {
+        return docids_.size();
+      }
+      /**
+       * <pre>
+       * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+       * </pre>
+       *
+       * <code>repeated int32 docids = 5 [packed = true];</code>
+       */
+      public int getDocids(int index) {
+        return docids_.getInt(index);
+      }
+      /**
+       * <pre>
+       * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+       * </pre>
+       *
+       * <code>repeated int32 docids = 5 [packed = true];</code>
+       */
+      public Builder setDocids(
+          int index, int value) {
+        ensureDocidsIsMutable();
+        docids_.setInt(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+       * </pre>
+       *
+       * <code>repeated int32 docids = 5 [packed = true];</code>
+       */
+      public Builder addDocids(int value) {
+        ensureDocidsIsMutable();
+        docids_.addInt(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+       * </pre>
+       *
+       * <code>repeated int32 docids = 5 [packed = true];</code>
+       */
+      public Builder addAllDocids(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureDocidsIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, docids_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2: the *delta-gap* compressed docids, and the tfs at the same positions.
+       * </pre>
+       *
+       * <code>repeated int32 docids = 5 [packed = true];</code>
+       */
+      public Builder clearDocids() {
+        docids_ = emptyIntList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        onChanged();
+        return this;
       }
-    };
-
-    public static com.google.protobuf.Parser<PostingsList> parser() {
-      return PARSER;
-    }
-
-    @java.lang.Override
-    public com.google.protobuf.Parser<PostingsList> getParserForType() {
-      return PARSER;
-    }
-
-    @java.lang.Override
-    public io.osirrc.ciff.CommonIndexFileFormat.PostingsList getDefaultInstanceForType() {
-      return DEFAULT_INSTANCE;
-    }
-
-  }
 
-  public interface DocRecordOrBuilder extends
-      // @@protoc_insertion_point(interface_extends:io.osirrc.ciff.DocRecord)
-      com.google.protobuf.MessageOrBuilder {
+      private com.google.protobuf.Internal.IntList tfs_ = emptyIntList();
+      private void ensureTfsIsMutable() {
+        if (!((bitField0_ & 0x00000004) != 0)) {
+          tfs_ = mutableCopy(tfs_);
+          bitField0_ |= 0x00000004;
+         }
+      }
+      /**
+       * <code>repeated int32 tfs = 6 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Integer>
+          getTfsList() {
+        return ((bitField0_ & 0x00000004) != 0) ?
+                 java.util.Collections.unmodifiableList(tfs_) : tfs_;
+      }
+      /**
+       * <code>repeated int32 tfs = 6 [packed = true];</code>
+       */
+      public int getTfsCount() {
+        return tfs_.size();
+      }
+      /**
+       * <code>repeated int32 tfs = 6 [packed = true];</code>
+       */
+      public int getTfs(int index) {
+        return tfs_.getInt(index);
+      }
+      /**
+       * <code>repeated int32 tfs = 6 [packed = true];</code>
+       */
+      public Builder setTfs(
+          int index, int value) {
+        ensureTfsIsMutable();
+        tfs_.setInt(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 tfs = 6 [packed = true];</code>
+       */
+      public Builder addTfs(int value) {
+        ensureTfsIsMutable();
+        tfs_.addInt(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 tfs = 6 [packed = true];</code>
+       */
+      public Builder addAllTfs(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureTfsIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, tfs_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 tfs = 6 [packed = true];</code>
+       */
+      public Builder clearTfs() {
+        tfs_ = emptyIntList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        onChanged();
+        return this;
+      }
 
-    /**
-     * <pre>
-     * Refers to the docid in the postings lists.
-     * </pre>
-     *
-     * <code>int32 docid = 1;</code>
-     */
-    int getDocid();
+      private java.util.List<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock> blocks_ =
+        java.util.Collections.emptyList();
+      private void ensureBlocksIsMutable() {
+        if (!((bitField0_ & 0x00000008) != 0)) {
+          blocks_ = new java.util.ArrayList<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock>(blocks_);
+          bitField0_ |= 0x00000008;
+         }
+      }
 
-    /**
-     * <pre>
-     * Refers to a docid in the external collection.
-     * </pre>
-     *
-     * <code>string collection_docid = 2;</code>
-     */
-    java.lang.String getCollectionDocid();
-    /**
-     * <pre>
-     * Refers to a docid in the external collection.
-     * </pre>
-     *
-     * <code>string collection_docid = 2;</code>
-     */
-    com.google.protobuf.ByteString
-        getCollectionDocidBytes();
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder> blocksBuilder_;
 
-    /**
-     * <pre>
-     * Length of this document.
-     * </pre>
-     *
-     * <code>int32 doclength = 3;</code>
-     */
-    int getDoclength();
-  }
-  /**
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public java.util.List<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock> getBlocksList() {
+        if (blocksBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(blocks_);
+        } else {
+          return blocksBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public int getBlocksCount() {
+        if (blocksBuilder_ == null) {
+          return blocks_.size();
+        } else {
+          return blocksBuilder_.getCount();
+        }
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock getBlocks(int index) {
+        if (blocksBuilder_ == null) {
+          return blocks_.get(index);
+        } else {
+          return blocksBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder setBlocks(
+          int index, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock value) {
+        if (blocksBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBlocksIsMutable();
+          blocks_.set(index, value);
+          onChanged();
+        } else {
+          blocksBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder setBlocks(
+          int index, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder builderForValue) {
+        if (blocksBuilder_ == null) {
+          ensureBlocksIsMutable();
+          blocks_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          blocksBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder addBlocks(io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock value) {
+        if (blocksBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBlocksIsMutable();
+          blocks_.add(value);
+          onChanged();
+        } else {
+          blocksBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder addBlocks(
+          int index, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock value) {
+        if (blocksBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBlocksIsMutable();
+          blocks_.add(index, value);
+          onChanged();
+        } else {
+          blocksBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder addBlocks(
+          io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder builderForValue) {
+        if (blocksBuilder_ == null) {
+          ensureBlocksIsMutable();
+          blocks_.add(builderForValue.build());
+          onChanged();
+        } else {
+          blocksBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder addBlocks(
+          int index, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder builderForValue) {
+        if (blocksBuilder_ == null) {
+          ensureBlocksIsMutable();
+          blocks_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          blocksBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder addAllBlocks(
+          java.lang.Iterable<? extends io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock> values) {
+        if (blocksBuilder_ == null) {
+          ensureBlocksIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, blocks_);
+          onChanged();
+        } else {
+          blocksBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder clearBlocks() {
+        if (blocksBuilder_ == null) {
+          blocks_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000008);
+          onChanged();
+        } else {
+          blocksBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public Builder removeBlocks(int index) {
+        if (blocksBuilder_ == null) {
+          ensureBlocksIsMutable();
+          blocks_.remove(index);
+          onChanged();
+        } else {
+          blocksBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder getBlocksBuilder(
+          int index) {
+        return getBlocksFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder getBlocksOrBuilder(
+          int index) {
+        if (blocksBuilder_ == null) {
+          return blocks_.get(index);  } else {
+          return blocksBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public java.util.List<? extends io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder> 
+           getBlocksOrBuilderList() {
+        if (blocksBuilder_ != null) {
+          return blocksBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(blocks_);
+        }
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder addBlocksBuilder() {
+        return getBlocksFieldBuilder().addBuilder(
+            io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.getDefaultInstance());
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder addBlocksBuilder(
+          int index) {
+        return getBlocksFieldBuilder().addBuilder(
+            index, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.getDefaultInstance());
+      }
+      /**
+       * <pre>
+       * The postings, in version 2 with a postings_codec in the Header: blocks of 128 postings, except for the last block,
+       * which holds the rest.
+       * </pre>
+       *
+       * <code>repeated .io.osirrc.ciff.PostingsBlock blocks = 7;</code>
+       */
+      public java.util.List<io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder> 
+           getBlocksBuilderList() {
+        return getBlocksFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder> 
+          getBlocksFieldBuilder() {
+        if (blocksBuilder_ == null) {
+          blocksBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+              io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder>(
+                  blocks_,
+                  ((bitField0_ & 0x00000008) != 0),
+                  getParentForChildren(),
+                  isClean());
+          blocks_ = null;
+        }
+        return blocksBuilder_;
+      }
+
+      private int maxTf_ ;
+      /**
+       * <pre>
+       * Upper bounds for dynamic pruning (e.g., WAND, MaxScore and block-max WAND), if the Header names a
+       * scoring_function: the max tf, the max score of any posting, and the max score of every 128 postings (the same
+       * postings as in PostingsList.blocks, if any), the last one for the rest. Bounds may exceed the actual max scores by
+       * a small margin, as they are meant to hold for scores computed in single precision as well.
+       * </pre>
+       *
+       * <code>int32 max_tf = 8;</code>
+       */
+      public int getMaxTf() {
+        return maxTf_;
+      }
+      /**
+       * <pre>
+       * Upper bounds for dynamic pruning (e.g., WAND, MaxScore and block-max WAND), if the Header names a
+       * scoring_function: the max tf, the max score of any posting, and the max score of every 128 postings (the same
+       * postings as in PostingsList.blocks, if any), the last one for the rest. Bounds may exceed the actual max scores by
+       * a small margin, as they are meant to hold for scores computed in single precision as well.
+       * </pre>
+       *
+       * <code>int32 max_tf = 8;</code>
+       */
+      public Builder setMaxTf(int value) {
+        
+        maxTf_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Upper bounds for dynamic pruning (e.g., WAND, MaxScore and block-max WAND), if the Header names a
+       * scoring_function: the max tf, the max score of any posting, and the max score of every 128 postings (the same
+       * postings as in PostingsList.blocks, if any), the last one for the rest. Bounds may exceed the actual max scores by
+       * a small margin, as they are meant to hold for scores computed in single precision as well.
+       * </pre>
+       *
+       * <code>int32 max_tf = 8;</code>
+       */
+      public Builder clearMaxTf() {
+        
+        maxTf_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private float maxScore_ ;
+      /**
+       * <code>float max_score = 9;</code>
+       */
+      public float getMaxScore() {
+        return maxScore_;
+      }
+      /**
+       * <code>float max_score = 9;</code>
+       */
+      public Builder setMaxScore(float value) {
+        
+        maxScore_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>float max_score = 9;</code>
+       */
+      public Builder clearMaxScore() {
+        
+        maxScore_ = 0F;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.Internal.FloatList blockMaxScores_ = emptyFloatList();
+      private void ensureBlockMaxScoresIsMutable() {
+        if (!((bitField0_ & 0x00000010) != 0)) {
+          blockMaxScores_ = mutableCopy(blockMaxScores_);
+          bitField0_ |= 0x00000010;
+         }
+      }
+      /**
+       * <code>repeated float block_max_scores = 10 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Float>
+          getBlockMaxScoresList() {
+        return ((bitField0_ & 0x00000010) != 0) ?
+                 java.util.Collections.unmodifiableList(blockMaxScores_) : blockMaxScores_;
+      }
+      /**
+       * <code>repeated float block_max_scores = 10 [packed = true];</code>
+       */
+      public int getBlockMaxScoresCount() {
+        return blockMaxScores_.size();
+      }
+      /**
+       * <code>repeated float block_max_scores = 10 [packed = true];</code>
+       */
+      public float getBlockMaxScores(int index) {
+        return blockMaxScores_.getFloat(index);
+      }
+      /**
+       * <code>repeated float block_max_scores = 10 [packed = true];</code>
+       */
+      public Builder setBlockMaxScores(
+          int index, float value) {
+        ensureBlockMaxScoresIsMutable();
+        blockMaxScores_.setFloat(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated float block_max_scores = 10 [packed = true];</code>
+       */
+      public Builder addBlockMaxScores(float value) {
+        ensureBlockMaxScoresIsMutable();
+        blockMaxScores_.addFloat(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated float block_max_scores = 10 [packed = true];</code>
+       */
+      public Builder addAllBlockMaxScores(
+          java.lang.Iterable<? extends java.lang.Float> values) {
+        ensureBlockMaxScoresIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, blockMaxScores_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated float block_max_scores = 10 [packed = true];</code>
+       */
+      public Builder clearBlockMaxScores() {
+        blockMaxScores_ = emptyFloatList();
+        bitField0_ = (bitField0_ & ~0x00000010);
+        onChanged();
+        return this;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.PostingsList)
+    }
+
+    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.PostingsList)
+    private static final io.osirrc.ciff.CommonIndexFileFormat.PostingsList DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.PostingsList();
+    }
+
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsList getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    private static final com.google.protobuf.Parser<PostingsList>
+        PARSER = new com.google.protobuf.AbstractParser<PostingsList>() {
+      @java.lang.Override
+      public PostingsList parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new PostingsList(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<PostingsList> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<PostingsList> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public io.osirrc.ciff.CommonIndexFileFormat.PostingsList getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface PostingsBlockOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.osirrc.ciff.PostingsBlock)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <pre>
+     * The number of postings in the block.
+     * </pre>
+     *
+     * <code>int32 num_postings = 1;</code>
+     */
+    int getNumPostings();
+
+    /**
+     * <pre>
+     * The docid (*not* a d-gap) of the last posting, to skip the block without decoding it.
+     * </pre>
+     *
+     * <code>int32 max_docid = 2;</code>
+     */
+    int getMaxDocid();
+
+    /**
+     * <pre>
+     * The *delta-gap* compressed docids, continuing from the last docid of the previous block.
+     * </pre>
+     *
+     * <code>bytes docids = 3;</code>
+     */
+    com.google.protobuf.ByteString getDocids();
+
+    /**
+     * <pre>
+     * The tfs.
+     * </pre>
+     *
+     * <code>bytes tfs = 4;</code>
+     */
+    com.google.protobuf.ByteString getTfs();
+  }
+  /**
+   * <pre>
+   * A block of postings, compressed with the postings_codec named in the Header.
+   * </pre>
+   *
+   * Protobuf type {@code io.osirrc.ciff.PostingsBlock}
+   */
+  public  static final class PostingsBlock extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:io.osirrc.ciff.PostingsBlock)
+      PostingsBlockOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use PostingsBlock.newBuilder() to construct.
+    private PostingsBlock(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private PostingsBlock() {
+      docids_ = com.google.protobuf.ByteString.EMPTY;
+      tfs_ = com.google.protobuf.ByteString.EMPTY;
+    }
+
+    @java.lang.Override
+    @SuppressWarnings({"unused"})
+    protected java.lang.Object newInstance(
+        UnusedPrivateParameter unused) {
+      return new PostingsBlock();
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private PostingsBlock(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 8: {
+
+              numPostings_ = input.readInt32();
+              break;
+            }
+            case 16: {
+
+              maxDocid_ = input.readInt32();
+              break;
+            }
+            case 26: {
+
+              docids_ = input.readBytes();
+              break;
+            }
+            case 34: {
+
+              tfs_ = input.readBytes();
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_PostingsBlock_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_PostingsBlock_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.class, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder.class);
+    }
+
+    public static final int NUM_POSTINGS_FIELD_NUMBER = 1;
+    private int numPostings_;
+    /**
+     * <pre>
+     * The number of postings in the block.
+     * </pre>
+     *
+     * <code>int32 num_postings = 1;</code>
+     */
+    public int getNumPostings() {
+      return numPostings_;
+    }
+
+    public static final int MAX_DOCID_FIELD_NUMBER = 2;
+    private int maxDocid_;
+    /**
+     * <pre>
+     * The docid (*not* a d-gap) of the last posting, to skip the block without decoding it.
+     * </pre>
+     *
+     * <code>int32 max_docid = 2;</code>
+     */
+    public int getMaxDocid() {
+      return maxDocid_;
+    }
+
+    public static final int DOCIDS_FIELD_NUMBER = 3;
+    private com.google.protobuf.ByteString docids_;
+    /**
+     * <pre>
+     * The *delta-gap* compressed docids, continuing from the last docid of the previous block.
+     * </pre>
+     *
+     * <code>bytes docids = 3;</code>
+     */
+    public com.google.protobuf.ByteString getDocids() {
+      return docids_;
+    }
+
+    public static final int TFS_FIELD_NUMBER = 4;
+    private com.google.protobuf.ByteString tfs_;
+    /**
+     * <pre>
+     * The tfs.
+     * </pre>
+     *
+     * <code>bytes tfs = 4;</code>
+     */
+    public com.google.protobuf.ByteString getTfs() {
+      return tfs_;
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (numPostings_ != 0) {
+        output.writeInt32(1, numPostings_);
+      }
+      if (maxDocid_ != 0) {
+        output.writeInt32(2, maxDocid_);
+      }
+      if (!docids_.isEmpty()) {
+        output.writeBytes(3, docids_);
+      }
+      if (!tfs_.isEmpty()) {
+        output.writeBytes(4, tfs_);
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (numPostings_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(1, numPostings_);
+      }
+      if (maxDocid_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(2, maxDocid_);
+      }
+      if (!docids_.isEmpty()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(3, docids_);
+      }
+      if (!tfs_.isEmpty()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(4, tfs_);
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock)) {
+        return super.equals(obj);
+      }
+      io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock other = (io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock) obj;
+
+      if (getNumPostings()
+          != other.getNumPostings()) return false;
+      if (getMaxDocid()
+          != other.getMaxDocid()) return false;
+      if (!getDocids()
+          .equals(other.getDocids())) return false;
+      if (!getTfs()
+          .equals(other.getTfs())) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      hash = (37 * hash) + NUM_POSTINGS_FIELD_NUMBER;
+      hash = (53 * hash) + getNumPostings();
+      hash = (37 * hash) + MAX_DOCID_FIELD_NUMBER;
+      hash = (53 * hash) + getMaxDocid();
+      hash = (37 * hash) + DOCIDS_FIELD_NUMBER;
+      hash = (53 * hash) + getDocids().hashCode();
+      hash = (37 * hash) + TFS_FIELD_NUMBER;
+      hash = (53 * hash) + getTfs().hashCode();
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * <pre>
+     * A block of postings, compressed with the postings_codec named in the Header.
+     * </pre>
+     *
+     * Protobuf type {@code io.osirrc.ciff.PostingsBlock}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:io.osirrc.ciff.PostingsBlock)
+        io.osirrc.ciff.CommonIndexFileFormat.PostingsBlockOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_PostingsBlock_descriptor;
+      }
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_PostingsBlock_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.class, io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.Builder.class);
+      }
+
+      // Construct using io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        numPostings_ = 0;
+
+        maxDocid_ = 0;
+
+        docids_ = com.google.protobuf.ByteString.EMPTY;
+
+        tfs_ = com.google.protobuf.ByteString.EMPTY;
+
+        return this;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_PostingsBlock_descriptor;
+      }
+
+      @java.lang.Override
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock getDefaultInstanceForType() {
+        return io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock build() {
+        io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock buildPartial() {
+        io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock result = new io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock(this);
+        result.numPostings_ = numPostings_;
+        result.maxDocid_ = maxDocid_;
+        result.docids_ = docids_;
+        result.tfs_ = tfs_;
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock) {
+          return mergeFrom((io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock other) {
+        if (other == io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock.getDefaultInstance()) return this;
+        if (other.getNumPostings() != 0) {
+          setNumPostings(other.getNumPostings());
+        }
+        if (other.getMaxDocid() != 0) {
+          setMaxDocid(other.getMaxDocid());
+        }
+        if (other.getDocids() != com.google.protobuf.ByteString.EMPTY) {
+          setDocids(other.getDocids());
+        }
+        if (other.getTfs() != com.google.protobuf.ByteString.EMPTY) {
+          setTfs(other.getTfs());
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+
+      private int numPostings_ ;
+      /**
+       * <pre>
+       * The number of postings in the block.
+       * </pre>
+       *
+       * <code>int32 num_postings = 1;</code>
+       */
+      public int getNumPostings() {
+        return numPostings_;
+      }
+      /**
+       * <pre>
+       * The number of postings in the block.
+       * </pre>
+       *
+       * <code>int32 num_postings = 1;</code>
+       */
+      public Builder setNumPostings(int value) {
+        
+        numPostings_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The number of postings in the block.
+       * </pre>
+       *
+       * <code>int32 num_postings = 1;</code>
+       */
+      public Builder clearNumPostings() {
+        
+        numPostings_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int maxDocid_ ;
+      /**
+       * <pre>
+       * The docid (*not* a d-gap) of the last posting, to skip the block without decoding it.
+       * </pre>
+       *
+       * <code>int32 max_docid = 2;</code>
+       */
+      public int getMaxDocid() {
+        return maxDocid_;
+      }
+      /**
+       * <pre>
+       * The docid (*not* a d-gap) of the last posting, to skip the block without decoding it.
+       * </pre>
+       *
+       * <code>int32 max_docid = 2;</code>
+       */
+      public Builder setMaxDocid(int value) {
+        
+        maxDocid_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The docid (*not* a d-gap) of the last posting, to skip the block without decoding it.
+       * </pre>
+       *
+       * <code>int32 max_docid = 2;</code>
+       */
+      public Builder clearMaxDocid() {
+        
+        maxDocid_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString docids_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <pre>
+       * The *delta-gap* compressed docids, continuing from the last docid of the previous block.
+       * </pre>
+       *
+       * <code>bytes docids = 3;</code>
+       */
+      public com.google.protobuf.ByteString getDocids() {
+        return docids_;
+      }
+      /**
+       * <pre>
+       * The *delta-gap* compressed docids, continuing from the last docid of the previous block.
+       * </pre>
+       *
+       * <code>bytes docids = 3;</code>
+       */
+      public Builder setDocids(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        docids_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The *delta-gap* compressed docids, continuing from the last docid of the previous block.
+       * </pre>
+       *
+       * <code>bytes docids = 3;</code>
+       */
+      public Builder clearDocids() {
+        
+        docids_ = getDefaultInstance().getDocids();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString tfs_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <pre>
+       * The tfs.
+       * </pre>
+       *
+       * <code>bytes tfs = 4;</code>
+       */
+      public com.google.protobuf.ByteString getTfs() {
+        return tfs_;
+      }
+      /**
+       * <pre>
+       * The tfs.
+       * </pre>
+       *
+       * <code>bytes tfs = 4;</code>
+       */
+      public Builder setTfs(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        tfs_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The tfs.
+       * </pre>
+       *
+       * <code>bytes tfs = 4;</code>
+       */
+      public Builder clearTfs() {
+        
+        tfs_ = getDefaultInstance().getTfs();
+        onChanged();
+        return this;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.PostingsBlock)
+    }
+
+    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.PostingsBlock)
+    private static final io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock();
+    }
+
+    public static io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    private static final com.google.protobuf.Parser<PostingsBlock>
+        PARSER = new com.google.protobuf.AbstractParser<PostingsBlock>() {
+      @java.lang.Override
+      public PostingsBlock parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new PostingsBlock(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<PostingsBlock> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<PostingsBlock> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface DocRecordOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.osirrc.ciff.DocRecord)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <pre>
+     * Refers to the docid in the postings lists.
+     * </pre>
+     *
+     * <code>int32 docid = 1;</code>
+     */
+    int getDocid();
+
+    /**
+     * <pre>
+     * Refers to a docid in the external collection.
+     * </pre>
+     *
+     * <code>string collection_docid = 2;</code>
+     */
+    java.lang.String getCollectionDocid();
+    /**
+     * <pre>
+     * Refers to a docid in the external collection.
+     * </pre>
+     *
+     * <code>string collection_docid = 2;</code>
+     */
+    com.google.protobuf.ByteString
+        getCollectionDocidBytes();
+
+    /**
+     * <pre>
+     * Length of this document.
+     * </pre>
+     *
+     * <code>int32 doclength = 3;</code>
+     */
+    int getDoclength();
+  }
+  /**
+   * <pre>
+   * A record containing metadata about an individual document.
+   * </pre>
+   *
+   * Protobuf type {@code io.osirrc.ciff.DocRecord}
+   */
+  public  static final class DocRecord extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:io.osirrc.ciff.DocRecord)
+      DocRecordOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use DocRecord.newBuilder() to construct.
+    private DocRecord(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private DocRecord() {
+      collectionDocid_ = "";
+    }
+
+    @java.lang.Override
+    @SuppressWarnings({"unused"})
+    protected java.lang.Object newInstance(
+        UnusedPrivateParameter unused) {
+      return new DocRecord();
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private DocRecord(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 8: {
+
+              docid_ = input.readInt32();
+              break;
+            }
+            case 18: {
+              java.lang.String s = input.readStringRequireUtf8();
+
+              collectionDocid_ = s;
+              break;
+            }
+            case 24: {
+
+              doclength_ = input.readInt32();
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              io.osirrc.ciff.CommonIndexFileFormat.DocRecord.class, io.osirrc.ciff.CommonIndexFileFormat.DocRecord.Builder.class);
+    }
+
+    public static final int DOCID_FIELD_NUMBER = 1;
+    private int docid_;
+    /**
+     * <pre>
+     * Refers to the docid in the postings lists.
+     * </pre>
+     *
+     * <code>int32 docid = 1;</code>
+     */
+    public int getDocid() {
+      return docid_;
+    }
+
+    public static final int COLLECTION_DOCID_FIELD_NUMBER = 2;
+    private volatile java.lang.Object collectionDocid_;
+    /**
+     * <pre>
+     * Refers to a docid in the external collection.
+     * </pre>
+     *
+     * <code>string collection_docid = 2;</code>
+     */
+    public java.lang.String getCollectionDocid() {
+      java.lang.Object ref = collectionDocid_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        collectionDocid_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     * Refers to a docid in the external collection.
+     * </pre>
+     *
+     * <code>string collection_docid = 2;</code>
+     */
+    public com.google.protobuf.ByteString
+        getCollectionDocidBytes() {
+      java.lang.Object ref = collectionDocid_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        collectionDocid_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int DOCLENGTH_FIELD_NUMBER = 3;
+    private int doclength_;
+    /**
+     * <pre>
+     * Length of this document.
+     * </pre>
+     *
+     * <code>int32 doclength = 3;</code>
+     */
+    public int getDoclength() {
+      return doclength_;
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (docid_ != 0) {
+        output.writeInt32(1, docid_);
+      }
+      if (!getCollectionDocidBytes().isEmpty()) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 2, collectionDocid_);
+      }
+      if (doclength_ != 0) {
+        output.writeInt32(3, doclength_);
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (docid_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(1, docid_);
+      }
+      if (!getCollectionDocidBytes().isEmpty()) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(2, collectionDocid_);
+      }
+      if (doclength_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(3, doclength_);
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof io.osirrc.ciff.CommonIndexFileFormat.DocRecord)) {
+        return super.equals(obj);
+      }
+      io.osirrc.ciff.CommonIndexFileFormat.DocRecord other = (io.osirrc.ciff.CommonIndexFileFormat.DocRecord) obj;
+
+      if (getDocid()
+          != other.getDocid()) return false;
+      if (!getCollectionDocid()
+          .equals(other.getCollectionDocid())) return false;
+      if (getDoclength()
+          != other.getDoclength()) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      hash = (37 * hash) + DOCID_FIELD_NUMBER;
+      hash = (53 * hash) + getDocid();
+      hash = (37 * hash) + COLLECTION_DOCID_FIELD_NUMBER;
+      hash = (53 * hash) + getCollectionDocid().hashCode();
+      hash = (37 * hash) + DOCLENGTH_FIELD_NUMBER;
+      hash = (53 * hash) + getDoclength();
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(io.osirrc.ciff.CommonIndexFileFormat.DocRecord prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * <pre>
+     * A record containing metadata about an individual document.
+     * </pre>
+     *
+     * Protobuf type {@code io.osirrc.ciff.DocRecord}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:io.osirrc.ciff.DocRecord)
+        io.osirrc.ciff.CommonIndexFileFormat.DocRecordOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_descriptor;
+      }
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                io.osirrc.ciff.CommonIndexFileFormat.DocRecord.class, io.osirrc.ciff.CommonIndexFileFormat.DocRecord.Builder.class);
+      }
+
+      // Construct using io.osirrc.ciff.CommonIndexFileFormat.DocRecord.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        docid_ = 0;
+
+        collectionDocid_ = "";
+
+        doclength_ = 0;
+
+        return this;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_descriptor;
+      }
+
+      @java.lang.Override
+      public io.osirrc.ciff.CommonIndexFileFormat.DocRecord getDefaultInstanceForType() {
+        return io.osirrc.ciff.CommonIndexFileFormat.DocRecord.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public io.osirrc.ciff.CommonIndexFileFormat.DocRecord build() {
+        io.osirrc.ciff.CommonIndexFileFormat.DocRecord result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public io.osirrc.ciff.CommonIndexFileFormat.DocRecord buildPartial() {
+        io.osirrc.ciff.CommonIndexFileFormat.DocRecord result = new io.osirrc.ciff.CommonIndexFileFormat.DocRecord(this);
+        result.docid_ = docid_;
+        result.collectionDocid_ = collectionDocid_;
+        result.doclength_ = doclength_;
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof io.osirrc.ciff.CommonIndexFileFormat.DocRecord) {
+          return mergeFrom((io.osirrc.ciff.CommonIndexFileFormat.DocRecord)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(io.osirrc.ciff.CommonIndexFileFormat.DocRecord other) {
+        if (other == io.osirrc.ciff.CommonIndexFileFormat.DocRecord.getDefaultInstance()) return this;
+        if (other.getDocid() != 0) {
+          setDocid(other.getDocid());
+        }
+        if (!other.getCollectionDocid().isEmpty()) {
+          collectionDocid_ = other.collectionDocid_;
+          onChanged();
+        }
+        if (other.getDoclength() != 0) {
+          setDoclength(other.getDoclength());
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        io.osirrc.ciff.CommonIndexFileFormat.DocRecord parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (io.osirrc.ciff.CommonIndexFileFormat.DocRecord) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+
+      private int docid_ ;
+      /**
+       * <pre>
+       * Refers to the docid in the postings lists.
+       * </pre>
+       *
+       * <code>int32 docid = 1;</code>
+       */
+      public int getDocid() {
+        return docid_;
+      }
+      /**
+       * <pre>
+       * Refers to the docid in the postings lists.
+       * </pre>
+       *
+       * <code>int32 docid = 1;</code>
+       */
+      public Builder setDocid(int value) {
+        
+        docid_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Refers to the docid in the postings lists.
+       * </pre>
+       *
+       * <code>int32 docid = 1;</code>
+       */
+      public Builder clearDocid() {
+        
+        docid_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private java.lang.Object collectionDocid_ = "";
+      /**
+       * <pre>
+       * Refers to a docid in the external collection.
+       * </pre>
+       *
+       * <code>string collection_docid = 2;</code>
+       */
+      public java.lang.String getCollectionDocid() {
+        java.lang.Object ref = collectionDocid_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          collectionDocid_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <pre>
+       * Refers to a docid in the external collection.
+       * </pre>
+       *
+       * <code>string collection_docid = 2;</code>
+       */
+      public com.google.protobuf.ByteString
+          getCollectionDocidBytes() {
+        java.lang.Object ref = collectionDocid_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          collectionDocid_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <pre>
+       * Refers to a docid in the external collection.
+       * </pre>
+       *
+       * <code>string collection_docid = 2;</code>
+       */
+      public Builder setCollectionDocid(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        collectionDocid_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Refers to a docid in the external collection.
+       * </pre>
+       *
+       * <code>string collection_docid = 2;</code>
+       */
+      public Builder clearCollectionDocid() {
+        
+        collectionDocid_ = getDefaultInstance().getCollectionDocid();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Refers to a docid in the external collection.
+       * </pre>
+       *
+       * <code>string collection_docid = 2;</code>
+       */
+      public Builder setCollectionDocidBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        
+        collectionDocid_ = value;
+        onChanged();
+        return this;
+      }
+
+      private int doclength_ ;
+      /**
+       * <pre>
+       * Length of this document.
+       * </pre>
+       *
+       * <code>int32 doclength = 3;</code>
+       */
+      public int getDoclength() {
+        return doclength_;
+      }
+      /**
+       * <pre>
+       * Length of this document.
+       * </pre>
+       *
+       * <code>int32 doclength = 3;</code>
+       */
+      public Builder setDoclength(int value) {
+        
+        doclength_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Length of this document.
+       * </pre>
+       *
+       * <code>int32 doclength = 3;</code>
+       */
+      public Builder clearDoclength() {
+        
+        doclength_ = 0;
+        onChanged();
+        return this;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.DocRecord)
+    }
+
+    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.DocRecord)
+    private static final io.osirrc.ciff.CommonIndexFileFormat.DocRecord DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.DocRecord();
+    }
+
+    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    private static final com.google.protobuf.Parser<DocRecord>
+        PARSER = new com.google.protobuf.AbstractParser<DocRecord>() {
+      @java.lang.Override
+      public DocRecord parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new DocRecord(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<DocRecord> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<DocRecord> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public io.osirrc.ciff.CommonIndexFileFormat.DocRecord getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface FooterOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.osirrc.ciff.Footer)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <pre>
+     * The offset of the first PostingsList, i.e., the size of the Header.
+     * </pre>
+     *
+     * <code>int64 postings_lists_offset = 1;</code>
+     */
+    long getPostingsListsOffset();
+
+    /**
+     * <pre>
+     * The offset of the first DocRecord.
+     * </pre>
+     *
+     * <code>int64 doc_records_offset = 2;</code>
+     */
+    long getDocRecordsOffset();
+
+    /**
+     * <pre>
+     * A sample of the terms: the term of every term_sample_interval-th PostingsList, starting from the first, and the
+     * offsets of those PostingsLists. Finding a term takes a binary search in the sample, followed by a scan of at most
+     * term_sample_interval PostingsLists.
+     * </pre>
+     *
+     * <code>int32 term_sample_interval = 3;</code>
+     */
+    int getTermSampleInterval();
+
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
+     */
+    java.util.List<java.lang.String>
+        getSampledTermsList();
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
+     */
+    int getSampledTermsCount();
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
+     */
+    java.lang.String getSampledTerms(int index);
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
+     */
+    com.google.protobuf.ByteString
+        getSampledTermsBytes(int index);
+
+    /**
+     * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+     */
+    java.util.List<java.lang.Long> getSampledOffsetsList();
+    /**
+     * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+     */
+    int getSampledOffsetsCount();
+    /**
+     * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+     */
+    long getSampledOffsets(int index);
+
+    /**
+     * <pre>
+     * CRC32C (Castagnoli) checksums of the file up to the Footer, for detecting corrupt files: one for every
+     * checksum_block_size bytes, the last one for the bytes left after the last full block. Empty if there are none.
+     * </pre>
+     *
+     * <code>int32 checksum_block_size = 6;</code>
+     */
+    int getChecksumBlockSize();
+
+    /**
+     * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+     */
+    java.util.List<java.lang.Integer> getChecksumsList();
+    /**
+     * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+     */
+    int getChecksumsCount();
+    /**
+     * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+     */
+    int getChecksums(int index);
+  }
+  /**
    * <pre>
-   * A record containing metadata about an individual document.
+   * The optional footer, for random access to files that can be sought in. All offsets are in bytes from the start of
+   * the (uncompressed) file, and point at the varint encoded size of a message.
    * </pre>
    *
-   * Protobuf type {@code io.osirrc.ciff.DocRecord}
+   * Protobuf type {@code io.osirrc.ciff.Footer}
    */
-  public  static final class DocRecord extends
+  public  static final class Footer extends
       com.google.protobuf.GeneratedMessageV3 implements
-      // @@protoc_insertion_point(message_implements:io.osirrc.ciff.DocRecord)
-      DocRecordOrBuilder {
+      // @@protoc_insertion_point(message_implements:io.osirrc.ciff.Footer)
+      FooterOrBuilder {
   private static final long serialVersionUID = 0L;
-    // Use DocRecord.newBuilder() to construct.
-    private DocRecord(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+    // Use Footer.newBuilder() to construct.
+    private Footer(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
       super(builder);
     }
-    private DocRecord() {
-      collectionDocid_ = "";
+    private Footer() {
+      sampledTerms_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      sampledOffsets_ = emptyLongList();
+      checksums_ = emptyIntList();
     }
 
     @java.lang.Override
     @SuppressWarnings({"unused"})
     protected java.lang.Object newInstance(
         UnusedPrivateParameter unused) {
-      return new DocRecord();
+      return new Footer();
     }
 
     @java.lang.Override
@@ -2971,7 +6459,7 @@ public final class CommonIndexFileFormat {
     getUnknownFields() {
       return this.unknownFields;
     }
-    private DocRecord(
+    private Footer(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
@@ -2979,6 +6467,7 @@ public final class CommonIndexFileFormat {
       if (extensionRegistry == null) {
         throw new java.lang.NullPointerException();
       }
+      int mutable_bitField0_ = 0;
       com.google.protobuf.UnknownFieldSet.Builder unknownFields =
           com.google.protobuf.UnknownFieldSet.newBuilder();
       try {
@@ -2991,18 +6480,73 @@ public final class CommonIndexFileFormat {
               break;
             case 8: {
 
-              docid_ = input.readInt32();
+              postingsListsOffset_ = input.readInt64();
               break;
             }
-            case 18: {
-              java.lang.String s = input.readStringRequireUtf8();
+            case 16: {
 
-              collectionDocid_ = s;
+              docRecordsOffset_ = input.readInt64();
               break;
             }
             case 24: {
 
-              doclength_ = input.readInt32();
+              termSampleInterval_ = input.readInt32();
+              break;
+            }
+            case 34: {
+              java.lang.String s = input.readStringRequireUtf8();
+              if (!((mutable_bitField0_ & 0x00000001) != 0)) {
+                sampledTerms_ = new com.google.protobuf.LazyStringArrayList();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              sampledTerms_.add(s);
+              break;
+            }
+            case 40: {
+              if (!((mutable_bitField0_ & 0x00000002) != 0)) {
+                sampledOffsets_ = newLongList();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              sampledOffsets_.addLong(input.readInt64());
+              break;
+            }
+            case 42: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000002) != 0) && input.getBytesUntilLimit() > 0) {
+                sampledOffsets_ = newLongList();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                sampledOffsets_.addLong(input.readInt64());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 48: {
+
+              checksumBlockSize_ = input.readInt32();
+              break;
+            }
+            case 61: {
+              if (!((mutable_bitField0_ & 0x00000004) != 0)) {
+                checksums_ = newIntList();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              checksums_.addInt(input.readFixed32());
+              break;
+            }
+            case 58: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000004) != 0) && input.getBytesUntilLimit() > 0) {
+                checksums_ = newIntList();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                checksums_.addInt(input.readFixed32());
+              }
+              input.popLimit(limit);
               break;
             }
             default: {
@@ -3020,90 +6564,161 @@ public final class CommonIndexFileFormat {
         throw new com.google.protobuf.InvalidProtocolBufferException(
             e).setUnfinishedMessage(this);
       } finally {
+        if (((mutable_bitField0_ & 0x00000001) != 0)) {
+          sampledTerms_ = sampledTerms_.getUnmodifiableView();
+        }
+        if (((mutable_bitField0_ & 0x00000002) != 0)) {
+          sampledOffsets_.makeImmutable(); // C
+        }
+        if (((mutable_bitField0_ & 0x00000004) != 0)) {
+          checksums_.makeImmutable(); // C
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_descriptor;
+      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_Footer_descriptor;
     }
 
     @java.lang.Override
     protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_fieldAccessorTable
+      return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_Footer_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              io.osirrc.ciff.CommonIndexFileFormat.DocRecord.class, io.osirrc.ciff.CommonIndexFileFormat.DocRecord.Builder.class);
+              io.osirrc.ciff.CommonIndexFileFormat.Footer.class, io.osirrc.ciff.CommonIndexFileFormat.Footer.Builder.class);
     }
 
-    public static final int DOCID_FIELD_NUMBER = 1;
-    private int docid_;
+    public static final int POSTINGS_LISTS_OFFSET_FIELD_NUMBER = 1;
+    private long postingsListsOffset_;
     /**
      * <pre>
-     * Refers to the docid in the postings lists.
+     * The offset of the first PostingsList, i.e., the size of the Header.
      * </pre>
      *
-     * <code>int32 docid = 1;</code>
+     * <code>int64 postings_lists_offset = 1;</code>
      */
-    public int getDocid() {
-      return docid_;
+    public long getPostingsListsOffset() {
+      return postingsListsOffset_;
     }
 
-    public static final int COLLECTION_DOCID_FIELD_NUMBER = 2;
-    private volatile java.lang.Object collectionDocid_;
+    public static final int DOC_RECORDS_OFFSET_FIELD_NUMBER = 2;
+    private long docRecordsOffset_;
     /**
      * <pre>
-     * Refers to a docid in the external collection.
+     * The offset of the first DocRecord.
      * </pre>
      *
-     * <code>string collection_docid = 2;</code>
+     * <code>int64 doc_records_offset = 2;</code>
      */
-    public java.lang.String getCollectionDocid() {
-      java.lang.Object ref = collectionDocid_;
-      if (ref instanceof java.lang.String) {
-        return (java.lang.String) ref;
-      } else {
-        com.google.protobuf.ByteString bs = 
-            (com.google.protobuf.ByteString) ref;
-        java.lang.String s = bs.toStringUtf8();
-        collectionDocid_ = s;
-        return s;
-      }
+    public long getDocRecordsOffset() {
+      return docRecordsOffset_;
     }
+
+    public static final int TERM_SAMPLE_INTERVAL_FIELD_NUMBER = 3;
+    private int termSampleInterval_;
     /**
      * <pre>
-     * Refers to a docid in the external collection.
+     * A sample of the terms: the term of every term_sample_interval-th PostingsList, starting from the first, and the
+     * offsets of those PostingsLists. Finding a term takes a binary search in the sample, followed by a scan of at most
+     * term_sample_interval PostingsLists.
      * </pre>
      *
-     * <code>string collection_docid = 2;</code>
+     * <code>int32 term_sample_interval = 3;</code>
+     */
+    public int getTermSampleInterval() {
+      return termSampleInterval_;
+    }
+
+    public static final int SAMPLED_TERMS_FIELD_NUMBER = 4;
+    private com.google.protobuf.LazyStringList sampledTerms_;
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
+     */
+    public com.google.protobuf.ProtocolStringList
+        getSampledTermsList() {
+      return sampledTerms_;
+    }
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
+     */
+    public int getSampledTermsCount() {
+      return sampledTerms_.size();
+    }
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
+     */
+    public java.lang.String getSampledTerms(int index) {
+      return sampledTerms_.get(index);
+    }
+    /**
+     * <code>repeated string sampled_terms = 4;</code>
      */
     public com.google.protobuf.ByteString
-        getCollectionDocidBytes() {
-      java.lang.Object ref = collectionDocid_;
-      if (ref instanceof java.lang.String) {
-        com.google.protobuf.ByteString b = 
-            com.google.protobuf.ByteString.copyFromUtf8(
-                (java.lang.String) ref);
-        collectionDocid_ = b;
-        return b;
-      } else {
-        return (com.google.protobuf.ByteString) ref;
-      }
+        getSampledTermsBytes(int index) {
+      return sampledTerms_.getByteString(index);
     }
 
-    public static final int DOCLENGTH_FIELD_NUMBER = 3;
-    private int doclength_;
+    public static final int SAMPLED_OFFSETS_FIELD_NUMBER = 5;
+    private com.google.protobuf.Internal.LongList sampledOffsets_;
+    /**
+     * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Long>
+        getSampledOffsetsList() {
+      return sampledOffsets_;
+    }
+    /**
+     * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+     */
+    public int getSampledOffsetsCount() {
+      return sampledOffsets_.size();
+    }
+    /**
+     * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+     */
+    public long getSampledOffsets(int index) {
+      return sampledOffsets_.getLong(index);
+    }
+    private int sampledOffsetsMemoizedSerializedSize = -1;
+
+    public static final int CHECKSUM_BLOCK_SIZE_FIELD_NUMBER = 6;
+    private int checksumBlockSize_;
     /**
      * <pre>
-     * Length of this document.
+     * CRC32C (Castagnoli) checksums of the file up to the Footer, for detecting corrupt files: one for every
+     * checksum_block_size bytes, the last one for the bytes left after the last full block. Empty if there are none.
      * </pre>
      *
-     * <code>int32 doclength = 3;</code>
+     * <code>int32 checksum_block_size = 6;</code>
      */
-    public int getDoclength() {
-      return doclength_;
+    public int getChecksumBlockSize() {
+      return checksumBlockSize_;
+    }
+
+    public static final int CHECKSUMS_FIELD_NUMBER = 7;
+    private com.google.protobuf.Internal.IntList checksums_;
+    /**
+     * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Integer>
+        getChecksumsList() {
+      return checksums_;
+    }
+    /**
+     * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+     */
+    public int getChecksumsCount() {
+      return checksums_.size();
     }
+    /**
+     * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+     */
+    public int getChecksums(int index) {
+      return checksums_.getInt(index);
+    }
+    private int checksumsMemoizedSerializedSize = -1;
 
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
@@ -3119,14 +6734,35 @@ public final class CommonIndexFileFormat {
     @java.lang.Override
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
-      if (docid_ != 0) {
-        output.writeInt32(1, docid_);
+      getSerializedSize();
+      if (postingsListsOffset_ != 0L) {
+        output.writeInt64(1, postingsListsOffset_);
       }
-      if (!getCollectionDocidBytes().isEmpty()) {
-        com.google.protobuf.GeneratedMessageV3.writeString(output, 2, collectionDocid_);
+      if (docRecordsOffset_ != 0L) {
+        output.writeInt64(2, docRecordsOffset_);
       }
-      if (doclength_ != 0) {
-        output.writeInt32(3, doclength_);
+      if (termSampleInterval_ != 0) {
+        output.writeInt32(3, termSampleInterval_);
+      }
+      for (int i = 0; i < sampledTerms_.size(); i++) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 4, sampledTerms_.getRaw(i));
+      }
+      if (getSampledOffsetsList().size() > 0) {
+        output.writeUInt32NoTag(42);
+        output.writeUInt32NoTag(sampledOffsetsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < sampledOffsets_.size(); i++) {
+        output.writeInt64NoTag(sampledOffsets_.getLong(i));
+      }
+      if (checksumBlockSize_ != 0) {
+        output.writeInt32(6, checksumBlockSize_);
+      }
+      if (getChecksumsList().size() > 0) {
+        output.writeUInt32NoTag(58);
+        output.writeUInt32NoTag(checksumsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < checksums_.size(); i++) {
+        output.writeFixed32NoTag(checksums_.getInt(i));
       }
       unknownFields.writeTo(output);
     }
@@ -3137,16 +6773,54 @@ public final class CommonIndexFileFormat {
       if (size != -1) return size;
 
       size = 0;
-      if (docid_ != 0) {
+      if (postingsListsOffset_ != 0L) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt32Size(1, docid_);
+          .computeInt64Size(1, postingsListsOffset_);
       }
-      if (!getCollectionDocidBytes().isEmpty()) {
-        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(2, collectionDocid_);
+      if (docRecordsOffset_ != 0L) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(2, docRecordsOffset_);
       }
-      if (doclength_ != 0) {
+      if (termSampleInterval_ != 0) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt32Size(3, doclength_);
+          .computeInt32Size(3, termSampleInterval_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < sampledTerms_.size(); i++) {
+          dataSize += computeStringSizeNoTag(sampledTerms_.getRaw(i));
+        }
+        size += dataSize;
+        size += 1 * getSampledTermsList().size();
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < sampledOffsets_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt64SizeNoTag(sampledOffsets_.getLong(i));
+        }
+        size += dataSize;
+        if (!getSampledOffsetsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        sampledOffsetsMemoizedSerializedSize = dataSize;
+      }
+      if (checksumBlockSize_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(6, checksumBlockSize_);
+      }
+      {
+        int dataSize = 0;
+        dataSize = 4 * getChecksumsList().size();
+        size += dataSize;
+        if (!getChecksumsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        checksumsMemoizedSerializedSize = dataSize;
       }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
@@ -3158,17 +6832,25 @@ public final class CommonIndexFileFormat {
       if (obj == this) {
        return true;
       }
-      if (!(obj instanceof io.osirrc.ciff.CommonIndexFileFormat.DocRecord)) {
+      if (!(obj instanceof io.osirrc.ciff.CommonIndexFileFormat.Footer)) {
         return super.equals(obj);
       }
-      io.osirrc.ciff.CommonIndexFileFormat.DocRecord other = (io.osirrc.ciff.CommonIndexFileFormat.DocRecord) obj;
-
-      if (getDocid()
-          != other.getDocid()) return false;
-      if (!getCollectionDocid()
-          .equals(other.getCollectionDocid())) return false;
-      if (getDoclength()
-          != other.getDoclength()) return false;
+      io.osirrc.ciff.CommonIndexFileFormat.Footer other = (io.osirrc.ciff.CommonIndexFileFormat.Footer) obj;
+
+      if (getPostingsListsOffset()
+          != other.getPostingsListsOffset()) return false;
+      if (getDocRecordsOffset()
+          != other.getDocRecordsOffset()) return false;
+      if (getTermSampleInterval()
+          != other.getTermSampleInterval()) return false;
+      if (!getSampledTermsList()
+          .equals(other.getSampledTermsList())) return false;
+      if (!getSampledOffsetsList()
+          .equals(other.getSampledOffsetsList())) return false;
+      if (getChecksumBlockSize()
+          != other.getChecksumBlockSize()) return false;
+      if (!getChecksumsList()
+          .equals(other.getChecksumsList())) return false;
       if (!unknownFields.equals(other.unknownFields)) return false;
       return true;
     }
@@ -3180,80 +6862,96 @@ public final class CommonIndexFileFormat {
       }
       int hash = 41;
       hash = (19 * hash) + getDescriptor().hashCode();
-      hash = (37 * hash) + DOCID_FIELD_NUMBER;
-      hash = (53 * hash) + getDocid();
-      hash = (37 * hash) + COLLECTION_DOCID_FIELD_NUMBER;
-      hash = (53 * hash) + getCollectionDocid().hashCode();
-      hash = (37 * hash) + DOCLENGTH_FIELD_NUMBER;
-      hash = (53 * hash) + getDoclength();
+      hash = (37 * hash) + POSTINGS_LISTS_OFFSET_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getPostingsListsOffset());
+      hash = (37 * hash) + DOC_RECORDS_OFFSET_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getDocRecordsOffset());
+      hash = (37 * hash) + TERM_SAMPLE_INTERVAL_FIELD_NUMBER;
+      hash = (53 * hash) + getTermSampleInterval();
+      if (getSampledTermsCount() > 0) {
+        hash = (37 * hash) + SAMPLED_TERMS_FIELD_NUMBER;
+        hash = (53 * hash) + getSampledTermsList().hashCode();
+      }
+      if (getSampledOffsetsCount() > 0) {
+        hash = (37 * hash) + SAMPLED_OFFSETS_FIELD_NUMBER;
+        hash = (53 * hash) + getSampledOffsetsList().hashCode();
+      }
+      hash = (37 * hash) + CHECKSUM_BLOCK_SIZE_FIELD_NUMBER;
+      hash = (53 * hash) + getChecksumBlockSize();
+      if (getChecksumsCount() > 0) {
+        hash = (37 * hash) + CHECKSUMS_FIELD_NUMBER;
+        hash = (53 * hash) + getChecksumsList().hashCode();
+      }
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
     }
 
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         java.nio.ByteBuffer data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         java.nio.ByteBuffer data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(byte[] data)
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(java.io.InputStream input)
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseWithIOException(PARSER, input);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseWithIOException(PARSER, input, extensionRegistry);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseDelimitedFrom(java.io.InputStream input)
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseDelimitedWithIOException(PARSER, input);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseDelimitedFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseWithIOException(PARSER, input);
     }
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord parseFrom(
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -3266,7 +6964,7 @@ public final class CommonIndexFileFormat {
     public static Builder newBuilder() {
       return DEFAULT_INSTANCE.toBuilder();
     }
-    public static Builder newBuilder(io.osirrc.ciff.CommonIndexFileFormat.DocRecord prototype) {
+    public static Builder newBuilder(io.osirrc.ciff.CommonIndexFileFormat.Footer prototype) {
       return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
     }
     @java.lang.Override
@@ -3283,29 +6981,30 @@ public final class CommonIndexFileFormat {
     }
     /**
      * <pre>
-     * A record containing metadata about an individual document.
+     * The optional footer, for random access to files that can be sought in. All offsets are in bytes from the start of
+     * the (uncompressed) file, and point at the varint encoded size of a message.
      * </pre>
      *
-     * Protobuf type {@code io.osirrc.ciff.DocRecord}
+     * Protobuf type {@code io.osirrc.ciff.Footer}
      */
     public static final class Builder extends
         com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
-        // @@protoc_insertion_point(builder_implements:io.osirrc.ciff.DocRecord)
-        io.osirrc.ciff.CommonIndexFileFormat.DocRecordOrBuilder {
+        // @@protoc_insertion_point(builder_implements:io.osirrc.ciff.Footer)
+        io.osirrc.ciff.CommonIndexFileFormat.FooterOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
-        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_descriptor;
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_Footer_descriptor;
       }
 
       @java.lang.Override
       protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_fieldAccessorTable
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_Footer_fieldAccessorTable
             .ensureFieldAccessorsInitialized(
-                io.osirrc.ciff.CommonIndexFileFormat.DocRecord.class, io.osirrc.ciff.CommonIndexFileFormat.DocRecord.Builder.class);
+                io.osirrc.ciff.CommonIndexFileFormat.Footer.class, io.osirrc.ciff.CommonIndexFileFormat.Footer.Builder.class);
       }
 
-      // Construct using io.osirrc.ciff.CommonIndexFileFormat.DocRecord.newBuilder()
+      // Construct using io.osirrc.ciff.CommonIndexFileFormat.Footer.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
@@ -3323,29 +7022,37 @@ public final class CommonIndexFileFormat {
       @java.lang.Override
       public Builder clear() {
         super.clear();
-        docid_ = 0;
+        postingsListsOffset_ = 0L;
 
-        collectionDocid_ = "";
+        docRecordsOffset_ = 0L;
 
-        doclength_ = 0;
+        termSampleInterval_ = 0;
+
+        sampledTerms_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        sampledOffsets_ = emptyLongList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        checksumBlockSize_ = 0;
 
+        checksums_ = emptyIntList();
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
 
       @java.lang.Override
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_DocRecord_descriptor;
+        return io.osirrc.ciff.CommonIndexFileFormat.internal_static_io_osirrc_ciff_Footer_descriptor;
       }
 
-      @java.lang.Override
-      public io.osirrc.ciff.CommonIndexFileFormat.DocRecord getDefaultInstanceForType() {
-        return io.osirrc.ciff.CommonIndexFileFormat.DocRecord.getDefaultInstance();
+      @java.lang.Override
+      public io.osirrc.ciff.CommonIndexFileFormat.Footer getDefaultInstanceForType() {
+        return io.osirrc.ciff.CommonIndexFileFormat.Footer.getDefaultInstance();
       }
 
       @java.lang.Override
-      public io.osirrc.ciff.CommonIndexFileFormat.DocRecord build() {
-        io.osirrc.ciff.CommonIndexFileFormat.DocRecord result = buildPartial();
+      public io.osirrc.ciff.CommonIndexFileFormat.Footer build() {
+        io.osirrc.ciff.CommonIndexFileFormat.Footer result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
@@ -3353,11 +7060,28 @@ public final class CommonIndexFileFormat {
       }
 
       @java.lang.Override
-      public io.osirrc.ciff.CommonIndexFileFormat.DocRecord buildPartial() {
-        io.osirrc.ciff.CommonIndexFileFormat.DocRecord result = new io.osirrc.ciff.CommonIndexFileFormat.DocRecord(this);
-        result.docid_ = docid_;
-        result.collectionDocid_ = collectionDocid_;
-        result.doclength_ = doclength_;
+      public io.osirrc.ciff.CommonIndexFileFormat.Footer buildPartial() {
+        io.osirrc.ciff.CommonIndexFileFormat.Footer result = new io.osirrc.ciff.CommonIndexFileFormat.Footer(this);
+        int from_bitField0_ = bitField0_;
+        result.postingsListsOffset_ = postingsListsOffset_;
+        result.docRecordsOffset_ = docRecordsOffset_;
+        result.termSampleInterval_ = termSampleInterval_;
+        if (((bitField0_ & 0x00000001) != 0)) {
+          sampledTerms_ = sampledTerms_.getUnmodifiableView();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        }
+        result.sampledTerms_ = sampledTerms_;
+        if (((bitField0_ & 0x00000002) != 0)) {
+          sampledOffsets_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        }
+        result.sampledOffsets_ = sampledOffsets_;
+        result.checksumBlockSize_ = checksumBlockSize_;
+        if (((bitField0_ & 0x00000004) != 0)) {
+          checksums_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000004);
+        }
+        result.checksums_ = checksums_;
         onBuilt();
         return result;
       }
@@ -3396,25 +7120,57 @@ public final class CommonIndexFileFormat {
       }
       @java.lang.Override
       public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof io.osirrc.ciff.CommonIndexFileFormat.DocRecord) {
-          return mergeFrom((io.osirrc.ciff.CommonIndexFileFormat.DocRecord)other);
+        if (other instanceof io.osirrc.ciff.CommonIndexFileFormat.Footer) {
+          return mergeFrom((io.osirrc.ciff.CommonIndexFileFormat.Footer)other);
         } else {
           super.mergeFrom(other);
           return this;
         }
       }
 
-      public Builder mergeFrom(io.osirrc.ciff.CommonIndexFileFormat.DocRecord other) {
-        if (other == io.osirrc.ciff.CommonIndexFileFormat.DocRecord.getDefaultInstance()) return this;
-        if (other.getDocid() != 0) {
-          setDocid(other.getDocid());
+      public Builder mergeFrom(io.osirrc.ciff.CommonIndexFileFormat.Footer other) {
+        if (other == io.osirrc.ciff.CommonIndexFileFormat.Footer.getDefaultInstance()) return this;
+        if (other.getPostingsListsOffset() != 0L) {
+          setPostingsListsOffset(other.getPostingsListsOffset());
         }
-        if (!other.getCollectionDocid().isEmpty()) {
-          collectionDocid_ = other.collectionDocid_;
+        if (other.getDocRecordsOffset() != 0L) {
+          setDocRecordsOffset(other.getDocRecordsOffset());
+        }
+        if (other.getTermSampleInterval() != 0) {
+          setTermSampleInterval(other.getTermSampleInterval());
+        }
+        if (!other.sampledTerms_.isEmpty()) {
+          if (sampledTerms_.isEmpty()) {
+            sampledTerms_ = other.sampledTerms_;
+            bitField0_ = (bitField0_ & ~0x00000001);
+          } else {
+            ensureSampledTermsIsMutable();
+            sampledTerms_.addAll(other.sampledTerms_);
+          }
           onChanged();
         }
-        if (other.getDoclength() != 0) {
-          setDoclength(other.getDoclength());
+        if (!other.sampledOffsets_.isEmpty()) {
+          if (sampledOffsets_.isEmpty()) {
+            sampledOffsets_ = other.sampledOffsets_;
+            bitField0_ = (bitField0_ & ~0x00000002);
+          } else {
+            ensureSampledOffsetsIsMutable();
+            sampledOffsets_.addAll(other.sampledOffsets_);
+          }
+          onChanged();
+        }
+        if (other.getChecksumBlockSize() != 0) {
+          setChecksumBlockSize(other.getChecksumBlockSize());
+        }
+        if (!other.checksums_.isEmpty()) {
+          if (checksums_.isEmpty()) {
+            checksums_ = other.checksums_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+          } else {
+            ensureChecksumsIsMutable();
+            checksums_.addAll(other.checksums_);
+          }
+          onChanged();
         }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
@@ -3431,11 +7187,11 @@ public final class CommonIndexFileFormat {
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        io.osirrc.ciff.CommonIndexFileFormat.DocRecord parsedMessage = null;
+        io.osirrc.ciff.CommonIndexFileFormat.Footer parsedMessage = null;
         try {
           parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
         } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-          parsedMessage = (io.osirrc.ciff.CommonIndexFileFormat.DocRecord) e.getUnfinishedMessage();
+          parsedMessage = (io.osirrc.ciff.CommonIndexFileFormat.Footer) e.getUnfinishedMessage();
           throw e.unwrapIOException();
         } finally {
           if (parsedMessage != null) {
@@ -3444,168 +7200,393 @@ public final class CommonIndexFileFormat {
         }
         return this;
       }
+      private int bitField0_;
 
-      private int docid_ ;
+      private long postingsListsOffset_ ;
       /**
        * <pre>
-       * Refers to the docid in the postings lists.
+       * The offset of the first PostingsList, i.e., the size of the Header.
        * </pre>
        *
-       * <code>int32 docid = 1;</code>
+       * <code>int64 postings_lists_offset = 1;</code>
        */
-      public int getDocid() {
-        return docid_;
+      public long getPostingsListsOffset() {
+        return postingsListsOffset_;
       }
       /**
        * <pre>
-       * Refers to the docid in the postings lists.
+       * The offset of the first PostingsList, i.e., the size of the Header.
        * </pre>
        *
-       * <code>int32 docid = 1;</code>
+       * <code>int64 postings_lists_offset = 1;</code>
        */
-      public Builder setDocid(int value) {
+      public Builder setPostingsListsOffset(long value) {
         
-        docid_ = value;
+        postingsListsOffset_ = value;
         onChanged();
         return this;
       }
       /**
        * <pre>
-       * Refers to the docid in the postings lists.
+       * The offset of the first PostingsList, i.e., the size of the Header.
        * </pre>
        *
-       * <code>int32 docid = 1;</code>
+       * <code>int64 postings_lists_offset = 1;</code>
        */
-      public Builder clearDocid() {
+      public Builder clearPostingsListsOffset() {
         
-        docid_ = 0;
+        postingsListsOffset_ = 0L;
         onChanged();
         return this;
       }
 
-      private java.lang.Object collectionDocid_ = "";
+      private long docRecordsOffset_ ;
       /**
        * <pre>
-       * Refers to a docid in the external collection.
+       * The offset of the first DocRecord.
        * </pre>
        *
-       * <code>string collection_docid = 2;</code>
+       * <code>int64 doc_records_offset = 2;</code>
        */
-      public java.lang.String getCollectionDocid() {
-        java.lang.Object ref = collectionDocid_;
-        if (!(ref instanceof java.lang.String)) {
-          com.google.protobuf.ByteString bs =
-              (com.google.protobuf.ByteString) ref;
-          java.lang.String s = bs.toStringUtf8();
-          collectionDocid_ = s;
-          return s;
-        } else {
-          return (java.lang.String) ref;
-        }
+      public long getDocRecordsOffset() {
+        return docRecordsOffset_;
       }
       /**
        * <pre>
-       * Refers to a docid in the external collection.
+       * The offset of the first DocRecord.
        * </pre>
        *
-       * <code>string collection_docid = 2;</code>
+       * <code>int64 doc_records_offset = 2;</code>
        */
-      public com.google.protobuf.ByteString
-          getCollectionDocidBytes() {
-        java.lang.Object ref = collectionDocid_;
-        if (ref instanceof String) {
-          com.google.protobuf.ByteString b = 
-              com.google.protobuf.ByteString.copyFromUtf8(
-                  (java.lang.String) ref);
-          collectionDocid_ = b;
-          return b;
-        } else {
-          return (com.google.protobuf.ByteString) ref;
-        }
+      public Builder setDocRecordsOffset(long value) {
+        
+        docRecordsOffset_ = value;
+        onChanged();
+        return this;
       }
       /**
        * <pre>
-       * Refers to a docid in the external collection.
+       * The offset of the first DocRecord.
        * </pre>
        *
-       * <code>string collection_docid = 2;</code>
+       * <code>int64 doc_records_offset = 2;</code>
        */
-      public Builder setCollectionDocid(
-          java.lang.String value) {
-        if (value == null) {
-    throw new NullPointerException();
-  }
-  
-        collectionDocid_ = value;
+      public Builder clearDocRecordsOffset() {
+        
+        docRecordsOffset_ = 0L;
         onChanged();
         return this;
       }
+
+      private int termSampleInterval_ ;
       /**
        * <pre>
-       * Refers to a docid in the external collection.
+       * A sample of the terms: the term of every term_sample_interval-th PostingsList, starting from the first, and the
+       * offsets of those PostingsLists. Finding a term takes a binary search in the sample, followed by a scan of at most
+       * term_sample_interval PostingsLists.
        * </pre>
        *
-       * <code>string collection_docid = 2;</code>
+       * <code>int32 term_sample_interval = 3;</code>
        */
-      public Builder clearCollectionDocid() {
+      public int getTermSampleInterval() {
+        return termSampleInterval_;
+      }
+      /**
+       * <pre>
+       * A sample of the terms: the term of every term_sample_interval-th PostingsList, starting from the first, and the
+       * offsets of those PostingsLists. Finding a term takes a binary search in the sample, followed by a scan of at most
+       * term_sample_interval PostingsLists.
+       * </pre>
+       *
+       * <code>int32 term_sample_interval = 3;</code>
+       */
+      public Builder setTermSampleInterval(int value) {
         
-        collectionDocid_ = getDefaultInstance().getCollectionDocid();
+        termSampleInterval_ = value;
         onChanged();
         return this;
       }
       /**
        * <pre>
-       * Refers to a docid in the external collection.
+       * A sample of the terms: the term of every term_sample_interval-th PostingsList, starting from the first, and the
+       * offsets of those PostingsLists. Finding a term takes a binary search in the sample, followed by a scan of at most
+       * term_sample_interval PostingsLists.
        * </pre>
        *
-       * <code>string collection_docid = 2;</code>
+       * <code>int32 term_sample_interval = 3;</code>
        */
-      public Builder setCollectionDocidBytes(
+      public Builder clearTermSampleInterval() {
+        
+        termSampleInterval_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.LazyStringList sampledTerms_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      private void ensureSampledTermsIsMutable() {
+        if (!((bitField0_ & 0x00000001) != 0)) {
+          sampledTerms_ = new com.google.protobuf.LazyStringArrayList(sampledTerms_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public com.google.protobuf.ProtocolStringList
+          getSampledTermsList() {
+        return sampledTerms_.getUnmodifiableView();
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public int getSampledTermsCount() {
+        return sampledTerms_.size();
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public java.lang.String getSampledTerms(int index) {
+        return sampledTerms_.get(index);
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public com.google.protobuf.ByteString
+          getSampledTermsBytes(int index) {
+        return sampledTerms_.getByteString(index);
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public Builder setSampledTerms(
+          int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureSampledTermsIsMutable();
+        sampledTerms_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public Builder addSampledTerms(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureSampledTermsIsMutable();
+        sampledTerms_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public Builder addAllSampledTerms(
+          java.lang.Iterable<java.lang.String> values) {
+        ensureSampledTermsIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, sampledTerms_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public Builder clearSampledTerms() {
+        sampledTerms_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string sampled_terms = 4;</code>
+       */
+      public Builder addSampledTermsBytes(
           com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
   }
   checkByteStringIsUtf8(value);
-        
-        collectionDocid_ = value;
+        ensureSampledTermsIsMutable();
+        sampledTerms_.add(value);
         onChanged();
         return this;
       }
 
-      private int doclength_ ;
+      private com.google.protobuf.Internal.LongList sampledOffsets_ = emptyLongList();
+      private void ensureSampledOffsetsIsMutable() {
+        if (!((bitField0_ & 0x00000002) != 0)) {
+          sampledOffsets_ = mutableCopy(sampledOffsets_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+      /**
+       * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Long>
+          getSampledOffsetsList() {
+        return ((bitField0_ & 0x00000002) != 0) ?
+                 java.util.Collections.unmodifiableList(sampledOffsets_) : sampledOffsets_;
+      }
+      /**
+       * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+       */
+      public int getSampledOffsetsCount() {
+        return sampledOffsets_.size();
+      }
+      /**
+       * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+       */
+      public long getSampledOffsets(int index) {
+        return sampledOffsets_.getLong(index);
+      }
+      /**
+       * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+       */
+      public Builder setSampledOffsets(
+          int index, long value) {
+        ensureSampledOffsetsIsMutable();
+        sampledOffsets_.setLong(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+       */
+      public Builder addSampledOffsets(long value) {
+        ensureSampledOffsetsIsMutable();
+        sampledOffsets_.addLong(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+       */
+      public Builder addAllSampledOffsets(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        ensureSampledOffsetsIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, sampledOffsets_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 sampled_offsets = 5 [packed = true];</code>
+       */
+      public Builder clearSampledOffsets() {
+        sampledOffsets_ = emptyLongList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        onChanged();
+        return this;
+      }
+
+      private int checksumBlockSize_ ;
       /**
        * <pre>
-       * Length of this document.
+       * CRC32C (Castagnoli) checksums of the file up to the Footer, for detecting corrupt files: one for every
+       * checksum_block_size bytes, the last one for the bytes left after the last full block. Empty if there are none.
        * </pre>
        *
-       * <code>int32 doclength = 3;</code>
+       * <code>int32 checksum_block_size = 6;</code>
        */
-      public int getDoclength() {
-        return doclength_;
+      public int getChecksumBlockSize() {
+        return checksumBlockSize_;
       }
       /**
        * <pre>
-       * Length of this document.
+       * CRC32C (Castagnoli) checksums of the file up to the Footer, for detecting corrupt files: one for every
+       * checksum_block_size bytes, the last one for the bytes left after the last full block. Empty if there are none.
        * </pre>
        *
-       * <code>int32 doclength = 3;</code>
+       * <code>int32 checksum_block_size = 6;</code>
        */
-      public Builder setDoclength(int value) {
+      public Builder setChecksumBlockSize(int value) {
         
-        doclength_ = value;
+        checksumBlockSize_ = value;
         onChanged();
         return this;
       }
       /**
        * <pre>
-       * Length of this document.
+       * CRC32C (Castagnoli) checksums of the file up to the Footer, for detecting corrupt files: one for every
+       * checksum_block_size bytes, the last one for the bytes left after the last full block. Empty if there are none.
        * </pre>
        *
-       * <code>int32 doclength = 3;</code>
+       * <code>int32 checksum_block_size = 6;</code>
        */
-      public Builder clearDoclength() {
+      public Builder clearChecksumBlockSize() {
         
-        doclength_ = 0;
+        checksumBlockSize_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.Internal.IntList checksums_ = emptyIntList();
+      private void ensureChecksumsIsMutable() {
+        if (!((bitField0_ & 0x00000004) != 0)) {
+          checksums_ = mutableCopy(checksums_);
+          bitField0_ |= 0x00000004;
+         }
+      }
+      /**
+       * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Integer>
+          getChecksumsList() {
+        return ((bitField0_ & 0x00000004) != 0) ?
+                 java.util.Collections.unmodifiableList(checksums_) : checksums_;
+      }
+      /**
+       * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+       */
+      public int getChecksumsCount() {
+        return checksums_.size();
+      }
+      /**
+       * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+       */
+      public int getChecksums(int index) {
+        return checksums_.getInt(index);
+      }
+      /**
+       * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+       */
+      public Builder setChecksums(
+          int index, int value) {
+        ensureChecksumsIsMutable();
+        checksums_.setInt(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+       */
+      public Builder addChecksums(int value) {
+        ensureChecksumsIsMutable();
+        checksums_.addInt(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+       */
+      public Builder addAllChecksums(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureChecksumsIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, checksums_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated fixed32 checksums = 7 [packed = true];</code>
+       */
+      public Builder clearChecksums() {
+        checksums_ = emptyIntList();
+        bitField0_ = (bitField0_ & ~0x00000004);
         onChanged();
         return this;
       }
@@ -3622,41 +7603,41 @@ public final class CommonIndexFileFormat {
       }
 
 
-      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.DocRecord)
+      // @@protoc_insertion_point(builder_scope:io.osirrc.ciff.Footer)
     }
 
-    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.DocRecord)
-    private static final io.osirrc.ciff.CommonIndexFileFormat.DocRecord DEFAULT_INSTANCE;
+    // @@protoc_insertion_point(class_scope:io.osirrc.ciff.Footer)
+    private static final io.osirrc.ciff.CommonIndexFileFormat.Footer DEFAULT_INSTANCE;
     static {
-      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.DocRecord();
+      DEFAULT_INSTANCE = new io.osirrc.ciff.CommonIndexFileFormat.Footer();
     }
 
-    public static io.osirrc.ciff.CommonIndexFileFormat.DocRecord getDefaultInstance() {
+    public static io.osirrc.ciff.CommonIndexFileFormat.Footer getDefaultInstance() {
       return DEFAULT_INSTANCE;
     }
 
-    private static final com.google.protobuf.Parser<DocRecord>
-        PARSER = new com.google.protobuf.AbstractParser<DocRecord>() {
+    private static final com.google.protobuf.Parser<Footer>
+        PARSER = new com.google.protobuf.AbstractParser<Footer>() {
       @java.lang.Override
-      public DocRecord parsePartialFrom(
+      public Footer parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new DocRecord(input, extensionRegistry);
+        return new Footer(input, extensionRegistry);
       }
     };
 
-    public static com.google.protobuf.Parser<DocRecord> parser() {
+    public static com.google.protobuf.Parser<Footer> parser() {
       return PARSER;
     }
 
     @java.lang.Override
-    public com.google.protobuf.Parser<DocRecord> getParserForType() {
+    public com.google.protobuf.Parser<Footer> getParserForType() {
       return PARSER;
     }
 
     @java.lang.Override
-    public io.osirrc.ciff.CommonIndexFileFormat.DocRecord getDefaultInstanceForType() {
+    public io.osirrc.ciff.CommonIndexFileFormat.Footer getDefaultInstanceForType() {
       return DEFAULT_INSTANCE;
     }
 
@@ -3677,11 +7658,21 @@ public final class CommonIndexFileFormat {
   private static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_io_osirrc_ciff_PostingsList_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_io_osirrc_ciff_PostingsBlock_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_io_osirrc_ciff_PostingsBlock_fieldAccessorTable;
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_io_osirrc_ciff_DocRecord_descriptor;
   private static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_io_osirrc_ciff_DocRecord_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_io_osirrc_ciff_Footer_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_io_osirrc_ciff_Footer_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -3692,18 +7683,31 @@ public final class CommonIndexFileFormat {
   static {
     java.lang.String[] descriptorData = {
       "\n-src/main/protobuf/CommonIndexFileForma" +
-      "t.proto\022\016io.osirrc.ciff\"\314\001\n\006Header\022\017\n\007ve" +
+      "t.proto\022\016io.osirrc.ciff\"\237\002\n\006Header\022\017\n\007ve" +
       "rsion\030\001 \001(\005\022\032\n\022num_postings_lists\030\002 \001(\005\022" +
       "\020\n\010num_docs\030\003 \001(\005\022\034\n\024total_postings_list" +
       "s\030\004 \001(\005\022\022\n\ntotal_docs\030\005 \001(\005\022!\n\031total_ter" +
       "ms_in_collection\030\006 \001(\003\022\031\n\021average_doclen" +
-      "gth\030\007 \001(\001\022\023\n\013description\030\010 \001(\t\"$\n\007Postin" +
-      "g\022\r\n\005docid\030\001 \001(\005\022\n\n\002tf\030\002 \001(\005\"_\n\014Postings" +
-      "List\022\014\n\004term\030\001 \001(\t\022\n\n\002df\030\002 \001(\003\022\n\n\002cf\030\003 \001" +
-      "(\003\022)\n\010postings\030\004 \003(\0132\027.io.osirrc.ciff.Po" +
-      "sting\"G\n\tDocRecord\022\r\n\005docid\030\001 \001(\005\022\030\n\020col" +
-      "lection_docid\030\002 \001(\t\022\021\n\tdoclength\030\003 \001(\005b\006" +
-      "proto3"
+      "gth\030\007 \001(\001\022\023\n\013description\030\010 \001(\t\022\026\n\016postin" +
+      "gs_codec\030\t \001(\t\022\030\n\020scoring_function\030\n \001(\t" +
+      "\022\017\n\007bm25_k1\030\013 \001(\001\022\016\n\006bm25_b\030\014 \001(\001\"$\n\007Pos" +
+      "ting\022\r\n\005docid\030\001 \001(\005\022\n\n\002tf\030\002 \001(\005\"\364\001\n\014Post" +
+      "ingsList\022\014\n\004term\030\001 \001(\t\022\n\n\002df\030\002 \001(\003\022\n\n\002cf" +
+      "\030\003 \001(\003\022)\n\010postings\030\004 \003(\0132\027.io.osirrc.cif" +
+      "f.Posting\022\022\n\006docids\030\005 \003(\005B\002\020\001\022\017\n\003tfs\030\006 \003" +
+      "(\005B\002\020\001\022-\n\006blocks\030\007 \003(\0132\035.io.osirrc.ciff." +
+      "PostingsBlock\022\016\n\006max_tf\030\010 \001(\005\022\021\n\tmax_sco" +
+      "re\030\t \001(\002\022\034\n\020block_max_scores\030\n \003(\002B\002\020\001\"U" +
+      "\n\rPostingsBlock\022\024\n\014num_postings\030\001 \001(\005\022\021\n" +
+      "\tmax_docid\030\002 \001(\005\022\016\n\006docids\030\003 \001(\014\022\013\n\003tfs\030" +
+      "\004 \001(\014\"G\n\tDocRecord\022\r\n\005docid\030\001 \001(\005\022\030\n\020col" +
+      "lection_docid\030\002 \001(\t\022\021\n\tdoclength\030\003 \001(\005\"\311" +
+      "\001\n\006Footer\022\035\n\025postings_lists_offset\030\001 \001(\003" +
+      "\022\032\n\022doc_records_offset\030\002 \001(\003\022\034\n\024term_sam" +
+      "ple_interval\030\003 \001(\005\022\025\n\rsampled_terms\030\004 \003(" +
+      "\t\022\033\n\017sampled_offsets\030\005 \003(\003B\002\020\001\022\033\n\023checks" +
+      "um_block_size\030\006 \001(\005\022\025\n\tchecksums\030\007 \003(\007B\002" +
+      "\020\001b\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -3714,7 +7718,7 @@ public final class CommonIndexFileFormat {
     internal_static_io_osirrc_ciff_Header_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_io_osirrc_ciff_Header_descriptor,
-        new java.lang.String[] { "Version", "NumPostingsLists", "NumDocs", "TotalPostingsLists", "TotalDocs", "TotalTermsInCollection", "AverageDoclength", "Description", });
+        new java.lang.String[] { "Version", "NumPostingsLists", "NumDocs", "TotalPostingsLists", "TotalDocs", "TotalTermsInCollection", "AverageDoclength", "Description", "PostingsCodec", "ScoringFunction", "Bm25K1", "Bm25B", });
     internal_static_io_osirrc_ciff_Posting_descriptor =
       getDescriptor().getMessageTypes().get(1);
     internal_static_io_osirrc_ciff_Posting_fieldAccessorTable = new
@@ -3726,13 +7730,25 @@ public final class CommonIndexFileFormat {
     internal_static_io_osirrc_ciff_PostingsList_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_io_osirrc_ciff_PostingsList_descriptor,
-        new java.lang.String[] { "Term", "Df", "Cf", "Postings", });
-    internal_static_io_osirrc_ciff_DocRecord_descriptor =
+        new java.lang.String[] { "Term", "Df", "Cf", "Postings", "Docids", "Tfs", "Blocks", "MaxTf", "MaxScore", "BlockMaxScores", });
+    internal_static_io_osirrc_ciff_PostingsBlock_descriptor =
       getDescriptor().getMessageTypes().get(3);
+    internal_static_io_osirrc_ciff_PostingsBlock_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_io_osirrc_ciff_PostingsBlock_descriptor,
+        new java.lang.String[] { "NumPostings", "MaxDocid", "Docids", "Tfs", });
+    internal_static_io_osirrc_ciff_DocRecord_descriptor =
+      getDescriptor().getMessageTypes().get(4);
     internal_static_io_osirrc_ciff_DocRecord_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_io_osirrc_ciff_DocRecord_descriptor,
         new java.lang.String[] { "Docid", "CollectionDocid", "Doclength", });
+    internal_static_io_osirrc_ciff_Footer_descriptor =
+      getDescriptor().getMessageTypes().get(5);
+    internal_static_io_osirrc_ciff_Footer_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_io_osirrc_ciff_Footer_descriptor,
+        new java.lang.String[] { "PostingsListsOffset", "DocRecordsOffset", "TermSampleInterval", "SampledTerms", "SampledOffsets", "ChecksumBlockSize", "Checksums", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -18,5 +18,34 @@
 package io.osirrc.ciff;
 
 public class CommonIndexFileFormatConstants {
-  public final static int VERSION = 1;
+  // The latest version. Version 2 stores postings in packed arrays, see CommonIndexFileFormat.proto.
+  public final static int VERSION = 2;
+
+  // The original version, with a Posting message per posting, which is still the default for exports.
+  public final static int VERSION_1 = 1;
+
+  // Postings codec of version 2 for blocks of postings compressed with Stream VByte, see StreamVByte.
+  public final static String POSTINGS_CODEC_STREAM_VBYTE = "streamvbyte";
+
+  // Scoring function of the score bounds of postings lists, see CommonIndexFileFormat.proto and ScoreBounds.
+  public final static String SCORING_FUNCTION_BM25 = "bm25";
+
+  // The default BM25 parameters for score bounds, which are those of Anserini.
+  public final static double BM25_K1 = 0.9;
+  public final static double BM25_B = 0.4;
+
+  // The number of postings in every block but the last of a postings list.
+  public final static int BLOCK_SIZE = 128;
+
+  // Magic number of the trailer that points to the optional Footer: "CIFFFOOT" in ASCII, as a little endian long.
+  public final static long TRAILER_MAGIC = 0x544f4f4646464943L;
+
+  // The size of the trailer, which holds the offset of the Footer and the magic number.
+  public final static int TRAILER_SIZE = 16;
+
+  // The interval at which terms are sampled for the Footer by the tools in this repository.
+  public final static int TERM_SAMPLE_INTERVAL = 64;
+
+  // The size of the blocks of the file that are checksummed for the Footer by the tools in this repository.
+  public final static int CHECKSUM_BLOCK_SIZE = 1024 * 1024;
 }
@@ -0,0 +1,139 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+import org.kohsuke.args4j.OptionHandlerFilter;
+import org.kohsuke.args4j.ParserProperties;
+
+import java.io.OutputStream;
+
+/**
+ * Converts a CIFF file to another version or postings codec in a single streaming pass, e.g., an existing version 1
+ * export to version 2 with blocks compressed with Stream VByte. Input and output may each be compressed or not,
+ * inferred from their suffixes. Everything but the postings and the version and postings codec in the header is copied
+ * as is, score bounds included, except for any footer, which is only written with {@code -footer}.
+ */
+public class ConvertCIFF {
+  public static class Args {
+    @Option(name = "-input", metaVar = "[file]", required = true, usage = "postings file")
+    public String input = "";
+
+    @Option(name = "-output", metaVar = "[file]", required = true, usage = "postings output")
+    public String output = "";
+
+    @Option(name = "-version", metaVar = "[num]", usage = "CIFF version to write: 1 or 2")
+    public int version = CommonIndexFileFormatConstants.VERSION;
+
+    @Option(name = "-postingsCodec", metaVar = "[codec]",
+        usage = "with -version 2, store postings in blocks of 128 compressed with this codec: streamvbyte")
+    public String postingsCodec = "";
+
+    @Option(name = "-compressionThreads", metaVar = "[num]",
+        usage = "number of threads used to compress the output (gzip and zstd)")
+    public int compressionThreads = 1;
+
+    @Option(name = "-footer",
+        usage = "end the output with a footer holding the offsets of the sections and of a sample of the terms, " +
+            "and checksums")
+    public boolean footer = false;
+  }
+
+  public static void main(String[] argv) throws Exception {
+    Args args = new Args();
+    CmdLineParser parser = new CmdLineParser(args, ParserProperties.defaults().withUsageWidth(90));
+
+    try {
+      parser.parseArgument(argv);
+    } catch (CmdLineException e) {
+      System.err.println(e.getMessage());
+      parser.printUsage(System.err);
+      System.err.println("Example: ConvertCIFF " + parser.printExample(OptionHandlerFilter.REQUIRED));
+      return;
+    }
+
+    // Checked before the output is created, so that a rejected invocation doesn't truncate it.
+    CiffWriter.checkFormat(args.version, args.postingsCodec);
+
+    long start = System.currentTimeMillis();
+    try (CiffReader reader = CiffReader.openFastest(args.input);
+         OutputStream fileOut = CiffCodec.create(args.output, args.compressionThreads, false)) {
+      // Only the footer holds checksums, so the output is only checksummed if there is one.
+      OutputStream out = args.footer ?
+          new ChecksumOutputStream(fileOut, CommonIndexFileFormatConstants.CHECKSUM_BLOCK_SIZE) : fileOut;
+      CommonIndexFileFormat.Header header = reader.getHeader();
+      System.out.println(String.format("Converting %s from version %d%s to version %d%s...", args.input,
+          header.getVersion(), describeCodec(header.getPostingsCodec()), args.version,
+          describeCodec(args.postingsCodec)));
+
+      CiffWriter writer = new CiffWriter(out, args.version, args.postingsCodec);
+      writer.writeHeader(header.toBuilder()
+          .setVersion(args.version)
+          .setPostingsCodec(args.postingsCodec)
+          .build());
+
+      long postingsListsOffset = writer.getBytesWritten();
+      writer.sampleTerms(CommonIndexFileFormatConstants.TERM_SAMPLE_INTERVAL, 0);
+      PostingsListBuffer pl = new PostingsListBuffer();
+      for (int i = 1; reader.nextPostingsList(pl); i++) {
+        byte[] term = pl.getTermBytes();
+        writer.startPostingsList(term, 0, term.length, pl.getDf(), pl.getCf());
+        int[] docids = pl.getDocids();
+        int[] tfs = pl.getTfs();
+        for (int j = 0; j < pl.size(); j++) {
+          writer.addPosting(docids[j], tfs[j]);
+        }
+        // Score bounds are per 128 postings in every version, so they carry over as they are.
+        writer.setScoreBounds(pl.getMaxTf(), pl.getMaxScore(), pl.getBlockMaxScores(), pl.getNumBlockMaxScores());
+        writer.finishPostingsList();
+        if (i % 100000 == 0) {
+          System.out.println("Converted " + i + " postings lists...");
+        }
+      }
+
+      long docRecordsOffset = writer.getBytesWritten();
+      CommonIndexFileFormat.DocRecord docRecord;
+      while ((docRecord = reader.nextDocRecord()) != null) {
+        writer.writeDocRecord(docRecord.getDocid(), docRecord.getCollectionDocid(), docRecord.getDoclength());
+      }
+
+      if (args.footer) {
+        CommonIndexFileFormat.Footer.Builder footer = CommonIndexFileFormat.Footer.newBuilder()
+            .setPostingsListsOffset(postingsListsOffset)
+            .setDocRecordsOffset(docRecordsOffset);
+        writer.addTermSamples(footer, 0);
+        // The checksums only cover what has reached the stream.
+        writer.flush();
+        ChecksumOutputStream checksumOut = (ChecksumOutputStream) out;
+        footer.setChecksumBlockSize(checksumOut.getBlockSize());
+        for (int checksum : checksumOut.getChecksums()) {
+          footer.addChecksums(checksum);
+        }
+        writer.writeFooter(footer.build(), writer.getBytesWritten());
+      }
+      writer.flush();
+    }
+    System.out.println(String.format("Done! Took %,d ms", System.currentTimeMillis() - start));
+  }
+
+  private static String describeCodec(String postingsCodec) {
+    return postingsCodec.isEmpty() ? "" : " (" + postingsCodec + ")";
+  }
+}
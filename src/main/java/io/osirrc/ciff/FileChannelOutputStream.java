@@ -0,0 +1,159 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Output stream that writes a file through a {@link FileChannel} from large direct buffers, so that the many small
+ * messages of a CIFF export turn into few, large writes. With write-behind enabled, there are two buffers: a full
+ * buffer is written out on a background thread while the other one is being filled, so encoding and disk writes
+ * overlap.
+ */
+public class FileChannelOutputStream extends OutputStream {
+  public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final ExecutorService flusher;
+  private ByteBuffer buffer;
+  private ByteBuffer spare;
+  private Future<?> pendingWrite;
+  private boolean closed;
+
+  public FileChannelOutputStream(Path path, boolean writeBehind) throws IOException {
+    this(path, DEFAULT_BUFFER_SIZE, writeBehind);
+  }
+
+  public FileChannelOutputStream(Path path, int bufferSize, boolean writeBehind) throws IOException {
+    this.channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    if (writeBehind) {
+      this.spare = ByteBuffer.allocateDirect(bufferSize);
+      this.flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ciff-write-behind");
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.flusher = null;
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (!buffer.hasRemaining()) {
+      drain();
+    }
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.put(b, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  // Writes out the current buffer, either directly or by handing it to the background thread.
+  private void drain() throws IOException {
+    buffer.flip();
+    if (flusher == null) {
+      writeFully(buffer);
+      buffer.clear();
+      return;
+    }
+
+    // The spare buffer is only free once its previous write has completed.
+    awaitPendingWrite();
+    ByteBuffer full = buffer;
+    buffer = spare;
+    spare = full;
+    pendingWrite = flusher.submit(() -> {
+      writeFully(full);
+      full.clear();
+      return null;
+    });
+  }
+
+  private void writeFully(ByteBuffer data) throws IOException {
+    while (data.hasRemaining()) {
+      channel.write(data);
+    }
+  }
+
+  private void awaitPendingWrite() throws IOException {
+    if (pendingWrite == null) {
+      return;
+    }
+
+    try {
+      pendingWrite.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    } finally {
+      pendingWrite = null;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (buffer.position() > 0) {
+      drain();
+    }
+    awaitPendingWrite();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      flush();
+    } finally {
+      if (flusher != null) {
+        flusher.shutdown();
+      }
+      channel.close();
+    }
+  }
+}
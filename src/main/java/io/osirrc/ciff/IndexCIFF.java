@@ -0,0 +1,58 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+import org.kohsuke.args4j.OptionHandlerFilter;
+import org.kohsuke.args4j.ParserProperties;
+
+/**
+ * Builds the sidecar {@link CiffIndex} of a CIFF file.
+ */
+public class IndexCIFF {
+  public static class Args {
+    @Option(name = "-input", metaVar = "[file]", required = true, usage = "postings file")
+    public String input = "";
+
+    @Option(name = "-output", metaVar = "[file]",
+        usage = "sidecar index file, by default the input file with its suffix replaced by " + CiffIndex.SUFFIX)
+    public String output = null;
+  }
+
+  public static void main(String[] argv) throws Exception {
+    Args args = new Args();
+    CmdLineParser parser = new CmdLineParser(args, ParserProperties.defaults().withUsageWidth(90));
+
+    try {
+      parser.parseArgument(argv);
+    } catch (CmdLineException e) {
+      System.err.println(e.getMessage());
+      parser.printUsage(System.err);
+      System.err.println("Example: IndexCIFF " + parser.printExample(OptionHandlerFilter.REQUIRED));
+      return;
+    }
+
+    String output = args.output != null ? args.output : CiffIndex.getDefaultPath(args.input);
+    System.out.println(String.format("Indexing %s into %s...", args.input, output));
+    long start = System.currentTimeMillis();
+    CiffIndex.build(args.input, output);
+    System.out.println(String.format("Done! Took %,d ms", System.currentTimeMillis() - start));
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs tasks on a pool of worker threads and hands their results to a sink in the order the tasks were submitted.
+ * The sink is always invoked on the submitting thread, which makes it the single writer of an ordered output. To bound
+ * memory, {@link #submit} blocks on the oldest task once more than twice the number of threads are in flight.
+ *
+ * @param <T> type of the task results
+ */
+public class OrderedExecutor<T> implements Closeable {
+  public interface Sink<T> {
+    void accept(T result) throws Exception;
+  }
+
+  private final ExecutorService executor;
+  private final Deque<Future<T>> pending = new ArrayDeque<>();
+  private final int maxPending;
+  private final Sink<T> sink;
+
+  public OrderedExecutor(int threads, Sink<T> sink) {
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable);
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.maxPending = 2 * threads;
+    this.sink = sink;
+  }
+
+  public void submit(Callable<T> task) throws Exception {
+    pending.addLast(executor.submit(task));
+    while (pending.size() > maxPending) {
+      drainOne();
+    }
+  }
+
+  /**
+   * Waits for all submitted tasks and hands the remaining results to the sink.
+   */
+  public void finish() throws Exception {
+    while (!pending.isEmpty()) {
+      drainOne();
+    }
+  }
+
+  private void drainOne() throws Exception {
+    try {
+      sink.accept(pending.removeFirst().get());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
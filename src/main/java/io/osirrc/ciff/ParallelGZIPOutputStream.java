@@ -0,0 +1,134 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip output stream that compresses independent blocks of its input on multiple threads, in the manner of pigz.
+ * Each block becomes a complete gzip member, and the members are written out in order. The result is a valid
+ * multi-member gzip file, which {@link java.util.zip.GZIPInputStream}, {@code gzip} and {@code zcat} decode as the
+ * concatenation of the blocks. Compression is slightly worse than a single member, since each block starts with an
+ * empty dictionary.
+ */
+public class ParallelGZIPOutputStream extends OutputStream {
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  private final OutputStream out;
+  private final OrderedExecutor<byte[]> executor;
+  private final int blockSize;
+  private byte[] block;
+  private int count;
+  private boolean written;
+  private boolean closed;
+
+  public ParallelGZIPOutputStream(OutputStream out, int threads) {
+    this(out, threads, DEFAULT_BLOCK_SIZE);
+  }
+
+  public ParallelGZIPOutputStream(OutputStream out, int threads, int blockSize) {
+    this.out = out;
+    this.executor = new OrderedExecutor<>(threads, out::write);
+    this.blockSize = blockSize;
+    this.block = new byte[blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == blockSize) {
+      submitBlock();
+    }
+    block[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == blockSize) {
+        submitBlock();
+      }
+      int n = Math.min(len, blockSize - count);
+      System.arraycopy(b, off, block, count, n);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    byte[] data = block;
+    int length = count;
+    block = new byte[blockSize];
+    count = 0;
+    written = true;
+
+    try {
+      executor.submit(() -> compress(data, length));
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static byte[] compress(byte[] data, int length) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(data, 0, length);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * Compresses the buffered data as a block of its own, and waits for all blocks to be written.
+   */
+  @Override
+  public void flush() throws IOException {
+    // An empty stream still has to be a valid gzip file, i.e., have at least one member.
+    if (count > 0 || !written) {
+      submitBlock();
+    }
+
+    try {
+      executor.finish();
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      flush();
+    } finally {
+      executor.close();
+      out.close();
+    }
+  }
+}
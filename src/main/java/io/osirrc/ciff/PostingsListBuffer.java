@@ -0,0 +1,186 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable, caller-supplied buffer that a {@link CiffReader} decodes postings lists into. Postings are held in
+ * primitive arrays that only grow, so reading postings lists into the same buffer allocates next to nothing. The
+ * d-gaps are resolved while decoding: {@link #getDocids()} holds actual docids. Score bounds, if the postings list
+ * holds any, are decoded along with the postings.
+ */
+public class PostingsListBuffer {
+  private static final byte[] EMPTY = new byte[0];
+
+  private byte[] term = EMPTY;
+  private long df;
+  private long cf;
+  private int[] docids = new int[1024];
+  private int[] tfs = new int[1024];
+  private int size;
+  private int maxTf;
+  private float maxScore;
+  private float[] blockMaxScores = new float[16];
+  private int numBlockMaxScores;
+
+  void reset() {
+    term = EMPTY;
+    df = 0;
+    cf = 0;
+    size = 0;
+    maxTf = 0;
+    maxScore = 0;
+    numBlockMaxScores = 0;
+  }
+
+  void setTerm(byte[] term) {
+    this.term = term;
+  }
+
+  void setDf(long df) {
+    this.df = df;
+  }
+
+  void setCf(long cf) {
+    this.cf = cf;
+  }
+
+  // Grows the arrays to at least the given capacity. They at least double in size, so that growing them one posting at
+  // a time, as unpacked docids and tfs are decoded, takes amortized constant time rather than copying them every time.
+  void ensureCapacity(int capacity) {
+    if (docids.length < capacity) {
+      int length = (int) Math.max(capacity, Math.min(2L * docids.length, Integer.MAX_VALUE - 8));
+      docids = Arrays.copyOf(docids, length);
+      tfs = Arrays.copyOf(tfs, length);
+    }
+  }
+
+  // Sets the number of postings, after their d-gaps and tfs were decoded straight into the arrays, and resolves the
+  // d-gaps.
+  void setSize(int size) {
+    for (int i = 1; i < size; i++) {
+      docids[i] += docids[i - 1];
+    }
+    this.size = size;
+  }
+
+  // Sets the number of postings, after their docids (with the d-gaps already resolved) and tfs were decoded straight
+  // into the arrays.
+  void setResolvedSize(int size) {
+    this.size = size;
+  }
+
+  void setMaxTf(int maxTf) {
+    this.maxTf = maxTf;
+  }
+
+  void setMaxScore(float maxScore) {
+    this.maxScore = maxScore;
+  }
+
+  void addBlockMaxScore(float blockMaxScore) {
+    if (numBlockMaxScores == blockMaxScores.length) {
+      blockMaxScores = Arrays.copyOf(blockMaxScores, numBlockMaxScores * 2);
+    }
+    blockMaxScores[numBlockMaxScores++] = blockMaxScore;
+  }
+
+  // Appends a posting, given its d-gap.
+  void addPosting(int gap, int tf) {
+    if (size == docids.length) {
+      docids = Arrays.copyOf(docids, size * 2);
+      tfs = Arrays.copyOf(tfs, size * 2);
+    }
+    docids[size] = size == 0 ? gap : docids[size - 1] + gap;
+    tfs[size] = tf;
+    size++;
+  }
+
+  /**
+   * Returns the term, decoded from UTF-8.
+   */
+  public String getTerm() {
+    return new String(term, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the UTF-8 bytes of the term.
+   */
+  public byte[] getTermBytes() {
+    return term;
+  }
+
+  public long getDf() {
+    return df;
+  }
+
+  public long getCf() {
+    return cf;
+  }
+
+  /**
+   * Returns the number of postings, which should be the same as the df.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the docids, with the d-gaps resolved. Only the first {@link #size()} entries are valid.
+   */
+  public int[] getDocids() {
+    return docids;
+  }
+
+  /**
+   * Returns the tfs. Only the first {@link #size()} entries are valid.
+   */
+  public int[] getTfs() {
+    return tfs;
+  }
+
+  /**
+   * Returns the max tf, or 0 if the postings list holds no score bounds.
+   */
+  public int getMaxTf() {
+    return maxTf;
+  }
+
+  /**
+   * Returns the max score of any posting, or 0 if the postings list holds no score bounds.
+   */
+  public float getMaxScore() {
+    return maxScore;
+  }
+
+  /**
+   * Returns the number of max scores of blocks of postings, which is 0 if the postings list holds no score bounds.
+   */
+  public int getNumBlockMaxScores() {
+    return numBlockMaxScores;
+  }
+
+  /**
+   * Returns the max score of every block of postings. Only the first {@link #getNumBlockMaxScores()} entries are valid.
+   */
+  public float[] getBlockMaxScores() {
+    return blockMaxScores;
+  }
+}
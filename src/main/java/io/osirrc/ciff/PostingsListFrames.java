@@ -0,0 +1,93 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.io.IOException;
+
+/**
+ * Chunk of consecutive postings lists, still encoded as length-delimited messages, as split off a CIFF file by
+ * {@link CiffReader#nextPostingsListFrames(int)}. A chunk doesn't depend on the reader it came from, so chunks can be
+ * decoded in parallel, each on its own thread.
+ */
+public class PostingsListFrames {
+  private final int first;
+  private final int size;
+  private final long offset;
+  private final byte[] bytes;
+  private final CiffDecoder decoder = new CiffDecoder();
+  private int pos;
+  private int decoded;
+
+  PostingsListFrames(byte[] bytes, int first, int size, long offset) {
+    this.first = first;
+    this.size = size;
+    this.offset = offset;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Returns the ordinal of the first postings list in the chunk, i.e., its position among all postings lists.
+   */
+  public int getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns the number of postings lists in the chunk.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the offset of the chunk in the uncompressed CIFF stream.
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Decodes the next postings list of the chunk into a reusable buffer.
+   *
+   * @param buffer buffer to decode the postings list into
+   * @return false if all postings lists of the chunk have been decoded
+   */
+  public boolean next(PostingsListBuffer buffer) throws IOException {
+    if (decoded == size) {
+      return false;
+    }
+
+    decoded++;
+    int size = readVarint32();
+    decoder.decodePostingsList(bytes, pos, size, buffer);
+    pos += size;
+    return true;
+  }
+
+  // Reads the length prefix of the next message, as written by the reader.
+  private int readVarint32() {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = bytes[pos++];
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Input stream that reads ahead of its consumer on a background thread. The prefetch thread reads the underlying
+ * stream (and therefore also does any decompression) in large chunks, and feeds them to the consumer through a bounded
+ * queue. Chunk buffers are recycled, so reading a stream of any size only ever allocates a fixed number of them.
+ */
+public class ReadAheadInputStream extends InputStream {
+  public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+  public static final int DEFAULT_NUM_CHUNKS = 4;
+
+  private static class Chunk {
+    final byte[] buffer;
+    final int length;
+    final IOException error;
+
+    Chunk(byte[] buffer, int length, IOException error) {
+      this.buffer = buffer;
+      this.length = length;
+      this.error = error;
+    }
+  }
+
+  private final InputStream in;
+  private final BlockingQueue<Chunk> full;
+  private final BlockingQueue<byte[]> free;
+  private final Thread prefetcher;
+
+  private Chunk chunk;
+  private int pos;
+  private boolean eof;
+
+  public ReadAheadInputStream(InputStream in) {
+    this(in, DEFAULT_CHUNK_SIZE, DEFAULT_NUM_CHUNKS);
+  }
+
+  public ReadAheadInputStream(InputStream in, int chunkSize, int numChunks) {
+    this.in = in;
+    this.full = new ArrayBlockingQueue<>(numChunks + 1);
+    // One more buffer than the queue holds, for the chunk the consumer is reading from.
+    this.free = new ArrayBlockingQueue<>(numChunks + 1);
+    for (int i = 0; i < numChunks + 1; i++) {
+      free.add(new byte[chunkSize]);
+    }
+
+    this.prefetcher = new Thread(this::prefetch, "ciff-read-ahead");
+    this.prefetcher.setDaemon(true);
+    this.prefetcher.start();
+  }
+
+  private void prefetch() {
+    try {
+      while (true) {
+        byte[] buffer = free.take();
+        int length;
+        try {
+          length = in.readNBytes(buffer, 0, buffer.length);
+        } catch (Throwable e) {
+          // Anything else thrown, such as a RuntimeException of a decompressor, ends the stream all the same, as the
+          // consumer would otherwise wait for the next chunk forever.
+          full.put(new Chunk(null, 0, e instanceof IOException ? (IOException) e : new IOException(e)));
+          return;
+        }
+
+        // readNBytes() only comes up short at the end of the stream.
+        if (length > 0) {
+          full.put(new Chunk(buffer, length, null));
+        }
+        if (length < buffer.length) {
+          full.put(new Chunk(null, 0, null));
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      // The stream has been closed.
+    }
+  }
+
+  // Moves on to the next chunk, returning false at the end of the stream.
+  private boolean nextChunk() throws IOException {
+    if (eof) {
+      return false;
+    }
+    if (chunk != null) {
+      free.add(chunk.buffer);
+      chunk = null;
+    }
+
+    Chunk next;
+    try {
+      next = full.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    if (next.error != null) {
+      eof = true;
+      throw next.error;
+    }
+    if (next.buffer == null) {
+      eof = true;
+      return false;
+    }
+
+    chunk = next;
+    pos = 0;
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if ((chunk == null || pos == chunk.length) && !nextChunk()) {
+      return -1;
+    }
+    return chunk.buffer[pos++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if ((chunk == null || pos == chunk.length) && !nextChunk()) {
+      return -1;
+    }
+
+    int n = Math.min(len, chunk.length - pos);
+    System.arraycopy(chunk.buffer, pos, b, off, n);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return chunk == null ? 0 : chunk.length - pos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    prefetcher.interrupt();
+    in.close();
+  }
+}
@@ -23,9 +23,8 @@ import org.kohsuke.args4j.Option;
 import org.kohsuke.args4j.OptionHandlerFilter;
 import org.kohsuke.args4j.ParserProperties;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.util.zip.GZIPInputStream;
+import java.io.IOException;
+import java.util.List;
 
 public class ReadCIFF {
   public static class Args {
@@ -35,6 +34,81 @@ public class ReadCIFF {
     @Option(name = "-dumpInterval", metaVar = "[num]",
         usage = "prints PostingsList and DocRecord messages at this regular inverval for debugging purposes")
     public int dumpInterval = 100000;
+
+    @Option(name = "-threads", metaVar = "[num]",
+        usage = "number of threads to verify checksums with, and to decode and check postings lists with, while " +
+            "the main thread splits them off")
+    public int threads = 1;
+  }
+
+  private static final int CHUNK_SIZE = 1024 * 1024;
+
+  // Results of checking a run of postings lists: the sum of their tfs, and what to dump out.
+  private static class Validation {
+    long sumOfTfs;
+    final StringBuilder dump = new StringBuilder();
+  }
+
+  // Checks the i-th postings list, adding to the sum of tfs, and dumping it out every dumpInterval postings lists.
+  private static void validate(PostingsListBuffer pl, int i, int dumpInterval, Validation validation) {
+    if (pl.getDf() != pl.size()) {
+      throw new RuntimeException(String.format(
+          "Unexpected number of postings! expected %,d got %,d", pl.getDf(), pl.size()));
+    }
+
+    int[] docids = pl.getDocids();
+    int[] tfs = pl.getTfs();
+    if (i % dumpInterval == 0) {
+      StringBuilder dump = validation.dump;
+      dump.append(String.format("term: '%s', df=%,d, cf=%,d", pl.getTerm(), pl.getDf(), pl.getCf()));
+
+      // Dump the postings as stored, i.e., with the docids gap encoded.
+      for (int j = 0; j < (pl.getDf() > 10 ? 10 : pl.getDf()); j++) {
+        dump.append(String.format(" (%d, %d)", j == 0 ? docids[j] : docids[j] - docids[j - 1], tfs[j]));
+      }
+      dump.append(pl.getDf() > 10 ? " ..." : "").append('\n');
+    }
+
+    for (int j=0; j<pl.size(); j++) {
+      validation.sumOfTfs += tfs[j];
+    }
+  }
+
+  // Reads and checks all postings lists on the calling thread.
+  private static long validatePostingsLists(CiffReader reader, int dumpInterval) throws IOException {
+    Validation validation = new Validation();
+    PostingsListBuffer pl = new PostingsListBuffer();
+    for (int i=0; reader.nextPostingsList(pl); i++) {
+      validate(pl, i, dumpInterval, validation);
+      System.out.print(validation.dump);
+      validation.dump.setLength(0);
+    }
+    return validation.sumOfTfs;
+  }
+
+  // Splits the postings lists into chunks on the calling thread, and checks the chunks on a pool of threads.
+  private static long validatePostingsLists(CiffReader reader, int dumpInterval, int threads) throws Exception {
+    long[] sumOfAllTfs = new long[1];
+    ThreadLocal<PostingsListBuffer> buffers = ThreadLocal.withInitial(PostingsListBuffer::new);
+    try (OrderedExecutor<Validation> executor = new OrderedExecutor<>(threads, validation -> {
+      System.out.print(validation.dump);
+      sumOfAllTfs[0] += validation.sumOfTfs;
+    })) {
+      PostingsListFrames frames;
+      while ((frames = reader.nextPostingsListFrames(CHUNK_SIZE)) != null) {
+        PostingsListFrames chunk = frames;
+        executor.submit(() -> {
+          Validation validation = new Validation();
+          PostingsListBuffer pl = buffers.get();
+          for (int i = chunk.getFirst(); chunk.next(pl); i++) {
+            validate(pl, i, dumpInterval, validation);
+          }
+          return validation;
+        });
+      }
+      executor.finish();
+    }
+    return sumOfAllTfs[0];
   }
 
   public static void main(String[] argv) throws Exception {
@@ -50,16 +124,9 @@ public class ReadCIFF {
       return;
     }
 
-    InputStream fileIn;
-
-    if (args.input.endsWith(".gz")) {
-      fileIn = new GZIPInputStream(new FileInputStream(args.input));
-    } else {
-      fileIn = new FileInputStream(args.input);
-    }
-
     System.out.println("Reading header...");
-    CommonIndexFileFormat.Header header = CommonIndexFileFormat.Header.parseDelimitedFrom(fileIn);
+    CiffReader reader = CiffReader.openFastest(args.input);
+    CommonIndexFileFormat.Header header = reader.getHeader();
 
     System.out.println("=== Header === ");
     System.out.println(String.format("version: %,d", header.getVersion()));
@@ -70,39 +137,58 @@ public class ReadCIFF {
     System.out.println(String.format("total_terms_in_collection: %,d", header.getTotalTermsInCollection()));
     System.out.println(String.format("average_doclength: %f", header.getAverageDoclength()));
     System.out.println(String.format("description: %s", header.getDescription()));
+    if (!header.getPostingsCodec().isEmpty()) {
+      System.out.println(String.format("postings_codec: %s", header.getPostingsCodec()));
+    }
+    if (!header.getScoringFunction().isEmpty()) {
+      System.out.println(String.format("scoring_function: %s", header.getScoringFunction()));
+      System.out.println(String.format("bm25_k1: %f", header.getBm25K1()));
+      System.out.println(String.format("bm25_b: %f", header.getBm25B()));
+    }
     System.out.println();
 
-    System.out.println(String.format("Expecting %,d PostingsList and %,d DocRecords in this export.\n",
-        header.getNumPostingsLists(), header.getNumDocs()));
+    CommonIndexFileFormat.Footer footer = reader.getFooter();
+    if (footer != null) {
+      System.out.println("=== Footer === ");
+      System.out.println(String.format("postings_lists_offset: %,d", footer.getPostingsListsOffset()));
+      System.out.println(String.format("doc_records_offset: %,d", footer.getDocRecordsOffset()));
+      System.out.println(String.format("term_sample_interval: %,d", footer.getTermSampleInterval()));
+      System.out.println(String.format("sampled_terms: %,d", footer.getSampledTermsCount()));
+      System.out.println(String.format("checksums: %,d", footer.getChecksumsCount()));
+      System.out.println();
+    }
 
-    System.out.println(String.format("Reading every PostingsList, dumping out every %,dth:", args.dumpInterval));
-    long sumOfAllTfs = 0;
-    for (int i=0; i<header.getNumPostingsLists(); i++ ) {
-      CommonIndexFileFormat.PostingsList pl = CommonIndexFileFormat.PostingsList.parseDelimitedFrom(fileIn);
-      if (pl.getDf() != pl.getPostingsCount()) {
-        throw new RuntimeException(String.format(
-            "Unexpected number of postings! expected %,d got %,d", pl.getDf(), pl.getPostingsCount()));
+    // Checksums are verified up front, which takes little more than reading the file, rather than finding out about
+    // a corrupt file halfway through reading it.
+    if (footer != null && footer.getChecksumsCount() > 0) {
+      System.out.println(String.format("Verifying %,d checksums of blocks of %,d bytes...", footer.getChecksumsCount(),
+          footer.getChecksumBlockSize()));
+      List<Integer> failed = reader.verifyChecksums(args.threads);
+      for (int block : failed) {
+        long start = (long) block * footer.getChecksumBlockSize();
+        long end = start + footer.getChecksumBlockSize();
+        System.out.println(String.format("Checksum of block %,d failed: bytes %,d to %,d, in the %s", block, start,
+            end - 1, start < footer.getPostingsListsOffset() ? "header" :
+                start < footer.getDocRecordsOffset() ? "postings lists" : "doc records"));
       }
+      System.out.println(failed.isEmpty() ? "[PASSED] All checksums match" :
+          String.format("[FAILED] %,d of %,d checksums don't match", failed.size(), footer.getChecksumsCount()));
+      System.out.println();
+    }
 
-      if (i % args.dumpInterval == 0) {
-        System.out.print(String.format("term: '%s', df=%,d, cf=%,d", pl.getTerm(), pl.getDf(), pl.getCf()));
-
-        for (int j = 0; j < (pl.getDf() > 10 ? 10 : pl.getDf()); j++) {
-          System.out.print(String.format(" (%d, %d)", pl.getPostings(j).getDocid(), pl.getPostings(j).getTf()));
-        }
-        System.out.println(pl.getDf() > 10 ? " ..." : "");
-      }
+    System.out.println(String.format("Expecting %,d PostingsList and %,d DocRecords in this export.\n",
+        header.getNumPostingsLists(), header.getNumDocs()));
 
-      for (int j=0; j<pl.getDf(); j++) {
-        sumOfAllTfs += pl.getPostings(j).getTf();
-      }
-    }
+    System.out.println(String.format("Reading every PostingsList, dumping out every %,dth:", args.dumpInterval));
+    long sumOfAllTfs = args.threads > 1 ?
+        validatePostingsLists(reader, args.dumpInterval, args.threads) :
+        validatePostingsLists(reader, args.dumpInterval);
     System.out.println(String.format("%,d postings lists read\n", header.getNumPostingsLists()));
 
     System.out.println(String.format("Reading every DocRecord, dumping out every %,dth:", args.dumpInterval));
     long totalTermsInCollection = 0; // Should be sum of doclengths.
     for (int i=0; i<header.getNumDocs(); i++) {
-      CommonIndexFileFormat.DocRecord docRecord = CommonIndexFileFormat.DocRecord.parseDelimitedFrom(fileIn);
+      CommonIndexFileFormat.DocRecord docRecord = reader.nextDocRecord();
       if (i % args.dumpInterval == 0) {
         System.out.println(String.format(
             "%d\t%s\t%d", docRecord.getDocid(), docRecord.getCollectionDocid(), docRecord.getDoclength()));
@@ -126,6 +212,6 @@ public class ReadCIFF {
           header.getTotalTermsInCollection(), sumOfAllTfs));
     }
 
-    fileIn.close();
+    reader.close();
   }
 }
@@ -0,0 +1,84 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+/**
+ * BM25 scoring of postings as defined for the score bounds in CommonIndexFileFormat.proto (see
+ * {@code scoring_function}), with which a {@link CiffWriter} computes the max score of every postings list and of
+ * every block of postings, for importers that prune dynamically (e.g., WAND, MaxScore and block-max WAND). Scores are
+ * computed in double precision, raised by a relative margin, and rounded up to floats, so that the bounds also hold for
+ * engines that score in single precision, as Lucene does, whose scores can come out a few ulps higher.
+ */
+public final class ScoreBounds {
+  // The relative margin of the bounds, 2^-20, which is 8 ulps of a float.
+  private static final double MARGIN = 0x1p-20;
+
+  private final double k1;
+  private final double b;
+  private final long numDocs;
+  // The doclength normalization of every document, k1 * (1 - b + b * doclength / average_doclength), computed once
+  // rather than for every posting, or NaN for documents without a doclength.
+  private final double[] norms;
+
+  /**
+   * Creates BM25 scoring with the given parameters over a collection.
+   *
+   * @param k1 BM25 k1 parameter
+   * @param b BM25 b parameter
+   * @param numDocs number of documents in the collection, as in {@code total_docs} in the header
+   * @param averageDoclength average doclength, as in {@code average_doclength} in the header
+   * @param doclengths doclengths indexed by docid, as in the doc records
+   */
+  public ScoreBounds(double k1, double b, long numDocs, double averageDoclength, int[] doclengths) {
+    this.k1 = k1;
+    this.b = b;
+    this.numDocs = numDocs;
+    this.norms = new double[doclengths.length];
+    for (int i = 0; i < doclengths.length; i++) {
+      norms[i] = doclengths[i] < 0 ? Double.NaN : k1 * (1 - b + b * doclengths[i] / averageDoclength);
+    }
+  }
+
+  /**
+   * Sets the scoring function and its parameters in a header, which should otherwise match this collection.
+   */
+  public CommonIndexFileFormat.Header.Builder addTo(CommonIndexFileFormat.Header.Builder header) {
+    return header.setScoringFunction(CommonIndexFileFormatConstants.SCORING_FUNCTION_BM25)
+        .setBm25K1(k1)
+        .setBm25B(b);
+  }
+
+  double idf(long df) {
+    return Math.log(1 + (numDocs - df + 0.5) / (df + 0.5));
+  }
+
+  double score(double idf, int docid, int tf) {
+    double norm = norms[docid];
+    if (Double.isNaN(norm)) {
+      throw new IllegalArgumentException(String.format("No doclength for docid %d!", docid));
+    }
+    return idf * tf / (tf + norm);
+  }
+
+  // Turns the max score of some postings into a bound: raised by the margin, and rounded up to a float.
+  static float toBound(double score) {
+    double raised = score * (1 + MARGIN);
+    float rounded = (float) raised;
+    return rounded < raised ? Math.nextUp(rounded) : rounded;
+  }
+}
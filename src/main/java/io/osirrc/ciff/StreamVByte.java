@@ -0,0 +1,145 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Stream VByte, the codec of the blocks of postings in version 2 (see {@code postings_codec} in
+ * CommonIndexFileFormat.proto). A run of n values is encoded as (n + 3) / 4 control bytes, followed by the values
+ * themselves. Each control byte holds the byte lengths, minus one, of four values in two bits apiece, starting from the
+ * least significant bits, and each value takes one to four bytes, little endian. Since the lengths of the values are
+ * known from the control bytes alone, decoding doesn't branch on every byte as varint decoding does, and lends itself
+ * to SIMD shuffles in importers that have them. Here, values are decoded four at a time, each with a single
+ * little-endian load that is masked down to its length.
+ */
+public final class StreamVByte {
+  private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+  // Masks of the lowest one to four bytes, by the code in the control byte.
+  private static final int[] MASKS = {0xff, 0xffff, 0xffffff, 0xffffffff};
+  // Number of bytes taken by the four values described by each control byte.
+  private static final int[] DATA_LENGTHS = new int[256];
+
+  static {
+    for (int control = 0; control < 256; control++) {
+      for (int i = 0; i < 4; i++) {
+        DATA_LENGTHS[control] += ((control >>> (i << 1)) & 3) + 1;
+      }
+    }
+  }
+
+  private StreamVByte() {
+  }
+
+  /**
+   * Returns the maximum number of bytes that n encoded values take, control bytes included.
+   */
+  public static int maxEncodedLength(int n) {
+    return (n + 3) / 4 + 4 * n;
+  }
+
+  /**
+   * Encodes values, treating them as unsigned.
+   *
+   * @param values array holding the values
+   * @param offset offset of the first value in the array
+   * @param n number of values
+   * @param bytes array to encode the values into, which must have {@link #maxEncodedLength(int)} bytes left
+   * @param bytesOffset offset in the array to encode the values at
+   * @return the offset in the array right after the encoded values
+   */
+  public static int encode(int[] values, int offset, int n, byte[] bytes, int bytesOffset) {
+    int control = bytesOffset;
+    int data = bytesOffset + (n + 3) / 4;
+    Arrays.fill(bytes, control, data, (byte) 0);
+    for (int i = 0; i < n; i++) {
+      int value = values[offset + i];
+      int code = (value >>> 8) == 0 ? 0 : (value >>> 16) == 0 ? 1 : (value >>> 24) == 0 ? 2 : 3;
+      bytes[control + (i >> 2)] |= (byte) (code << ((i & 3) << 1));
+      for (int j = 0; j <= code; j++) {
+        bytes[data++] = (byte) (value >>> (j << 3));
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Returns the number of bytes that n encoded values take, control bytes included, as told by their control bytes.
+   * Decoders of untrusted input should check this against the number of bytes actually available before decoding.
+   *
+   * @param bytes array holding the encoded values, of which at least the control bytes must be available
+   * @param offset offset of the encoded values in the array
+   * @param n number of values
+   */
+  public static int encodedLength(byte[] bytes, int offset, int n) {
+    int controlLength = (n + 3) / 4;
+    int length = controlLength;
+    for (int i = 0; i < n >> 2; i++) {
+      length += DATA_LENGTHS[bytes[offset + i] & 0xff];
+    }
+    for (int i = n & ~3; i < n; i++) {
+      length += ((bytes[offset + (i >> 2)] >>> ((i & 3) << 1)) & 3) + 1;
+    }
+    return length;
+  }
+
+  /**
+   * Decodes values. The encoded values must be complete, see {@link #encodedLength(byte[], int, int)}.
+   *
+   * @param bytes array holding the encoded values
+   * @param offset offset of the encoded values in the array
+   * @param n number of values
+   * @param values array to decode the values into
+   * @param valuesOffset offset in the array to decode the values at
+   * @return the offset in the array of bytes right after the encoded values
+   */
+  public static int decode(byte[] bytes, int offset, int n, int[] values, int valuesOffset) {
+    int control = offset;
+    int data = offset + (n + 3) / 4;
+    int i = 0;
+    // Loads may read up to three bytes beyond the last value, which are masked off, as long as they are in the array.
+    int fastLimit = bytes.length - 16;
+    for (; i < (n & ~3) && data <= fastLimit; i += 4) {
+      int codes = bytes[control + (i >> 2)];
+      int code = codes & 3;
+      values[valuesOffset + i] = (int) INT_LE.get(bytes, data) & MASKS[code];
+      data += code + 1;
+      code = (codes >>> 2) & 3;
+      values[valuesOffset + i + 1] = (int) INT_LE.get(bytes, data) & MASKS[code];
+      data += code + 1;
+      code = (codes >>> 4) & 3;
+      values[valuesOffset + i + 2] = (int) INT_LE.get(bytes, data) & MASKS[code];
+      data += code + 1;
+      code = (codes >>> 6) & 3;
+      values[valuesOffset + i + 3] = (int) INT_LE.get(bytes, data) & MASKS[code];
+      data += code + 1;
+    }
+    for (; i < n; i++) {
+      int code = (bytes[control + (i >> 2)] >>> ((i & 3) << 1)) & 3;
+      int value = 0;
+      for (int j = 0; j <= code; j++) {
+        value |= (bytes[data++] & 0xff) << (j << 3);
+      }
+      values[valuesOffset + i] = value;
+    }
+    return data;
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.ByteString;
+import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+import org.kohsuke.args4j.OptionHandlerFilter;
+import org.kohsuke.args4j.ParserProperties;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Streaming verifier for the structure of a CIFF file, to catch corrupt exports before they are imported. On top of the
+ * checks of {@link ReadCIFF}, it checks that terms are sorted and unique, that docids are strictly increasing and in
+ * range, that tfs are positive and add up to the cf, that doc records are dense, and that the header statistics are
+ * consistent with the postings and doc records, as is the footer, if any, along with its checksums. Score bounds, if
+ * any, are checked for consistency with the tfs and with each other, though not against the doclengths, which only
+ * come after the postings. Memory use is bounded by the largest single message, i.e., the longest postings list or the
+ * footer, rather than by the size of the file.
+ */
+public class VerifyCIFF {
+  public static class Args {
+    @Option(name = "-input", metaVar = "[file]", required = true, usage = "postings file")
+    public String input = "";
+
+    @Option(name = "-maxViolations", metaVar = "[num]", usage = "number of violations to report")
+    public int maxViolations = 10;
+  }
+
+  private final int maxViolations;
+  private long violations;
+
+  private VerifyCIFF(int maxViolations) {
+    this.maxViolations = maxViolations;
+  }
+
+  // Reports a violation at an offset in the (uncompressed) file, as long as fewer than maxViolations were reported.
+  private void violation(long offset, String format, Object... args) {
+    violations++;
+    if (violations <= maxViolations) {
+      System.out.println(String.format("offset %,d: ", offset) + String.format(format, args));
+    }
+  }
+
+  // Opens the file, reporting a header, footer or trailer that can't be read as a violation rather than failing. Only
+  // readers that can seek read the footer, so a file whose footer or trailer can't be read is still verified, through a
+  // reader that doesn't. Returns null if the header can't be read.
+  private CiffReader open(String path) throws IOException {
+    try {
+      return CiffReader.openFastest(path);
+    } catch (FileNotFoundException | NoSuchFileException e) {
+      throw e;
+    } catch (IOException e) {
+      CiffReader reader;
+      try {
+        reader = CiffReader.open(path);
+      } catch (IOException headerException) {
+        violation(0, "Header can't be read: %s", headerException.getMessage());
+        return null;
+      }
+      violation(Files.size(Paths.get(path)) - CommonIndexFileFormatConstants.TRAILER_SIZE,
+          "Footer or trailer can't be read: %s", e.getMessage());
+      return reader;
+    }
+  }
+
+  private void verify(CiffReader reader) throws IOException {
+    CommonIndexFileFormat.Header header = reader.getHeader();
+    int numDocs = header.getNumDocs();
+    if (header.getNumPostingsLists() < 0 || header.getNumDocs() < 0) {
+      violation(0, "negative num_postings_lists %,d or num_docs %,d in Header",
+          header.getNumPostingsLists(), header.getNumDocs());
+      return;
+    }
+    if (header.getTotalPostingsLists() < header.getNumPostingsLists()) {
+      violation(0, "total_postings_lists %,d in Header is less than num_postings_lists %,d",
+          header.getTotalPostingsLists(), header.getNumPostingsLists());
+    }
+    if (header.getTotalDocs() < header.getNumDocs()) {
+      violation(0, "total_docs %,d in Header is less than num_docs %,d", header.getTotalDocs(), header.getNumDocs());
+    }
+    boolean scoreBounds = !header.getScoringFunction().isEmpty();
+    if (scoreBounds && !header.getScoringFunction().equals(CommonIndexFileFormatConstants.SCORING_FUNCTION_BM25)) {
+      violation(0, "unknown scoring_function '%s' in Header", header.getScoringFunction());
+    }
+
+    // Only readers of uncompressed files see the footer.
+    CommonIndexFileFormat.Footer footer = reader.getFooter();
+    int interval = footer != null ? footer.getTermSampleInterval() : 0;
+    if (footer != null && footer.getPostingsListsOffset() != reader.getOffset()) {
+      violation(reader.getOffset(), "postings_lists_offset %,d in Footer differs from the actual offset",
+          footer.getPostingsListsOffset());
+    }
+
+    if (footer != null && footer.getChecksumsCount() > 0) {
+      System.out.println(String.format("Verifying %,d checksums...", footer.getChecksumsCount()));
+      for (int block : reader.verifyChecksums(1)) {
+        violation((long) block * footer.getChecksumBlockSize(), "checksum of block %,d of %,d bytes doesn't match",
+            block, footer.getChecksumBlockSize());
+      }
+    }
+
+    System.out.println(String.format("Verifying %,d postings lists...", header.getNumPostingsLists()));
+    PostingsListBuffer pl = new PostingsListBuffer();
+    byte[] prevTerm = null;
+    long sumOfDfs = 0;
+    long sumOfTfs = 0;
+    for (int i = 0; i < header.getNumPostingsLists(); i++) {
+      long offset = reader.getOffset();
+      try {
+        reader.nextPostingsList(pl);
+      } catch (IOException e) {
+        // A malformed message leaves nothing to resynchronize on.
+        violation(offset, "postings list %,d is malformed: %s", i, e.getMessage());
+        return;
+      }
+
+      String term = pl.getTerm();
+      byte[] termBytes = pl.getTermBytes();
+      if (interval > 0 && i % interval == 0 && i / interval < footer.getSampledTermsCount()) {
+        int sample = i / interval;
+        if (!footer.getSampledTermsBytes(sample).equals(ByteString.copyFrom(termBytes))
+            || footer.getSampledOffsets(sample) != offset) {
+          violation(offset, "sampled term '%s' at offset %,d in Footer differs from term '%s' of postings list %,d",
+              footer.getSampledTerms(sample), footer.getSampledOffsets(sample), term, i);
+        }
+      }
+      if (prevTerm != null && Arrays.compareUnsigned(prevTerm, termBytes) >= 0) {
+        violation(offset, "term '%s' %s previous term '%s'", term,
+            Arrays.equals(prevTerm, termBytes) ? "duplicates" : "is not sorted after",
+            new String(prevTerm, StandardCharsets.UTF_8));
+      }
+      prevTerm = termBytes;
+
+      if (pl.getDf() != pl.size()) {
+        violation(offset, "term '%s' has df %,d but %,d postings", term, pl.getDf(), pl.size());
+      }
+      if (pl.size() == 0) {
+        violation(offset, "term '%s' has no postings", term);
+      }
+
+      int[] docids = pl.getDocids();
+      int[] tfs = pl.getTfs();
+      long cf = 0;
+      int maxTf = 0;
+      for (int j = 0; j < pl.size(); j++) {
+        if (docids[j] < 0 || docids[j] >= numDocs) {
+          violation(offset, "term '%s' has docid %,d at posting %,d, outside of [0, %,d)", term, docids[j], j, numDocs);
+        } else if (j > 0 && docids[j] <= docids[j - 1]) {
+          violation(offset, "term '%s' has docid %,d at posting %,d, not after the previous docid %,d",
+              term, docids[j], j, docids[j - 1]);
+        }
+        if (tfs[j] <= 0) {
+          violation(offset, "term '%s' has tf %,d at posting %,d", term, tfs[j], j);
+        }
+        cf += tfs[j];
+        maxTf = Math.max(maxTf, tfs[j]);
+      }
+      if (pl.getCf() != cf) {
+        violation(offset, "term '%s' has cf %,d but its tfs add up to %,d", term, pl.getCf(), cf);
+      }
+      if (scoreBounds) {
+        verifyScoreBounds(offset, pl, maxTf);
+      } else if (pl.getMaxTf() != 0 || pl.getMaxScore() != 0 || pl.getNumBlockMaxScores() != 0) {
+        violation(offset, "term '%s' has score bounds, but there's no scoring_function in Header", term);
+      }
+
+      sumOfDfs += pl.size();
+      sumOfTfs += cf;
+    }
+
+    // Each posting stands for at least one term occurrence in a distinct (term, doc) pair.
+    long offset = reader.getOffset();
+    if (footer != null) {
+      int numSamples = interval > 0 ? (header.getNumPostingsLists() + interval - 1) / interval : 0;
+      if (footer.getSampledTermsCount() != numSamples || footer.getSampledOffsetsCount() != numSamples) {
+        violation(offset, "Footer has %,d sampled terms and %,d sampled offsets rather than %,d",
+            footer.getSampledTermsCount(), footer.getSampledOffsetsCount(), numSamples);
+      }
+      if (footer.getDocRecordsOffset() != offset) {
+        violation(offset, "doc_records_offset %,d in Footer differs from the actual offset",
+            footer.getDocRecordsOffset());
+      }
+    }
+    if (sumOfDfs > (long) numDocs * header.getNumPostingsLists() || sumOfDfs > sumOfTfs) {
+      violation(offset, "sum of dfs %,d is implausible for %,d docs, %,d terms and %,d term occurrences",
+          sumOfDfs, numDocs, header.getNumPostingsLists(), sumOfTfs);
+    }
+    // Exports of a subset of the terms, e.g., only the query terms, hold a subset of the term occurrences.
+    boolean allTerms = header.getNumPostingsLists() == header.getTotalPostingsLists();
+    if (allTerms ? sumOfTfs != header.getTotalTermsInCollection() : sumOfTfs > header.getTotalTermsInCollection()) {
+      violation(offset, "sum of all tfs %,d %s total_terms_in_collection %,d in Header",
+          sumOfTfs, allTerms ? "differs from" : "exceeds", header.getTotalTermsInCollection());
+    }
+
+    System.out.println(String.format("Verifying %,d doc records...", numDocs));
+    long sumOfDoclengths = 0;
+    for (int i = 0; i < numDocs; i++) {
+      offset = reader.getOffset();
+      CommonIndexFileFormat.DocRecord docRecord;
+      try {
+        docRecord = reader.nextDocRecord();
+      } catch (IOException e) {
+        violation(offset, "doc record %,d is malformed: %s", i, e.getMessage());
+        return;
+      }
+
+      if (docRecord.getDocid() != i) {
+        violation(offset, "doc record %,d has docid %,d", i, docRecord.getDocid());
+      }
+      if (docRecord.getDoclength() < 0) {
+        violation(offset, "doc record %,d has doclength %,d", i, docRecord.getDoclength());
+      }
+      sumOfDoclengths += docRecord.getDoclength();
+    }
+
+    offset = reader.getOffset();
+    // Doclengths derived from Lucene norms are lossy, so they only add up for exports with exact doclengths.
+    if (sumOfDoclengths != header.getTotalTermsInCollection()) {
+      System.out.println(String.format("Note: sum of doclengths %,d differs from total_terms_in_collection %,d in " +
+          "Header, as expected if the doclengths were derived from Lucene norms", sumOfDoclengths,
+          header.getTotalTermsInCollection()));
+    }
+    double averageDoclength = numDocs == 0 ? 0 : (double) header.getTotalTermsInCollection() / numDocs;
+    if (Math.abs(header.getAverageDoclength() - averageDoclength) > 1e-6 * Math.max(1, averageDoclength)) {
+      violation(offset, "average_doclength %f in Header differs from total_terms_in_collection / num_docs = %f",
+          header.getAverageDoclength(), averageDoclength);
+    }
+  }
+
+  // Checks that the score bounds of a postings list match its max tf and its number of blocks, and each other.
+  private void verifyScoreBounds(long offset, PostingsListBuffer pl, int maxTf) {
+    String term = pl.getTerm();
+    if (pl.getMaxTf() != maxTf) {
+      violation(offset, "term '%s' has max_tf %,d but its max tf is %,d", term, pl.getMaxTf(), maxTf);
+    }
+    int blockSize = CommonIndexFileFormatConstants.BLOCK_SIZE;
+    int numBlocks = (pl.size() + blockSize - 1) / blockSize;
+    if (pl.getNumBlockMaxScores() != numBlocks) {
+      violation(offset, "term '%s' has %,d block_max_scores for %,d blocks of postings", term,
+          pl.getNumBlockMaxScores(), numBlocks);
+    }
+    float maxScore = 0;
+    for (int j = 0; j < pl.getNumBlockMaxScores(); j++) {
+      float blockMaxScore = pl.getBlockMaxScores()[j];
+      if (!(blockMaxScore > 0) || Float.isInfinite(blockMaxScore)) {
+        violation(offset, "term '%s' has block max score %f for block %,d", term, blockMaxScore, j);
+      }
+      maxScore = Math.max(maxScore, blockMaxScore);
+    }
+    if (pl.getMaxScore() != maxScore) {
+      violation(offset, "term '%s' has max_score %f but its max block max score is %f", term, pl.getMaxScore(),
+          maxScore);
+    }
+  }
+
+  public static void main(String[] argv) throws Exception {
+    Args args = new Args();
+    CmdLineParser parser = new CmdLineParser(args, ParserProperties.defaults().withUsageWidth(90));
+
+    try {
+      parser.parseArgument(argv);
+    } catch (CmdLineException e) {
+      System.err.println(e.getMessage());
+      parser.printUsage(System.err);
+      System.err.println("Example: VerifyCIFF " + parser.printExample(OptionHandlerFilter.REQUIRED));
+      return;
+    }
+
+    VerifyCIFF verifier = new VerifyCIFF(args.maxViolations);
+    CiffReader reader = verifier.open(args.input);
+    if (reader != null) {
+      try (reader) {
+        verifier.verify(reader);
+      }
+    }
+
+    if (verifier.violations == 0) {
+      System.out.println("[PASSED] No violations found");
+    } else {
+      System.out.println(String.format("[FAILED] %,d violations found%s", verifier.violations,
+          verifier.violations > args.maxViolations ?
+              String.format(", the first %,d reported", args.maxViolations) : ""));
+    }
+  }
+}
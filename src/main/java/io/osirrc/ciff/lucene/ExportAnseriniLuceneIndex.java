@@ -17,18 +17,29 @@
 
 package io.osirrc.ciff.lucene;
 
+import io.osirrc.ciff.ChecksumOutputStream;
+import io.osirrc.ciff.CiffCodec;
+import io.osirrc.ciff.CiffWriter;
+import io.osirrc.ciff.CommonIndexFileFormat;
 import io.osirrc.ciff.CommonIndexFileFormatConstants;
+import io.osirrc.ciff.CountingOutputStream;
+import io.osirrc.ciff.OrderedExecutor;
+import io.osirrc.ciff.ScoreBounds;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiTerms;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.PostingsEnum;
-import org.apache.lucene.index.Term;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.SmallFloat;
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
@@ -36,23 +47,24 @@ import org.kohsuke.args4j.Option;
 import org.kohsuke.args4j.OptionHandlerFilter;
 import org.kohsuke.args4j.ParserProperties;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.FileOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Callable;
 
-import static io.osirrc.ciff.CommonIndexFileFormat.DocRecord;
 import static io.osirrc.ciff.CommonIndexFileFormat.Header;
-import static io.osirrc.ciff.CommonIndexFileFormat.Posting;
-import static io.osirrc.ciff.CommonIndexFileFormat.PostingsList;
-import static io.osirrc.ciff.CommonIndexFileFormat.PostingsListOrBuilder;
 
 public class ExportAnseriniLuceneIndex {
   public static class Args {
@@ -75,34 +87,432 @@ public class ExportAnseriniLuceneIndex {
     @Option(name = "-docidField", metaVar = "[field name]",
         usage = "name of the field in the Lucene index that holds the docid")
     public String docidsField = "id";
+
+    @Option(name = "-threads", metaVar = "[num]",
+        usage = "number of threads used to encode postings lists and doc records; the output is identical regardless")
+    public int threads = 1;
+
+    @Option(name = "-compressionThreads", metaVar = "[num]",
+        usage = "number of threads used to compress the output (gzip and zstd)")
+    public int compressionThreads = 1;
+
+    @Option(name = "-writeBehind", usage = "write the output to disk on a background thread")
+    public boolean writeBehind = false;
+
+    @Option(name = "-exactDoclengths",
+        usage = "compute exact doclengths from the postings, rather than decoding the lossy norms")
+    public boolean exactDoclengths = false;
+
+    @Option(name = "-version", metaVar = "[num]",
+        usage = "CIFF version to write: 1, or 2 to store postings in packed arrays, which are smaller and faster")
+    public int version = CommonIndexFileFormatConstants.VERSION_1;
+
+    @Option(name = "-postingsCodec", metaVar = "[codec]",
+        usage = "with -version 2, store postings in blocks of 128 compressed with this codec: streamvbyte")
+    public String postingsCodec = "";
+
+    @Option(name = "-footer",
+        usage = "end the output with a footer holding the offsets of the sections and of a sample of the terms, " +
+            "and checksums")
+    public boolean footer = false;
+
+    @Option(name = "-scoreBounds",
+        usage = "store the max tf, the max BM25 score, and the max BM25 score of every 128 postings of every term, " +
+            "for dynamic pruning")
+    public boolean scoreBounds = false;
+
+    @Option(name = "-k1", metaVar = "[value]", usage = "BM25 k1 parameter of the score bounds")
+    public double k1 = CommonIndexFileFormatConstants.BM25_K1;
+
+    @Option(name = "-b", metaVar = "[value]", usage = "BM25 b parameter of the score bounds")
+    public double b = CommonIndexFileFormatConstants.BM25_B;
+  }
+
+  // Batches of the parallel path are bounded by postings too, so that batches of frequent terms don't hog memory.
+  private static final int MAX_BATCH_TERMS = 4096;
+  private static final long MAX_BATCH_POSTINGS = 4 * 1024 * 1024;
+
+  private static final int SPOOL_BUFFER_SIZE = 1024 * 1024;
+
+  private static final int MISSING_DOCLENGTH = -1;
+
+  private static final int DOC_RECORDS_CHUNK_SIZE = 16384;
+
+  // Returns the terms of all segments merged, as if the index had been force-merged into one segment.
+  public static Terms getTerms(IndexReader reader, String field) throws IOException {
+    Terms terms = MultiTerms.getTerms(reader, field);
+    if (terms == null) {
+      throw new RuntimeException(String.format("Field '%s' does not exist or is not indexed!", field));
+    }
+
+    return terms;
+  }
+
+  // Writes the postings list of the term the TermsEnum is on, adding the tfs to the doclengths, if given.
+  public static PostingsEnum writePostingsList(TermsEnum termsEnum, PostingsEnum reuse, CiffWriter writer,
+                                               int[] doclengths) throws IOException {
+    BytesRef bytesRef = termsEnum.term();
+    long df = termsEnum.docFreq();
+    long cf = termsEnum.totalTermFreq();
+
+    writer.startPostingsList(bytesRef.bytes, bytesRef.offset, bytesRef.length, df, cf);
+    PostingsEnum postingsEnum = termsEnum.postings(reuse, PostingsEnum.FREQS);
+    while (postingsEnum.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+      // The writer takes care of gap (i.e., delta) encoding.
+      writer.addPosting(postingsEnum.docID(), postingsEnum.freq());
+      if (doclengths != null) {
+        doclengths[postingsEnum.docID()] += postingsEnum.freq();
+      }
+    }
+
+    // The number of postings written should be the same as the df.
+    if (writer.getNumPostings() != df) {
+      throw new RuntimeException(String.format("Unexpected number of postings! expected %d got %d",
+          df, writer.getNumPostings()));
+    }
+
+    writer.finishPostingsList();
+    return postingsEnum;
   }
 
-  public static Counts countPostingsLists(IndexReader reader, String field, Set<String> terms) throws IOException {
+  // Writes the postings lists of all terms, in batches encoded in parallel with more than one thread.
+  public static Counts writePostingsLists(IndexReader reader, String field, int threads, int[] doclengths,
+                                          int version, String postingsCodec, ScoreBounds scoreBounds,
+                                          OutputStream out) throws Exception {
     Counts counts = new Counts();
+    long[] written = new long[1];
+    // Every worker adds up doclengths of its own, which are summed at the end.
+    List<int[]> workerDoclengths = new ArrayList<>();
+    ThreadLocal<int[]> doclengthsOfWorker = doclengths == null ? null : ThreadLocal.withInitial(() -> {
+      synchronized (workerDoclengths) {
+        workerDoclengths.add(new int[doclengths.length]);
+        return workerDoclengths.get(workerDoclengths.size() - 1);
+      }
+    });
+    OrderedExecutor<Batch> executor = threads > 1 ? new OrderedExecutor<>(threads, batch -> {
+      batch.writer.addTermSamples(counts.termSamples, written[0]);
+      written[0] += batch.encoded.size();
+      batch.encoded.writeTo(out);
+      for (int i = 0; i < batch.size; i++) {
+        counts.export++;
+        if (counts.export % 100000 == 0) {
+          System.out.println("Wrote " + counts.export + " postings lists...");
+        }
+      }
+    }) : null;
 
-    LeafReader leafReader = reader.leaves().get(0).reader();
-    TermsEnum termsEnum = leafReader.terms(field).iterator();
-    BytesRef bytesRef = termsEnum.next();
-    while (bytesRef != null) {
-      // This is the current term in the dictionary.
-      String token = bytesRef.utf8ToString();
-      counts.total++;
+    CiffWriter writer = new CiffWriter(out, version, postingsCodec);
+    writer.sampleTerms(CommonIndexFileFormatConstants.TERM_SAMPLE_INTERVAL, 0);
+    writer.scoreBounds(scoreBounds);
+    try {
+      BytesRef batchFirst = null;
+      int batchFirstOrdinal = 0;
+      BytesRefBuilder batchLast = new BytesRefBuilder();
+      int batchSize = 0;
+      long batchPostings = 0;
+
+      PostingsEnum postingsEnum = null;
+      TermsEnum termsEnum = getTerms(reader, field).iterator();
+      BytesRef bytesRef = termsEnum.next();
+      while (bytesRef != null) {
+        counts.total++;
+        if (executor == null) {
+          postingsEnum = writePostingsList(termsEnum, postingsEnum, writer, doclengths);
+          counts.export++;
+          if (counts.export % 100000 == 0) {
+            System.out.println("Wrote " + counts.export + " postings lists...");
+          }
+        } else {
+          if (batchFirst == null) {
+            batchFirst = BytesRef.deepCopyOf(bytesRef);
+            batchFirstOrdinal = counts.total - 1;
+          }
+          batchLast.copyBytes(bytesRef);
+          batchSize++;
+          batchPostings += termsEnum.docFreq();
+          if (batchSize >= MAX_BATCH_TERMS || batchPostings >= MAX_BATCH_POSTINGS) {
+            executor.submit(encodePostingsLists(reader, field, batchFirst, batchFirstOrdinal, batchLast.toBytesRef(),
+                batchSize, doclengthsOfWorker, version, postingsCodec, scoreBounds));
+            batchFirst = null;
+            batchSize = 0;
+            batchPostings = 0;
+          }
+        }
 
-      if (terms != null && !terms.contains(token)) {
         bytesRef = termsEnum.next();
-        continue;
       }
 
-      bytesRef = termsEnum.next();
-      counts.export++;
+      if (executor != null) {
+        if (batchFirst != null) {
+          executor.submit(encodePostingsLists(reader, field, batchFirst, batchFirstOrdinal, batchLast.toBytesRef(),
+              batchSize, doclengthsOfWorker, version, postingsCodec, scoreBounds));
+        }
+        executor.finish();
+        synchronized (workerDoclengths) {
+          for (int[] table : workerDoclengths) {
+            for (int i = 0; i < table.length; i++) {
+              doclengths[i] += table[i];
+            }
+          }
+        }
+      } else {
+        writer.addTermSamples(counts.termSamples, 0);
+      }
+      writer.flush();
+    } finally {
+      if (executor != null) {
+        executor.close();
+      }
     }
 
     return counts;
   }
 
+  // Encodes the postings lists of the terms from first to last, inclusive, given the ordinal of the first term.
+  private static Callable<Batch> encodePostingsLists(IndexReader reader, String field, BytesRef first,
+                                                     int firstOrdinal, BytesRef last, int size,
+                                                     ThreadLocal<int[]> doclengths, int version, String postingsCodec,
+                                                     ScoreBounds scoreBounds) {
+    return () -> {
+      Batch batch = new Batch(size);
+      CiffWriter writer = new CiffWriter(batch.encoded, version, postingsCodec);
+      writer.sampleTerms(CommonIndexFileFormatConstants.TERM_SAMPLE_INTERVAL, firstOrdinal);
+      writer.scoreBounds(scoreBounds);
+      batch.writer = writer;
+      PostingsEnum postingsEnum = null;
+      TermsEnum termsEnum = getTerms(reader, field).iterator();
+      if (termsEnum.seekCeil(first) != TermsEnum.SeekStatus.FOUND) {
+        throw new RuntimeException(String.format("Term '%s' not found!", first.utf8ToString()));
+      }
+
+      BytesRef bytesRef = termsEnum.term();
+      while (true) {
+        postingsEnum = writePostingsList(termsEnum, postingsEnum, writer, doclengths == null ? null : doclengths.get());
+        if (bytesRef.equals(last)) {
+          break;
+        }
+        bytesRef = termsEnum.next();
+      }
+      writer.flush();
+      return batch;
+    };
+  }
+
+  // Writes the postings lists of the specified terms that exist in the terms dictionary. The terms must be sorted, so
+  // that the postings lists come out in term order, just as in a complete export.
+  public static Counts writePostingsLists(Terms contents, List<BytesRef> sortedTerms, int version,
+                                          String postingsCodec, ScoreBounds scoreBounds, OutputStream out)
+      throws IOException {
+    Counts counts = new Counts();
+    CiffWriter writer = new CiffWriter(out, version, postingsCodec);
+    writer.sampleTerms(CommonIndexFileFormatConstants.TERM_SAMPLE_INTERVAL, 0);
+    writer.scoreBounds(scoreBounds);
+    PostingsEnum postingsEnum = null;
+    TermsEnum termsEnum = contents.iterator();
+    for (BytesRef term : sortedTerms) {
+      if (termsEnum.seekExact(term)) {
+        postingsEnum = writePostingsList(termsEnum, postingsEnum, writer, null);
+        counts.export++;
+      }
+    }
+    writer.addTermSamples(counts.termSamples, 0);
+    writer.flush();
+
+    return counts;
+  }
+
+  // Counts how many of the specified terms exist in the terms dictionary.
+  public static int countTerms(Terms contents, List<BytesRef> terms) throws IOException {
+    int count = 0;
+    TermsEnum termsEnum = contents.iterator();
+    for (BytesRef term : terms) {
+      if (termsEnum.seekExact(term)) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  // Returns the vocabulary size. Only a terms dictionary that spans multiple segments doesn't know its own size, in
+  // which case we have to walk it (but not the postings) to count the unique terms.
+  public static int countVocabulary(Terms contents) throws IOException {
+    if (contents.size() != -1) {
+      return (int) contents.size();
+    }
+
+    System.out.println("Taking a pass through the terms dictionary to count the vocabulary size...");
+    int count = 0;
+    TermsEnum termsEnum = contents.iterator();
+    while (termsEnum.next() != null) {
+      count++;
+    }
+
+    return count;
+  }
+
+  // Writes the doc records: (docid, collection docid, doclength), in chunks encoded in parallel with many threads.
+  public static void writeDocRecords(IndexReader reader, String docidField, int[] doclengths, int threads,
+                                     OutputStream out) throws Exception {
+    int[] written = new int[1];
+    OrderedExecutor<Batch> executor = threads > 1 ? new OrderedExecutor<>(threads, batch -> {
+      batch.encoded.writeTo(out);
+      written[0] = reportDocRecords(written[0], batch.size);
+    }) : null;
+
+    try {
+      for (int start = 0; start < reader.maxDoc(); start += DOC_RECORDS_CHUNK_SIZE) {
+        int from = start;
+        int to = Math.min(start + DOC_RECORDS_CHUNK_SIZE, reader.maxDoc());
+        if (executor == null) {
+          encodeDocRecords(reader, docidField, doclengths, from, to, out);
+          written[0] = reportDocRecords(written[0], to - from);
+        } else {
+          executor.submit(() -> {
+            Batch batch = new Batch(to - from);
+            encodeDocRecords(reader, docidField, doclengths, from, to, batch.encoded);
+            return batch;
+          });
+        }
+      }
+
+      if (executor != null) {
+        executor.finish();
+      }
+    } finally {
+      if (executor != null) {
+        executor.close();
+      }
+    }
+  }
+
+  private static int reportDocRecords(int written, int size) {
+    for (int i = written + 1; i <= written + size; i++) {
+      if (i % 100000 == 0) {
+        System.out.println("Wrote " + i + " doc records...");
+      }
+    }
+    return written + size;
+  }
+
+  private static void encodeDocRecords(IndexReader reader, String docidField, int[] doclengths, int from, int to,
+                                       OutputStream out) throws IOException {
+    // StoredFields instances aren't thread-safe, so each chunk gets its own.
+    StoredFields storedFields = reader.storedFields();
+    DocidVisitor visitor = new DocidVisitor(docidField);
+    CiffWriter writer = new CiffWriter(out);
+    for (int i = from; i < to; i++) {
+      if (doclengths[i] == MISSING_DOCLENGTH) {
+        throw new RuntimeException(String.format("Norm doesn't exist for docid %d!", i));
+      }
+
+      visitor.docid = null;
+      storedFields.document(i, visitor);
+      if (visitor.docid == null) {
+        throw new RuntimeException(String.format("Field '%s' doesn't exist for docid %d!", docidField, i));
+      }
+
+      writer.writeDocRecord(i, visitor.docid, doclengths[i]);
+    }
+    writer.flush();
+  }
+
+  // Only decodes the docid field, and stops visiting the document as soon as it has been seen.
+  private static class DocidVisitor extends StoredFieldVisitor {
+    final String field;
+    String docid;
+
+    DocidVisitor(String field) {
+      this.field = field;
+    }
+
+    @Override
+    public Status needsField(FieldInfo fieldInfo) {
+      if (docid != null) {
+        return Status.STOP;
+      }
+      return fieldInfo.name.equals(field) ? Status.YES : Status.NO;
+    }
+
+    @Override
+    public void stringField(FieldInfo fieldInfo, String value) {
+      docid = value;
+    }
+  }
+
+  // The encoded output of a batch of postings lists or doc records, and the number of messages in it.
+  private static class Batch {
+    final int size;
+    final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    CiffWriter writer;
+
+    Batch(int size) {
+      this.size = size;
+    }
+  }
+
+  public static void writeHeader(IndexReader reader, Args args, Counts counts, ScoreBounds scoreBounds,
+                                 OutputStream out) throws IOException {
+    Header.Builder header = Header.newBuilder()
+        .setVersion(args.version)
+        .setNumPostingsLists(counts.export)
+        .setNumDocs(reader.maxDoc())   // We're exporting all docs.
+        .setTotalPostingsLists(counts.total)
+        .setTotalDocs(reader.maxDoc())
+        .setTotalTermsInCollection(reader.getSumTotalTermFreq(args.contentsField))
+        .setAverageDoclength((double) reader.getSumTotalTermFreq(args.contentsField) / reader.maxDoc())
+        .setDescription(args.description)
+        .setPostingsCodec(args.postingsCodec);
+    if (scoreBounds != null) {
+      scoreBounds.addTo(header);
+    }
+    header.build().writeDelimitedTo(out);
+  }
+
+  // Writes the footer, followed by the trailer that points to it.
+  public static void writeFooter(Counts counts, long postingsListsOffset, long docRecordsOffset,
+                                 ChecksumOutputStream out) throws IOException {
+    CommonIndexFileFormat.Footer.Builder footer = CommonIndexFileFormat.Footer.newBuilder()
+        .setPostingsListsOffset(postingsListsOffset)
+        .setDocRecordsOffset(docRecordsOffset)
+        .setTermSampleInterval(counts.termSamples.getTermSampleInterval());
+    for (int i = 0; i < counts.termSamples.getSampledTermsCount(); i++) {
+      footer.addSampledTermsBytes(counts.termSamples.getSampledTermsBytes(i));
+      footer.addSampledOffsets(postingsListsOffset + counts.termSamples.getSampledOffsets(i));
+    }
+    footer.setChecksumBlockSize(out.getBlockSize());
+    for (int checksum : out.getChecksums()) {
+      footer.addChecksums(checksum);
+    }
+
+    CiffWriter writer = new CiffWriter(out);
+    writer.writeFooter(footer.build(), out.getCount());
+    writer.flush();
+  }
+
+  // Decodes the doclengths from the norms, with MISSING_DOCLENGTH for documents without a norm.
+  public static int[] readDoclengths(IndexReader reader, String field) throws IOException {
+    int[] doclengths = new int[reader.maxDoc()];
+    Arrays.fill(doclengths, MISSING_DOCLENGTH);
+
+    for (LeafReaderContext context : reader.leaves()) {
+      NumericDocValues docValues = context.reader().getNormValues(field);
+      if (docValues == null) {
+        continue;
+      }
+      while (docValues.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+        doclengths[docValues.docID() + context.docBase] = SmallFloat.byte4ToInt((byte) docValues.longValue());
+      }
+    }
+
+    return doclengths;
+  }
+
   public static class Counts {
     int export = 0;
     int total = 0;
+    // Sampled terms, with offsets relative to the first postings list.
+    final CommonIndexFileFormat.Footer.Builder termSamples = CommonIndexFileFormat.Footer.newBuilder();
   }
 
   public static void main(String[] argv) throws Exception {
@@ -119,136 +529,155 @@ public class ExportAnseriniLuceneIndex {
     }
 
     // If specified, load the query terms
-    Set<String> terms = null;
+    Set<BytesRef> terms = null;
     if (args.termsFile != null) {
       terms = new HashSet<>();
       BufferedReader reader = new BufferedReader(new FileReader(args.termsFile));
       String line = reader.readLine();
       while (line != null) {
         line = line.strip();
-        terms.add(line);
+        terms.add(new BytesRef(line));
         line = reader.readLine();
       }
       reader.close();
       System.out.println(String.format("Loaded termsFile, only dumping postings for %d specified terms.", terms.size()));
     }
 
-    IndexReader reader = DirectoryReader.open(FSDirectory.open(Paths.get(args.index)));
-
-    if (reader.leaves().size() != 1) {
-      throw new RuntimeException("There should be only one leaf, index the collection using the -optimize flag");
+    // Arguments are all checked before the output is created, so that a rejected invocation doesn't truncate it.
+    CiffWriter.checkFormat(args.version, args.postingsCodec);
+    if (args.exactDoclengths && args.termsFile != null) {
+      throw new RuntimeException("Exact doclengths require a complete export, they can't be used with -termsFile");
+    }
+    if (args.scoreBounds && args.exactDoclengths) {
+      throw new RuntimeException("Score bounds are computed from the norms, they can't be used with -exactDoclengths");
     }
 
-    OutputStream fileOut;
-    if (args.output.endsWith(".gz")) {
-      System.out.println("Inferred from filename suffix to write gzip compressed output...");
-      fileOut = new GZIPOutputStream(new FileOutputStream(args.output));
-    } else {
-      fileOut = new FileOutputStream(args.output);
+    IndexReader reader = DirectoryReader.open(FSDirectory.open(Paths.get(args.index)));
+    // Neither the postings nor the term statistics nor the doc records would leave out deleted documents.
+    if (reader.hasDeletions()) {
+      int numDeletedDocs = reader.numDeletedDocs();
+      reader.close();
+      throw new RuntimeException(String.format("Index has %d deleted documents, which would end up in the export! " +
+          "Merge it down to a single segment with the deletions expunged first, e.g., with -optimize in Anserini",
+          numDeletedDocs));
+    }
+    if (reader.leaves().size() > 1) {
+      System.out.println(String.format("Index has %d segments, merging them on the fly...", reader.leaves().size()));
     }
 
-    // Go through the index once to count the number of postings lists we're going to export and the vocab size.
-    // We need this value to populate the header.
-    System.out.println("Taking a pass through the index to count the number of postings in the index...");
-    Counts counts = countPostingsLists(reader, args.contentsField, terms);
-    System.out.println(String.format("Exporting %d postings lists out of %d total",
-        counts.export, counts.total));
-
-    // Write the header.
-    System.out.println("Writing the header...");
-    Header.newBuilder()
-        .setVersion(CommonIndexFileFormatConstants.VERSION)
-        .setNumPostingsLists(counts.export)
-        .setNumDocs(reader.maxDoc())   // We're exporting all docs.
-        .setTotalPostingsLists(counts.total)
-        .setTotalDocs(reader.maxDoc())
-        .setTotalTermsInCollection(reader.getSumTotalTermFreq(args.contentsField))
-        .setAverageDoclength((double) reader.getSumTotalTermFreq(args.contentsField) / reader.maxDoc())
-        .setDescription(args.description)
-        .build().writeDelimitedTo(fileOut);
-
-    // Now we can write the postings lists.
-    int cnt = 0;
-    LeafReader leafReader = reader.leaves().get(0).reader();
-    TermsEnum termsEnum = leafReader.terms(args.contentsField).iterator();
-    BytesRef bytesRef = termsEnum.next();
-    while (bytesRef != null) {
-      // This is the current term in the dictionary.
-      String token = bytesRef.utf8ToString();
-
-      if (terms != null && !terms.contains(token)) {
-        bytesRef = termsEnum.next();
-        continue;
-      }
+    CiffCodec codec = CiffCodec.fromFileName(args.output);
+    if (codec != CiffCodec.NONE) {
+      System.out.println(String.format("Inferred from filename suffix to write %s compressed output...",
+          codec.name().toLowerCase()));
+    }
+    // Only the footer holds checksums, which, like its offsets, are over the uncompressed bytes.
+    OutputStream compressedOut = CiffCodec.create(args.output, args.compressionThreads, args.writeBehind);
+    CountingOutputStream fileOut = args.footer ?
+        new ChecksumOutputStream(compressedOut, CommonIndexFileFormatConstants.CHECKSUM_BLOCK_SIZE) :
+        new CountingOutputStream(compressedOut);
+
+    // Exact doclengths are computed by summing the tfs of every document while writing the postings lists.
+    int[] exactDoclengths = null;
+    if (args.exactDoclengths) {
+      exactDoclengths = new int[reader.maxDoc()];
+    }
 
-      Term term = new Term(args.contentsField, token);
-      long df = reader.docFreq(term);
-      long cf = reader.totalTermFreq(term);
-
-      PostingsListOrBuilder plBuilder =
-          PostingsList.newBuilder().setTerm(token).setDf(df).setCf(cf);
-
-      int curDocid;
-      int prevDocid = -1;
-      int postingsWritten = 0;
-      PostingsEnum postingsEnum = leafReader.postings(term);
-      while (postingsEnum.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
-        curDocid = postingsEnum.docID();
-        // gap (i.e., delta) encoding.
-        int code = prevDocid == -1 ? curDocid : curDocid - prevDocid;
-
-        ((PostingsList.Builder) plBuilder).addPostings(
-            Posting.newBuilder().setDocid(code).setTf(postingsEnum.freq()).build());
-        postingsWritten++;
-        prevDocid = curDocid;
-      }
+    // Score bounds need the norms while writing the postings lists, so they are read up front.
+    int[] normDoclengths = null;
+    ScoreBounds scoreBounds = null;
+    if (args.scoreBounds) {
+      System.out.println("Reading norms into memory...");
+      normDoclengths = readDoclengths(reader, args.contentsField);
+      System.out.println("Done!");
+      // The same collection statistics as in the header.
+      scoreBounds = new ScoreBounds(args.k1, args.b, reader.maxDoc(),
+          (double) reader.getSumTotalTermFreq(args.contentsField) / reader.maxDoc(), normDoclengths);
+    }
 
-      // The number of postings written should be the same as the df.
-      if (postingsWritten != df) {
-        throw new RuntimeException(String.format("Unexpected number of postings! expected %d got %d", df, postingsWritten));
+    // The header holds the number of postings lists, which a multi-segment index only knows once they're written, so
+    // they're spooled to a temporary file, appended after the header.
+    Terms contents = getTerms(reader, args.contentsField);
+    Counts counts;
+    long postingsListsOffset;
+    if (terms != null) {
+      List<BytesRef> sortedTerms = new ArrayList<>(terms);
+      Collections.sort(sortedTerms);
+
+      Counts expected = new Counts();
+      expected.export = countTerms(contents, sortedTerms);
+      expected.total = countVocabulary(contents);
+
+      System.out.println("Writing the header...");
+      writeHeader(reader, args, expected, scoreBounds, fileOut);
+      postingsListsOffset = fileOut.getCount();
+
+      counts = writePostingsLists(contents, sortedTerms, args.version, args.postingsCodec, scoreBounds, fileOut);
+      counts.total = expected.total;
+    } else if (contents.size() != -1) {
+      Counts expected = new Counts();
+      expected.export = (int) contents.size();
+      expected.total = (int) contents.size();
+
+      System.out.println("Writing the header...");
+      writeHeader(reader, args, expected, scoreBounds, fileOut);
+      postingsListsOffset = fileOut.getCount();
+
+      counts = writePostingsLists(reader, args.contentsField, args.threads, exactDoclengths, args.version,
+          args.postingsCodec, scoreBounds, fileOut);
+      if (counts.export != expected.export) {
+        throw new RuntimeException(String.format("Unexpected number of postings lists! expected %d got %d",
+            expected.export, counts.export));
       }
-
-      PostingsList pl = ((PostingsList.Builder) plBuilder).build();
-      pl.writeDelimitedTo(fileOut);
-
-      bytesRef = termsEnum.next();
-
-      cnt++;
-      if (cnt % 100000 == 0) {
-        System.out.println("Wrote " + cnt + " postings lists...");
+    } else {
+      Path outputDir = Paths.get(args.output).toAbsolutePath().getParent();
+      Path spool = Files.createTempFile(outputDir, "ciff-", ".postings");
+      try {
+        System.out.println("Spooling postings lists to " + spool + "...");
+        try (OutputStream spoolOut = new BufferedOutputStream(Files.newOutputStream(spool), SPOOL_BUFFER_SIZE)) {
+          counts = writePostingsLists(reader, args.contentsField, args.threads, exactDoclengths, args.version,
+              args.postingsCodec, scoreBounds, spoolOut);
+        }
+
+        System.out.println("Writing the header...");
+        writeHeader(reader, args, counts, scoreBounds, fileOut);
+        postingsListsOffset = fileOut.getCount();
+        System.out.println("Appending spooled postings lists...");
+        Files.copy(spool, fileOut);
+      } finally {
+        Files.deleteIfExists(spool);
       }
     }
-    System.out.println("Total of " + cnt + " postings lists written.");
+    System.out.println(String.format("Exported %d postings lists out of %d total", counts.export, counts.total));
 
-    // Read the doclengths (norms) into memory
-    Map<Integer, Integer> normsMap = new HashMap<>();
-    System.out.println("Reading norms into memory...");
-    for (LeafReaderContext context : reader.leaves()) {
-      leafReader = context.reader();
-      NumericDocValues docValues = leafReader.getNormValues(args.contentsField);
-      while (docValues.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
-        normsMap.put(docValues.docID() + context.docBase, SmallFloat.byte4ToInt((byte) docValues.longValue()));
+    int[] doclengths;
+    if (exactDoclengths != null) {
+      long sum = 0;
+      for (int doclength : exactDoclengths) {
+        sum += doclength;
+      }
+      if (sum != reader.getSumTotalTermFreq(args.contentsField)) {
+        throw new RuntimeException(String.format("Sum of exact doclengths doesn't match! expected %d got %d",
+            reader.getSumTotalTermFreq(args.contentsField), sum));
       }
+      doclengths = exactDoclengths;
+    } else if (normDoclengths != null) {
+      doclengths = normDoclengths;
+    } else {
+      // Read the doclengths (norms) into memory
+      System.out.println("Reading norms into memory...");
+      doclengths = readDoclengths(reader, args.contentsField);
+      System.out.println("Done!");
     }
-    System.out.println("Done!");
 
-    // Write the doc records: (docid, collection docid, doclength)
     System.out.println("Writing doc records...");
-    for (int i=0; i<reader.maxDoc(); i++) {
-      if (!normsMap.containsKey(i)) {
-        throw new Exception(String.format("Norm doesn't exist for docid %d!", i));
-      }
-      DocRecord.newBuilder()
-          .setDocid(i)
-          .setCollectionDocid(reader.document(i).getField(args.docidsField).stringValue())
-          .setDoclength(normsMap.get(i))
-          .build().writeDelimitedTo(fileOut);
+    long docRecordsOffset = fileOut.getCount();
+    writeDocRecords(reader, args.docidsField, doclengths, args.threads, fileOut);
+    System.out.println("Done!");
 
-      if (i % 100000 == 0 && i != 0) {
-        System.out.println("Wrote " + i + " doc records...");
-      }
+    if (args.footer) {
+      System.out.println("Writing the footer...");
+      writeFooter(counts, postingsListsOffset, docRecordsOffset, (ChecksumOutputStream) fileOut);
     }
-    System.out.println("Done!");
 
     fileOut.close();
     reader.close();
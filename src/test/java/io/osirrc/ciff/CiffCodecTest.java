@@ -0,0 +1,89 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that every compression codec round-trips, and detects corruption of what it compressed.
+ */
+public class CiffCodecTest {
+  private static final CiffCodec[] CODECS = {CiffCodec.GZIP, CiffCodec.ZSTD, CiffCodec.LZ4};
+
+  private final Random random = new Random(42);
+
+  // Random bytes don't compress, so the codecs store them as they are, where a flipped byte is only caught by the
+  // checksum of the content.
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] compress(CiffCodec codec, byte[] bytes) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out = codec.compress(compressed, 1)) {
+      out.write(bytes);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static byte[] decompress(CiffCodec codec, byte[] bytes) throws IOException {
+    try (InputStream in = codec.decompress(new ByteArrayInputStream(bytes))) {
+      return in.readAllBytes();
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    for (CiffCodec codec : CODECS) {
+      for (int length : new int[] {0, 1, 1000, 300000}) {
+        byte[] bytes = randomBytes(length);
+        assertArrayEquals(codec.name(), bytes, decompress(codec, compress(codec, bytes)));
+      }
+    }
+  }
+
+  @Test
+  public void testFlippedByte() throws IOException {
+    for (CiffCodec codec : CODECS) {
+      byte[] compressed = compress(codec, randomBytes(300000));
+      // In the middle of the content, and in the checksum at the very end.
+      for (int at : new int[] {compressed.length / 2, compressed.length - 1}) {
+        byte[] corrupt = compressed.clone();
+        corrupt[at] ^= 0x01;
+        try {
+          decompress(codec, corrupt);
+          fail(String.format("%s didn't detect a flipped byte at %d of %d", codec, at, compressed.length));
+        } catch (IOException e) {
+          // Expected.
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,649 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import io.osirrc.ciff.CommonIndexFileFormat.Posting;
+import io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock;
+import io.osirrc.ciff.CommonIndexFileFormat.PostingsList;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Differential tests of {@link CiffDecoder} against the generated {@link PostingsList} parser. Whatever the generated
+ * parser rejects, the decoder must reject too. Whatever it accepts, the decoder must decode to the same values, unless
+ * the message breaks one of the rules that the decoder checks on top of the wire format, such as docids and tfs
+ * matching up, in which case it must reject it.
+ */
+public class CiffDecoderTest {
+  private static final int V1 = 0;
+  private static final int PACKED = 1;
+  private static final int UNPACKED = 2;
+  private static final int BLOCKED = 3;
+  private static final int[] FORMATS = {V1, PACKED, UNPACKED, BLOCKED};
+
+  // Tags of the fields as defined in CommonIndexFileFormat.proto, which unknown fields must steer clear of.
+  private static final int[] POSTINGS_LIST_TAGS = {
+      tag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED), tag(2, WireFormat.WIRETYPE_VARINT),
+      tag(3, WireFormat.WIRETYPE_VARINT), tag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED),
+      tag(5, WireFormat.WIRETYPE_LENGTH_DELIMITED), tag(5, WireFormat.WIRETYPE_VARINT),
+      tag(6, WireFormat.WIRETYPE_LENGTH_DELIMITED), tag(6, WireFormat.WIRETYPE_VARINT),
+      tag(7, WireFormat.WIRETYPE_LENGTH_DELIMITED), tag(8, WireFormat.WIRETYPE_VARINT),
+      tag(9, WireFormat.WIRETYPE_FIXED32), tag(10, WireFormat.WIRETYPE_LENGTH_DELIMITED),
+      tag(10, WireFormat.WIRETYPE_FIXED32)};
+  private static final int[] POSTING_TAGS = {tag(1, WireFormat.WIRETYPE_VARINT), tag(2, WireFormat.WIRETYPE_VARINT)};
+  private static final int[] POSTINGS_BLOCK_TAGS = {
+      tag(1, WireFormat.WIRETYPE_VARINT), tag(2, WireFormat.WIRETYPE_VARINT),
+      tag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED), tag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED)};
+  private static final int[] WIRE_TYPES = {
+      WireFormat.WIRETYPE_VARINT, WireFormat.WIRETYPE_FIXED64, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+      WireFormat.WIRETYPE_START_GROUP, WireFormat.WIRETYPE_FIXED32};
+
+  private final Random random = new Random(42);
+  // Reused across messages, as the CiffReader does, so that nothing may carry over from one message to the next.
+  private final CiffDecoder decoder = new CiffDecoder();
+  private final PostingsListBuffer buffer = new PostingsListBuffer();
+
+  private interface FieldWriter {
+    void write(CodedOutputStream out) throws IOException;
+  }
+
+  private static int tag(int fieldNumber, int wireType) {
+    return (fieldNumber << 3) | wireType;
+  }
+
+  private static byte[] encode(FieldWriter writer) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+    try {
+      writer.write(out);
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] concat(List<byte[]> fields) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (byte[] field : fields) {
+      bytes.write(field, 0, field.length);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder();
+    for (byte b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+  // Returns values of every varint length, negative ones included, which take ten bytes as int32.
+  private int randomValue() {
+    switch (random.nextInt(5)) {
+      case 0:
+        return random.nextInt(1 << 7);
+      case 1:
+        return random.nextInt(1 << 14);
+      case 2:
+        return random.nextInt(1 << 28);
+      case 3:
+        return random.nextInt();
+      default:
+        return random.nextInt(4);
+    }
+  }
+
+  private String randomTerm() {
+    String[] pieces = {"a", "z", "0", "é", "中", "😀", "\u0000", "￿"};
+    StringBuilder term = new StringBuilder();
+    for (int i = random.nextInt(8); i > 0; i--) {
+      term.append(pieces[random.nextInt(pieces.length)]);
+    }
+    return term.toString();
+  }
+
+  // Writes a tag, sometimes in a non-canonical two byte encoding, which parsers must accept as well.
+  private void writeTag(CodedOutputStream out, int fieldNumber, int wireType) throws IOException {
+    int tag = tag(fieldNumber, wireType);
+    if (tag < 0x80 && random.nextInt(8) == 0) {
+      out.writeRawByte((byte) (tag | 0x80));
+      out.writeRawByte((byte) 0);
+    } else {
+      out.writeUInt32NoTag(tag);
+    }
+  }
+
+  // Returns an unknown field, of a field number or wire type that isn't part of the message, groups included.
+  private byte[] unknownField(int[] knownTags, int depth) {
+    while (true) {
+      // Field numbers go up to 2^29 - 1, for tags of up to five bytes.
+      int fieldNumber = 1 + random.nextInt(random.nextInt(4) == 0 ? (1 << 29) - 1 : 20);
+      int wireType = WIRE_TYPES[random.nextInt(WIRE_TYPES.length)];
+      if (Arrays.stream(knownTags).anyMatch(knownTag -> knownTag == tag(fieldNumber, wireType))
+          || (wireType == WireFormat.WIRETYPE_START_GROUP && depth == 3)) {
+        continue;
+      }
+      return encode(out -> {
+        out.writeTag(fieldNumber, wireType);
+        switch (wireType) {
+          case WireFormat.WIRETYPE_VARINT:
+            out.writeUInt64NoTag(random.nextBoolean() ? random.nextLong() : random.nextInt(300));
+            break;
+          case WireFormat.WIRETYPE_FIXED64:
+            out.writeFixed64NoTag(random.nextLong());
+            break;
+          case WireFormat.WIRETYPE_LENGTH_DELIMITED:
+            byte[] bytes = new byte[random.nextInt(10)];
+            random.nextBytes(bytes);
+            out.writeByteArrayNoTag(bytes);
+            break;
+          case WireFormat.WIRETYPE_FIXED32:
+            out.writeFixed32NoTag(random.nextInt());
+            break;
+          default:
+            // Everything in a group is unknown.
+            for (int i = random.nextInt(4); i > 0; i--) {
+              out.writeRawBytes(unknownField(new int[0], depth + 1));
+            }
+            out.writeTag(fieldNumber, WireFormat.WIRETYPE_END_GROUP);
+        }
+      });
+    }
+  }
+
+  private void addUnknownFields(List<byte[]> fields, int[] knownTags) {
+    for (int i = random.nextInt(4); i > 0; i--) {
+      fields.add(random.nextInt(fields.size() + 1), unknownField(knownTags, 0));
+    }
+  }
+
+  private byte[] posting(int gap, int tf, boolean unknownFields) {
+    List<byte[]> fields = new ArrayList<>();
+    // The generated serializer leaves out zeros, but parsers must accept them, as well as fields out of order.
+    if (gap != 0 || random.nextBoolean()) {
+      fields.add(encode(out -> {
+        writeTag(out, 1, WireFormat.WIRETYPE_VARINT);
+        out.writeInt32NoTag(gap);
+      }));
+    }
+    if (tf != 0 || random.nextBoolean()) {
+      fields.add(random.nextInt(8) == 0 ? 0 : fields.size(), encode(out -> {
+        writeTag(out, 2, WireFormat.WIRETYPE_VARINT);
+        out.writeInt32NoTag(tf);
+      }));
+    }
+    if (unknownFields) {
+      addUnknownFields(fields, POSTING_TAGS);
+    }
+    return concat(fields);
+  }
+
+  private byte[] block(int[] gaps, int[] tfs, int offset, int n, int maxDocid, boolean unknownFields) {
+    byte[] docidBytes = new byte[StreamVByte.maxEncodedLength(n)];
+    int docidsLength = StreamVByte.encode(gaps, offset, n, docidBytes, 0);
+    byte[] tfBytes = new byte[StreamVByte.maxEncodedLength(n)];
+    int tfsLength = StreamVByte.encode(tfs, offset, n, tfBytes, 0);
+    List<byte[]> fields = new ArrayList<>();
+    fields.add(encode(out -> out.writeInt32(1, n)));
+    fields.add(encode(out -> out.writeInt32(2, maxDocid)));
+    fields.add(encode(out -> out.writeByteArray(3, docidBytes, 0, docidsLength)));
+    fields.add(encode(out -> out.writeByteArray(4, tfBytes, 0, tfsLength)));
+    if (unknownFields) {
+      addUnknownFields(fields, POSTINGS_BLOCK_TAGS);
+    }
+    return concat(fields);
+  }
+
+  private static byte[] packed(int fieldNumber, int[] values, int from, int to) {
+    return encode(out -> {
+      int length = 0;
+      for (int i = from; i < to; i++) {
+        length += CodedOutputStream.computeInt32SizeNoTag(values[i]);
+      }
+      out.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      out.writeUInt32NoTag(length);
+      for (int i = from; i < to; i++) {
+        out.writeInt32NoTag(values[i]);
+      }
+    });
+  }
+
+  private static byte[] unpacked(int fieldNumber, int[] values, int from, int to) {
+    return encode(out -> {
+      for (int i = from; i < to; i++) {
+        out.writeInt32(fieldNumber, values[i]);
+      }
+    });
+  }
+
+  // Encodes the docids or tfs in runs that are packed or not at random, as parsers must accept both.
+  private List<byte[]> mixed(int fieldNumber, int[] values) {
+    List<byte[]> runs = new ArrayList<>();
+    for (int from = 0; from < values.length; ) {
+      int to = Math.min(values.length, from + 1 + random.nextInt(8));
+      runs.add(random.nextBoolean() ? packed(fieldNumber, values, from, to) : unpacked(fieldNumber, values, from, to));
+      from = to;
+    }
+    return runs;
+  }
+
+  // Returns a valid PostingsList message of the given format, with score bounds at random, hand-encoded so as to
+  // include the encodings that the generated serializer never writes.
+  private byte[] randomPostingsList(int format, boolean unknownFields) {
+    int n = random.nextInt(4) == 0 ? 0 : random.nextInt(random.nextBoolean() ? 10 : 500);
+    int[] gaps = new int[n];
+    int[] tfs = new int[n];
+    for (int i = 0; i < n; i++) {
+      gaps[i] = randomValue();
+      tfs[i] = randomValue();
+    }
+
+    List<byte[]> fields = new ArrayList<>();
+    if (format == V1) {
+      for (int i = 0; i < n; i++) {
+        byte[] posting = posting(gaps[i], tfs[i], unknownFields);
+        fields.add(encode(out -> {
+          writeTag(out, 4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+          out.writeByteArrayNoTag(posting);
+        }));
+      }
+    } else if (format == PACKED) {
+      if (n > 0) {
+        fields.add(packed(5, gaps, 0, n));
+        fields.add(packed(6, tfs, 0, n));
+      }
+    } else if (format == UNPACKED) {
+      // Runs of docids and tfs interleave at random, keeping their own order.
+      List<byte[]> docids = mixed(5, gaps);
+      List<byte[]> tfRuns = mixed(6, tfs);
+      int d = 0;
+      int t = 0;
+      while (d < docids.size() || t < tfRuns.size()) {
+        boolean docid = t == tfRuns.size() || (d < docids.size() && random.nextBoolean());
+        fields.add(docid ? docids.get(d++) : tfRuns.get(t++));
+      }
+    } else {
+      int docid = 0;
+      for (int from = 0; from < n; ) {
+        int to = Math.min(n, from + 1 + random.nextInt(random.nextBoolean() ? 4 : 128));
+        for (int i = from; i < to; i++) {
+          docid += gaps[i];
+        }
+        byte[] block = block(gaps, tfs, from, to - from, docid, unknownFields);
+        fields.add(encode(out -> out.writeByteArray(7, block)));
+        from = to;
+      }
+      int numBlocks = fields.size();
+      if (random.nextBoolean()) {
+        float[] blockMaxScores = new float[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+          blockMaxScores[i] = random.nextFloat() * 20;
+        }
+        insert(fields, encode(out -> {
+          if (random.nextBoolean()) {
+            out.writeTag(10, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(numBlocks * Float.BYTES);
+            for (float score : blockMaxScores) {
+              out.writeFloatNoTag(score);
+            }
+          } else {
+            for (float score : blockMaxScores) {
+              out.writeFloat(10, score);
+            }
+          }
+        }));
+      }
+    }
+
+    // Scalar fields go anywhere, and sometimes twice, in which case the last one wins.
+    for (int i = random.nextInt(3); i >= 0; i--) {
+      String term = randomTerm();
+      insert(fields, encode(out -> out.writeString(1, term)));
+    }
+    long df = random.nextBoolean() ? n : random.nextLong();
+    insert(fields, encode(out -> out.writeInt64(2, df)));
+    long cf = random.nextInt(1 << 20);
+    insert(fields, encode(out -> out.writeInt64(3, cf)));
+    if (random.nextBoolean()) {
+      int maxTf = randomValue();
+      float maxScore = random.nextFloat() * 20;
+      insert(fields, encode(out -> out.writeInt32(8, maxTf)));
+      insert(fields, encode(out -> out.writeFloat(9, maxScore)));
+    }
+    if (unknownFields) {
+      addUnknownFields(fields, POSTINGS_LIST_TAGS);
+    }
+    return concat(fields);
+  }
+
+  private void insert(List<byte[]> fields, byte[] field) {
+    fields.add(random.nextInt(fields.size() + 1), field);
+  }
+
+  // Straightforward StreamVByte decoder, independent of the one under test, which returns null unless the values take
+  // up exactly the given bytes.
+  private static int[] decodeStreamVByte(byte[] bytes, int n) {
+    int data = (n + 3) / 4;
+    if (data > bytes.length) {
+      return null;
+    }
+    int[] values = new int[n];
+    for (int i = 0; i < n; i++) {
+      int length = ((bytes[i / 4] >>> (2 * (i % 4))) & 3) + 1;
+      if (length > bytes.length - data) {
+        return null;
+      }
+      for (int j = 0; j < length; j++) {
+        values[i] |= (bytes[data++] & 0xff) << (8 * j);
+      }
+    }
+    return data == bytes.length ? values : null;
+  }
+
+  // Returns the docids and tfs that the decoder must decode a message parsed by the generated parser into, or null if
+  // the message breaks one of the rules that the decoder checks on top of the wire format.
+  private static int[][] expectedPostings(PostingsList message) {
+    List<Integer> blockedDocids = new ArrayList<>();
+    List<Integer> blockedTfs = new ArrayList<>();
+    int docid = 0;
+    for (PostingsBlock block : message.getBlocksList()) {
+      int n = block.getNumPostings();
+      if (n < 0) {
+        return null;
+      }
+      int[] gaps = decodeStreamVByte(block.getDocids().toByteArray(), n);
+      int[] tfs = decodeStreamVByte(block.getTfs().toByteArray(), n);
+      if (gaps == null || tfs == null) {
+        return null;
+      }
+      for (int i = 0; i < n; i++) {
+        docid += gaps[i];
+        blockedDocids.add(docid);
+        blockedTfs.add(tfs[i]);
+      }
+      if (n > 0 && block.getMaxDocid() != docid) {
+        return null;
+      }
+    }
+
+    int numPostings = message.getPostingsCount();
+    int numDocids = message.getDocidsCount();
+    int numTfs = message.getTfsCount();
+    if (!blockedDocids.isEmpty()) {
+      if (numDocids != 0 || numTfs != 0 || numPostings != 0) {
+        return null;
+      }
+      return new int[][] {
+          blockedDocids.stream().mapToInt(Integer::intValue).toArray(),
+          blockedTfs.stream().mapToInt(Integer::intValue).toArray()};
+    }
+
+    int[] docids;
+    int[] tfs;
+    if (numDocids != 0 || numTfs != 0) {
+      if (numDocids != numTfs || numPostings != 0) {
+        return null;
+      }
+      docids = message.getDocidsList().stream().mapToInt(Integer::intValue).toArray();
+      tfs = message.getTfsList().stream().mapToInt(Integer::intValue).toArray();
+    } else {
+      docids = message.getPostingsList().stream().mapToInt(Posting::getDocid).toArray();
+      tfs = message.getPostingsList().stream().mapToInt(Posting::getTf).toArray();
+    }
+    for (int i = 1; i < docids.length; i++) {
+      docids[i] += docids[i - 1];
+    }
+    return new int[][] {docids, tfs};
+  }
+
+  // Decodes the message with both the generated parser and the decoder, checks that they agree, and returns whether
+  // the message was valid.
+  private boolean assertDecodesLikeGenerated(byte[] message) {
+    PostingsList expected;
+    try {
+      expected = PostingsList.parseFrom(message);
+    } catch (InvalidProtocolBufferException e) {
+      expected = null;
+    }
+    int[][] postings = expected == null ? null : expectedPostings(expected);
+
+    // The message is decoded from the middle of an array of garbage, which the decoder must not read into.
+    byte[] bytes = new byte[message.length + 32];
+    random.nextBytes(bytes);
+    System.arraycopy(message, 0, bytes, 16, message.length);
+    try {
+      decoder.decodePostingsList(bytes, 16, message.length, buffer);
+    } catch (InvalidProtocolBufferException e) {
+      if (postings != null) {
+        fail(String.format("Rejected %s (%s), which is valid", toHex(message), e.getMessage()));
+      }
+      return false;
+    }
+    if (postings == null) {
+      fail(String.format("Accepted %s, which is invalid", toHex(message)));
+    }
+
+    float[] blockMaxScores = new float[expected.getBlockMaxScoresCount()];
+    for (int i = 0; i < blockMaxScores.length; i++) {
+      blockMaxScores[i] = expected.getBlockMaxScores(i);
+    }
+    try {
+      assertArrayEquals(expected.getTermBytes().toByteArray(), buffer.getTermBytes());
+      assertEquals(expected.getDf(), buffer.getDf());
+      assertEquals(expected.getCf(), buffer.getCf());
+      assertArrayEquals(postings[0], Arrays.copyOf(buffer.getDocids(), buffer.size()));
+      assertArrayEquals(postings[1], Arrays.copyOf(buffer.getTfs(), buffer.size()));
+      assertEquals(expected.getMaxTf(), buffer.getMaxTf());
+      assertEquals(Float.floatToIntBits(expected.getMaxScore()), Float.floatToIntBits(buffer.getMaxScore()));
+      assertArrayEquals(blockMaxScores, Arrays.copyOf(buffer.getBlockMaxScores(), buffer.getNumBlockMaxScores()), 0);
+    } catch (AssertionError e) {
+      throw new AssertionError(String.format("Decoded %s differently: %s", toHex(message), e.getMessage()), e);
+    }
+    return true;
+  }
+
+  private void assertDecodesLikeGenerated(int format, boolean unknownFields, int iterations) {
+    for (int i = 0; i < iterations; i++) {
+      assertTrue(assertDecodesLikeGenerated(randomPostingsList(format, unknownFields)));
+    }
+  }
+
+  @Test
+  public void testVersion1() {
+    assertDecodesLikeGenerated(V1, false, 500);
+  }
+
+  @Test
+  public void testPacked() {
+    assertDecodesLikeGenerated(PACKED, false, 500);
+  }
+
+  @Test
+  public void testUnpacked() {
+    assertDecodesLikeGenerated(UNPACKED, false, 500);
+  }
+
+  @Test
+  public void testBlocked() {
+    assertDecodesLikeGenerated(BLOCKED, false, 500);
+  }
+
+  @Test
+  public void testUnknownFields() {
+    for (int format : FORMATS) {
+      assertDecodesLikeGenerated(format, true, 500);
+    }
+  }
+
+  @Test
+  public void testGeneratedMessages() {
+    PostingsList.Builder v1 = PostingsList.newBuilder().setTerm("v1").setDf(3).setCf(6);
+    PostingsList.Builder packed = PostingsList.newBuilder().setTerm("packed").setDf(3).setCf(6);
+    for (int docid : new int[] {1, 1000, -1}) {
+      v1.addPostings(Posting.newBuilder().setDocid(docid).setTf(2));
+      packed.addDocids(docid).addTfs(2);
+    }
+    byte[] blockBytes = {0x04, 1, (byte) 0xe8, 3};
+    PostingsList.Builder blocked = PostingsList.newBuilder().setTerm("blocked").setDf(2).setCf(2).setMaxTf(1)
+        .setMaxScore(1.5f).addBlockMaxScores(1.5f)
+        .addBlocks(PostingsBlock.newBuilder().setNumPostings(2).setMaxDocid(1001)
+            .setDocids(ByteString.copyFrom(blockBytes)).setTfs(ByteString.copyFrom(new byte[] {0, 1, 1})));
+    for (PostingsList.Builder message : Arrays.asList(v1, packed, blocked, PostingsList.newBuilder())) {
+      assertTrue(assertDecodesLikeGenerated(message.build().toByteArray()));
+    }
+  }
+
+  @Test
+  public void testTerms() {
+    byte[][] terms = {
+        {}, {'a'}, {(byte) 0xc3, (byte) 0xa9}, {(byte) 0xef, (byte) 0xbf, (byte) 0xbf},
+        {(byte) 0xf0, (byte) 0x9f, (byte) 0x98, (byte) 0x80}, {(byte) 0xf4, (byte) 0x8f, (byte) 0xbf, (byte) 0xbf},
+        {(byte) 0xed, (byte) 0x9f, (byte) 0xbf},
+        // Overlong encodings, surrogates, beyond U+10FFFF, truncated and stray bytes.
+        {(byte) 0xc0, (byte) 0x80}, {(byte) 0xc1, (byte) 0xbf}, {(byte) 0xe0, (byte) 0x80, (byte) 0x80},
+        {(byte) 0xed, (byte) 0xa0, (byte) 0x80}, {(byte) 0xf0, (byte) 0x80, (byte) 0x80, (byte) 0x80},
+        {(byte) 0xf4, (byte) 0x90, (byte) 0x80, (byte) 0x80}, {(byte) 0xe2, (byte) 0x82}, {(byte) 0x80},
+        {'a', (byte) 0xc3}, {(byte) 0xf8, (byte) 0x88, (byte) 0x80, (byte) 0x80, (byte) 0x80}, {(byte) 0xff}};
+    for (byte[] term : terms) {
+      assertDecodesLikeGenerated(encode(out -> out.writeByteArray(1, term)));
+    }
+    for (int i = 0; i < 20000; i++) {
+      byte[] term = new byte[random.nextInt(7)];
+      random.nextBytes(term);
+      assertDecodesLikeGenerated(encode(out -> out.writeByteArray(1, term)));
+    }
+  }
+
+  @Test
+  public void testRules() {
+    byte[] docids = packed(5, new int[] {1, 2}, 0, 2);
+    byte[] tfs = packed(6, new int[] {1, 1}, 0, 2);
+    byte[] tf = packed(6, new int[] {1}, 0, 1);
+    byte[] posting = encode(out -> out.writeByteArray(4, posting(1, 1, false)));
+    byte[] block = encode(out -> out.writeByteArray(7, block(new int[] {3}, new int[] {1}, 0, 1, 3, false)));
+    byte[] wrongMaxDocid = encode(out -> out.writeByteArray(7, block(new int[] {3}, new int[] {1}, 0, 1, 4, false)));
+    byte[] negative = encode(out -> out.writeByteArray(7, encode(blockOut -> blockOut.writeInt32(1, -1))));
+    // The control byte of a single value claims two bytes, but the field only holds one.
+    byte[] truncatedBlock = encode(out -> out.writeByteArray(7, encode(blockOut -> {
+      blockOut.writeInt32(1, 1);
+      blockOut.writeByteArray(3, new byte[] {1, 5});
+      blockOut.writeByteArray(4, new byte[] {0, 1});
+    })));
+    byte[] empty = encode(out -> out.writeByteArray(7, new byte[0]));
+
+    byte[][][] valid = {{docids, tfs}, {tfs, docids}, {empty, posting}, {empty, docids, tfs}, {block, empty}};
+    for (byte[][] fields : valid) {
+      assertTrue(assertDecodesLikeGenerated(concat(Arrays.asList(fields))));
+    }
+    // Among others, the second of two equal blocks continues from the docid of the first, so its max docid is off.
+    byte[][][] invalid = {
+        {docids, tf}, {docids, tfs, posting}, {block, docids}, {block, posting}, {block, tf}, {wrongMaxDocid},
+        {negative}, {truncatedBlock}, {block, block}};
+    for (byte[][] fields : invalid) {
+      assertFalse(assertDecodesLikeGenerated(concat(Arrays.asList(fields))));
+    }
+  }
+
+  @Test
+  public void testGroupNesting() {
+    // The generated parser limits nesting to a depth of 100, which nested messages count towards.
+    for (int depth = 97; depth <= 102; depth++) {
+      int groups = depth;
+      byte[] nested = encode(out -> {
+        for (int i = 0; i < groups; i++) {
+          out.writeTag(20, WireFormat.WIRETYPE_START_GROUP);
+        }
+        for (int i = 0; i < groups; i++) {
+          out.writeTag(20, WireFormat.WIRETYPE_END_GROUP);
+        }
+      });
+      assertDecodesLikeGenerated(nested);
+      assertDecodesLikeGenerated(encode(out -> out.writeByteArray(4, nested)));
+      assertDecodesLikeGenerated(encode(out -> out.writeByteArray(7, nested)));
+    }
+  }
+
+  @Test
+  public void testTruncated() {
+    for (int format : FORMATS) {
+      for (int i = 0; i < 50; i++) {
+        byte[] message = randomPostingsList(format, random.nextBoolean());
+        for (int length = 0; length < message.length; length += 1 + random.nextInt(4)) {
+          assertDecodesLikeGenerated(Arrays.copyOf(message, length));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMutated() {
+    for (int format : FORMATS) {
+      for (int i = 0; i < 2000; i++) {
+        byte[] message = randomPostingsList(format, random.nextBoolean());
+        if (message.length == 0) {
+          continue;
+        }
+        for (int j = random.nextInt(3); j >= 0; j--) {
+          int at = random.nextInt(message.length);
+          switch (random.nextInt(4)) {
+            case 0:
+              message[at] = (byte) random.nextInt();
+              break;
+            case 1:
+              message[at] ^= (byte) (1 << random.nextInt(8));
+              break;
+            case 2:
+              byte[] inserted = new byte[message.length + 1];
+              System.arraycopy(message, 0, inserted, 0, at);
+              inserted[at] = (byte) random.nextInt();
+              System.arraycopy(message, at, inserted, at + 1, message.length - at);
+              message = inserted;
+              break;
+            default:
+              if (message.length > 1) {
+                byte[] deleted = new byte[message.length - 1];
+                System.arraycopy(message, 0, deleted, 0, at);
+                System.arraycopy(message, at + 1, deleted, at, message.length - at - 1);
+                message = deleted;
+              }
+          }
+        }
+        assertDecodesLikeGenerated(message);
+      }
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that sidecar indexes built from files, compressed or not, seek to every postings list and the doc records of
+ * the uncompressed file, and that they are rejected for any other file.
+ */
+public class CiffIndexTest {
+  private static final int NUM_DOCS = 500;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Random random = new Random(42);
+
+  private static String term(int i) {
+    return String.format("term%05d", i);
+  }
+
+  // Writes a file of the given number of postings lists, compressed with the codec of its suffix, if any.
+  private File writeFile(String name, int numPostingsLists, boolean footer) throws IOException {
+    File file = new File(folder.getRoot(), name);
+    try (OutputStream out = CiffCodec.fromFileName(name).compress(new FileOutputStream(file), 1)) {
+      CiffWriter writer = new CiffWriter(out);
+      writer.writeHeader(CommonIndexFileFormat.Header.newBuilder()
+          .setVersion(CommonIndexFileFormatConstants.VERSION_1)
+          .setNumPostingsLists(numPostingsLists)
+          .setNumDocs(NUM_DOCS)
+          .setTotalPostingsLists(numPostingsLists)
+          .setTotalDocs(NUM_DOCS)
+          .build());
+      long postingsListsOffset = writer.getBytesWritten();
+      writer.sampleTerms(8, 0);
+      for (int i = 0; i < numPostingsLists; i++) {
+        int[] docids = random.ints(0, NUM_DOCS).limit(1 + random.nextInt(50)).distinct().sorted().toArray();
+        byte[] term = term(i).getBytes(StandardCharsets.UTF_8);
+        writer.startPostingsList(term, 0, term.length, docids.length, docids.length);
+        for (int docid : docids) {
+          writer.addPosting(docid, 1);
+        }
+        writer.finishPostingsList();
+      }
+      long docRecordsOffset = writer.getBytesWritten();
+      for (int i = 0; i < NUM_DOCS; i++) {
+        writer.writeDocRecord(i, "doc" + i, 1 + random.nextInt(100));
+      }
+      if (footer) {
+        CommonIndexFileFormat.Footer.Builder builder = CommonIndexFileFormat.Footer.newBuilder()
+            .setPostingsListsOffset(postingsListsOffset)
+            .setDocRecordsOffset(docRecordsOffset);
+        writer.addTermSamples(builder, 0);
+        writer.writeFooter(builder.build(), writer.getBytesWritten());
+      }
+      writer.flush();
+    }
+    return file;
+  }
+
+  private File buildIndex(File file) throws IOException {
+    File index = new File(folder.getRoot(), file.getName() + CiffIndex.SUFFIX);
+    CiffIndex.build(file.getPath(), index.getPath());
+    return index;
+  }
+
+  private static void assertSeeks(File file, File index, int numPostingsLists) throws IOException {
+    try (CiffReader reader = CiffReader.openSeekable(file.getPath())) {
+      CiffIndex ciffIndex = CiffIndex.load(index.getPath(), reader);
+      assertEquals(numPostingsLists, ciffIndex.getNumTerms());
+      for (int i = numPostingsLists - 1; i >= 0; i--) {
+        assertTrue(reader.seekPostingsList(ciffIndex, term(i)));
+        assertEquals(term(i), reader.nextPostingsList().getTerm());
+      }
+      assertFalse(reader.seekPostingsList(ciffIndex, "a"));
+      reader.seekDocRecords(ciffIndex);
+      assertEquals("doc0", reader.nextDocRecord().getCollectionDocid());
+    }
+  }
+
+  private static void assertRejected(File file, File index) throws IOException {
+    try (CiffReader reader = CiffReader.openSeekable(file.getPath())) {
+      CiffIndex.load(index.getPath(), reader);
+      fail(String.format("Loaded the index of another file for %s", file));
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("was built from a file of"));
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    for (boolean footer : new boolean[] {false, true}) {
+      File file = writeFile("plain" + footer + ".ciff", 300, footer);
+      assertSeeks(file, buildIndex(file), 300);
+    }
+  }
+
+  @Test
+  public void testCompressed() throws IOException {
+    // The index of a compressed file, footer included, applies to the file once decompressed.
+    for (String suffix : new String[] {".gz", ".zst", ".lz4"}) {
+      File compressed = writeFile("compressed.ciff" + suffix, 300, true);
+      File index = buildIndex(compressed);
+      File file = new File(folder.getRoot(), "decompressed" + suffix + ".ciff");
+      try (InputStream in = CiffCodec.open(compressed.getPath(), false)) {
+        Files.copy(in, file.toPath());
+      }
+      assertSeeks(file, index, 300);
+    }
+  }
+
+  @Test
+  public void testOtherFile() throws IOException {
+    File file = writeFile("file.ciff", 300, false);
+    File index = buildIndex(file);
+
+    // Another number of postings lists, and another number of bytes in files with the same header: other postings,
+    // no footer where the index was built with one, and a byte appended.
+    assertRejected(writeFile("fewer.ciff", 299, false), index);
+    assertRejected(writeFile("other.ciff", 300, false), index);
+    File withFooter = writeFile("footer.ciff", 300, true);
+    File footerIndex = buildIndex(withFooter);
+    assertRejected(file, footerIndex);
+    Files.write(withFooter.toPath(), new byte[1], StandardOpenOption.APPEND);
+    assertRejected(withFooter, footerIndex);
+  }
+}
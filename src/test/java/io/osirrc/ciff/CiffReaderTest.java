@@ -0,0 +1,239 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of reading memory-mapped files through windows much smaller than the default, so that small files move the
+ * window along, and back on seeks, as often as files of many GB do.
+ */
+public class CiffReaderTest {
+  private static final int NUM_POSTINGS_LISTS = 300;
+  private static final int NUM_DOCS = 2000;
+  private static final int TERM_SAMPLE_INTERVAL = 8;
+  private static final Object[][] FORMATS = {
+      {1, ""}, {2, ""}, {2, CommonIndexFileFormatConstants.POSTINGS_CODEC_STREAM_VBYTE}};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Random random = new Random(42);
+  private String path;
+  private int[][] docids;
+  private int[][] tfs;
+  private int[] doclengths;
+  // Offsets of the postings lists, followed by that of the doc records.
+  private long[] offsets;
+  // Size of the largest message, length prefix included, which is the smallest window the file can be read through.
+  private int largestMessage;
+
+  private static String term(int i) {
+    return String.format("term%05d", i);
+  }
+
+  // Writes a file of mostly short postings lists, with the odd long one of several KB, ending with a footer.
+  private void writeFile(int version, String postingsCodec) throws IOException {
+    path = folder.newFile().getPath();
+    docids = new int[NUM_POSTINGS_LISTS][];
+    tfs = new int[NUM_POSTINGS_LISTS][];
+    doclengths = new int[NUM_DOCS];
+    offsets = new long[NUM_POSTINGS_LISTS + 1];
+    try (OutputStream out = new FileOutputStream(path)) {
+      CiffWriter writer = new CiffWriter(out, version, postingsCodec);
+      writer.writeHeader(CommonIndexFileFormat.Header.newBuilder()
+          .setVersion(version)
+          .setPostingsCodec(postingsCodec)
+          .setNumPostingsLists(NUM_POSTINGS_LISTS)
+          .setNumDocs(NUM_DOCS)
+          .setTotalPostingsLists(NUM_POSTINGS_LISTS)
+          .setTotalDocs(NUM_DOCS)
+          .build());
+      largestMessage = (int) writer.getBytesWritten();
+
+      writer.sampleTerms(TERM_SAMPLE_INTERVAL, 0);
+      for (int i = 0; i < NUM_POSTINGS_LISTS; i++) {
+        double density = random.nextInt(20) == 0 ? 0.5 : 0.01;
+        docids[i] = random.ints(0, NUM_DOCS).limit(1 + (int) (density * NUM_DOCS)).distinct().sorted().toArray();
+        tfs[i] = random.ints(1, random.nextBoolean() ? 10 : 100000).limit(docids[i].length).toArray();
+
+        offsets[i] = writer.getBytesWritten();
+        byte[] term = term(i).getBytes(StandardCharsets.UTF_8);
+        writer.startPostingsList(term, 0, term.length, docids[i].length, Arrays.stream(tfs[i]).sum());
+        for (int j = 0; j < docids[i].length; j++) {
+          writer.addPosting(docids[i][j], tfs[i][j]);
+        }
+        writer.finishPostingsList();
+        largestMessage = Math.max(largestMessage, (int) (writer.getBytesWritten() - offsets[i]));
+      }
+
+      offsets[NUM_POSTINGS_LISTS] = writer.getBytesWritten();
+      for (int i = 0; i < NUM_DOCS; i++) {
+        long offset = writer.getBytesWritten();
+        doclengths[i] = 1 + random.nextInt(1000);
+        writer.writeDocRecord(i, "doc" + i, doclengths[i]);
+        largestMessage = Math.max(largestMessage, (int) (writer.getBytesWritten() - offset));
+      }
+
+      CommonIndexFileFormat.Footer.Builder footer = CommonIndexFileFormat.Footer.newBuilder()
+          .setPostingsListsOffset(offsets[0])
+          .setDocRecordsOffset(offsets[NUM_POSTINGS_LISTS]);
+      writer.addTermSamples(footer, 0);
+      writer.writeFooter(footer.build(), writer.getBytesWritten());
+      writer.flush();
+    }
+  }
+
+  private void assertPostingsList(int i, PostingsListBuffer buffer) {
+    assertEquals(term(i), buffer.getTerm());
+    assertEquals(docids[i].length, buffer.getDf());
+    assertArrayEquals(docids[i], Arrays.copyOf(buffer.getDocids(), buffer.size()));
+    assertArrayEquals(tfs[i], Arrays.copyOf(buffer.getTfs(), buffer.size()));
+  }
+
+  private void assertPostingsList(int i, CommonIndexFileFormat.PostingsList postingsList) {
+    assertEquals(term(i), postingsList.getTerm());
+    assertEquals(docids[i].length, postingsList.getPostingsCount());
+    int docid = 0;
+    for (int j = 0; j < docids[i].length; j++) {
+      docid += postingsList.getPostings(j).getDocid();
+      assertEquals(docids[i][j], docid);
+      assertEquals(tfs[i][j], postingsList.getPostings(j).getTf());
+    }
+  }
+
+  // Reads the rest of the file from the first postings list on, alternating between reading postings lists into a
+  // buffer and as generated messages, and checks it against what was written.
+  private void assertReadsBack(CiffReader reader) throws IOException {
+    PostingsListBuffer buffer = new PostingsListBuffer();
+    for (int i = 0; i < NUM_POSTINGS_LISTS; i++) {
+      assertEquals(offsets[i], reader.getOffset());
+      if (i % 2 == 0) {
+        assertTrue(reader.nextPostingsList(buffer));
+        assertPostingsList(i, buffer);
+      } else {
+        assertPostingsList(i, reader.nextPostingsList());
+      }
+    }
+    assertFalse(reader.nextPostingsList(buffer));
+
+    assertEquals(offsets[NUM_POSTINGS_LISTS], reader.getOffset());
+    for (int i = 0; i < NUM_DOCS; i++) {
+      CommonIndexFileFormat.DocRecord docRecord = reader.nextDocRecord();
+      assertEquals(i, docRecord.getDocid());
+      assertEquals("doc" + i, docRecord.getCollectionDocid());
+      assertEquals(doclengths[i], docRecord.getDoclength());
+    }
+    assertNull(reader.nextDocRecord());
+  }
+
+  private void assertFramesReadBack(CiffReader reader, int chunkSize) throws IOException {
+    PostingsListBuffer buffer = new PostingsListBuffer();
+    int i = 0;
+    PostingsListFrames frames;
+    while ((frames = reader.nextPostingsListFrames(chunkSize)) != null) {
+      assertEquals(i, frames.getFirst());
+      assertEquals(offsets[i], frames.getOffset());
+      while (frames.next(buffer)) {
+        assertPostingsList(i++, buffer);
+      }
+    }
+    assertEquals(NUM_POSTINGS_LISTS, i);
+  }
+
+  @Test
+  public void testWindows() throws IOException {
+    for (Object[] format : FORMATS) {
+      writeFile((int) format[0], (String) format[1]);
+      int fileSize = (int) new File(path).length();
+      // From windows that only just hold the largest message, and so move for almost every message, to a single one.
+      int[] windowSizes = {
+          largestMessage, largestMessage + 1, largestMessage + 13, 2 * largestMessage - 1, 3 * largestMessage + 7,
+          fileSize};
+      for (int windowSize : windowSizes) {
+        try (CiffReader reader = CiffReader.openMapped(path, windowSize)) {
+          assertReadsBack(reader);
+        }
+        try (CiffReader reader = CiffReader.openMapped(path, windowSize)) {
+          assertFramesReadBack(reader, 1000);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMessageLargerThanWindow() throws IOException {
+    writeFile(1, "");
+    try (CiffReader reader = CiffReader.openMapped(path, largestMessage - 1)) {
+      assertReadsBack(reader);
+      fail("Read a message larger than the window");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("is larger than the mapped window"));
+    }
+  }
+
+  @Test
+  public void testSeeks() throws IOException {
+    for (Object[] format : FORMATS) {
+      writeFile((int) format[0], (String) format[1]);
+      try (CiffReader reader = CiffReader.openMapped(path, largestMessage + 5)) {
+        PostingsListBuffer buffer = new PostingsListBuffer();
+        // Seeking to the terms in reverse order moves the window back time and again.
+        for (int i = NUM_POSTINGS_LISTS - 1; i >= 0; i--) {
+          assertTrue(reader.seekPostingsList(term(i)));
+          assertEquals(offsets[i], reader.getOffset());
+          assertTrue(reader.nextPostingsList(buffer));
+          assertPostingsList(i, buffer);
+        }
+
+        // Seeking to terms that don't exist leaves the position unchanged, whether the window moved to scan for them
+        // or not.
+        assertFalse(reader.seekPostingsList(term(0) + "x"));
+        assertFalse(reader.seekPostingsList(term(NUM_POSTINGS_LISTS)));
+        assertFalse(reader.seekPostingsList("a"));
+        assertEquals(offsets[1], reader.getOffset());
+        assertPostingsList(1, reader.nextPostingsList());
+
+        reader.seekDocRecords();
+        assertEquals(offsets[NUM_POSTINGS_LISTS], reader.getOffset());
+        assertEquals("doc0", reader.nextDocRecord().getCollectionDocid());
+
+        // Back from the doc records to the first postings list, reading on through the whole file.
+        assertTrue(reader.seekPostingsList(term(0)));
+        assertReadsBack(reader);
+      }
+    }
+  }
+}
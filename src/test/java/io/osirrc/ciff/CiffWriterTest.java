@@ -0,0 +1,216 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import com.google.protobuf.ByteString;
+import io.osirrc.ciff.CommonIndexFileFormat.DocRecord;
+import io.osirrc.ciff.CommonIndexFileFormat.Posting;
+import io.osirrc.ciff.CommonIndexFileFormat.PostingsBlock;
+import io.osirrc.ciff.CommonIndexFileFormat.PostingsList;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that {@link CiffWriter} writes exactly the bytes that {@code writeDelimitedTo()} of the generated classes
+ * writes for the same messages, in every version and postings codec, so that files written either way are identical.
+ */
+public class CiffWriterTest {
+  private static final Object[][] FORMATS = {
+      {1, ""}, {2, ""}, {2, CommonIndexFileFormatConstants.POSTINGS_CODEC_STREAM_VBYTE}};
+  private static final int BLOCK_SIZE = CommonIndexFileFormatConstants.BLOCK_SIZE;
+
+  private final Random random = new Random(42);
+
+  // Returns increasing docids, with gaps of every varint length, starting at 0 at times, so that the first d-gap is 0.
+  private int[] randomDocids(int n) {
+    int[] docids = new int[n];
+    long docid = random.nextBoolean() ? 0 : random.nextInt(1000);
+    for (int i = 0; i < n; i++) {
+      docids[i] = (int) Math.min(docid, Integer.MAX_VALUE);
+      docid += 1 + (random.nextInt(8) == 0 ? random.nextInt(1 << 24) : random.nextInt(100));
+    }
+    return docids;
+  }
+
+  // Returns tfs, zeros included, which are left out of Posting messages but written in packed arrays and blocks.
+  private int[] randomTfs(int n) {
+    int[] tfs = new int[n];
+    for (int i = 0; i < n; i++) {
+      tfs[i] = random.nextInt(8) == 0 ? 0 : 1 + random.nextInt(random.nextBoolean() ? 10 : Integer.MAX_VALUE);
+    }
+    return tfs;
+  }
+
+  // Builds the generated message that the writer should write for the given postings list.
+  private static PostingsList.Builder expected(int version, String postingsCodec, byte[] term, long df, long cf,
+                                               int[] docids, int[] tfs) {
+    PostingsList.Builder message = PostingsList.newBuilder()
+        .setTermBytes(ByteString.copyFrom(term))
+        .setDf(df)
+        .setCf(cf);
+    int[] gaps = new int[docids.length];
+    for (int i = 0; i < docids.length; i++) {
+      gaps[i] = i == 0 ? docids[i] : docids[i] - docids[i - 1];
+    }
+    if (version == CommonIndexFileFormatConstants.VERSION_1) {
+      for (int i = 0; i < gaps.length; i++) {
+        message.addPostings(Posting.newBuilder().setDocid(gaps[i]).setTf(tfs[i]));
+      }
+    } else if (postingsCodec.isEmpty()) {
+      for (int i = 0; i < gaps.length; i++) {
+        message.addDocids(gaps[i]).addTfs(tfs[i]);
+      }
+    } else {
+      for (int from = 0; from < gaps.length; from += BLOCK_SIZE) {
+        int n = Math.min(BLOCK_SIZE, gaps.length - from);
+        byte[] docidBytes = new byte[StreamVByte.maxEncodedLength(n)];
+        byte[] tfBytes = new byte[StreamVByte.maxEncodedLength(n)];
+        message.addBlocks(PostingsBlock.newBuilder()
+            .setNumPostings(n)
+            .setMaxDocid(docids[from + n - 1])
+            .setDocids(ByteString.copyFrom(docidBytes, 0, StreamVByte.encode(gaps, from, n, docidBytes, 0)))
+            .setTfs(ByteString.copyFrom(tfBytes, 0, StreamVByte.encode(tfs, from, n, tfBytes, 0))));
+      }
+    }
+    return message;
+  }
+
+  private static void assertWritesLikeGenerated(ByteArrayOutputStream bytes, CiffWriter writer,
+                                                com.google.protobuf.MessageLite expected) throws IOException {
+    writer.flush();
+    ByteArrayOutputStream expectedBytes = new ByteArrayOutputStream();
+    expected.writeDelimitedTo(expectedBytes);
+    assertArrayEquals(expected.toString(), expectedBytes.toByteArray(), bytes.toByteArray());
+    assertEquals(expectedBytes.size(), writer.getBytesWritten());
+  }
+
+  // Writes a postings list, with score bounds if given, and checks it against the generated message.
+  private void assertPostingsList(int version, String postingsCodec, String term, long df, long cf, int[] docids,
+                                  int[] tfs, float[] blockMaxScores) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CiffWriter writer = new CiffWriter(bytes, version, postingsCodec);
+    byte[] termBytes = term.getBytes(StandardCharsets.UTF_8);
+    // The term is taken from the middle of a larger array.
+    byte[] padded = new byte[termBytes.length + 6];
+    System.arraycopy(termBytes, 0, padded, 3, termBytes.length);
+    writer.startPostingsList(padded, 3, termBytes.length, df, cf);
+    for (int i = 0; i < docids.length; i++) {
+      writer.addPosting(docids[i], tfs[i]);
+    }
+
+    PostingsList.Builder expected = expected(version, postingsCodec, termBytes, df, cf, docids, tfs);
+    if (blockMaxScores != null) {
+      int maxTf = Arrays.stream(tfs).max().orElse(0);
+      float maxScore = 0;
+      for (float score : blockMaxScores) {
+        maxScore = Math.max(maxScore, score);
+        expected.addBlockMaxScores(score);
+      }
+      writer.setScoreBounds(maxTf, maxScore, blockMaxScores, blockMaxScores.length);
+      expected.setMaxTf(maxTf).setMaxScore(maxScore);
+    }
+    writer.finishPostingsList();
+    assertWritesLikeGenerated(bytes, writer, expected.build());
+  }
+
+  @Test
+  public void testPostingsLists() throws IOException {
+    for (Object[] format : FORMATS) {
+      int version = (int) format[0];
+      String postingsCodec = (String) format[1];
+      // Empty postings lists, and fields holding default values, which are left out.
+      assertPostingsList(version, postingsCodec, "", 0, 0, new int[0], new int[0], null);
+      assertPostingsList(version, postingsCodec, "term", 0, 0, new int[0], new int[0], null);
+      assertPostingsList(version, postingsCodec, "", 1, 0, new int[] {0}, new int[] {0}, null);
+      assertPostingsList(version, postingsCodec, "a", 1, 1, new int[] {0}, new int[] {1}, null);
+      assertPostingsList(version, postingsCodec, "é中😀", Long.MAX_VALUE, Long.MAX_VALUE,
+          new int[] {Integer.MAX_VALUE}, new int[] {Integer.MAX_VALUE}, null);
+
+      // Lengths around the block size, so that the last block is full, holds one posting, or is the only one.
+      for (int n : new int[] {1, 2, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 3 * BLOCK_SIZE + 17}) {
+        int[] docids = randomDocids(n);
+        int[] tfs = randomTfs(n);
+        long cf = Arrays.stream(tfs).asLongStream().sum();
+        assertPostingsList(version, postingsCodec, "term" + n, n, cf, docids, tfs, null);
+
+        // Score bounds, with a zero block max score, and a negative zero, which is written as it isn't exactly zero.
+        float[] blockMaxScores = new float[(n + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        for (int b = 0; b < blockMaxScores.length; b++) {
+          blockMaxScores[b] = random.nextFloat() * 20;
+        }
+        assertPostingsList(version, postingsCodec, "term" + n, n, cf, docids, tfs, blockMaxScores);
+        Arrays.fill(blockMaxScores, 0);
+        assertPostingsList(version, postingsCodec, "term" + n, n, cf, docids, tfs, blockMaxScores);
+        Arrays.fill(blockMaxScores, -0.0f);
+        assertPostingsList(version, postingsCodec, "term" + n, n, cf, docids, tfs, blockMaxScores);
+      }
+    }
+  }
+
+  @Test
+  public void testPostingsListsInARow() throws IOException {
+    // The writer reuses its arrays from one postings list to the next, which mustn't carry anything over.
+    for (Object[] format : FORMATS) {
+      int version = (int) format[0];
+      String postingsCodec = (String) format[1];
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ByteArrayOutputStream expectedBytes = new ByteArrayOutputStream();
+      CiffWriter writer = new CiffWriter(bytes, version, postingsCodec);
+      for (int i = 0; i < 50; i++) {
+        int n = random.nextInt(4) == 0 ? 0 : random.nextInt(random.nextBoolean() ? 10 : 1000);
+        int[] docids = randomDocids(n);
+        int[] tfs = randomTfs(n);
+        byte[] term = ("t" + i).getBytes(StandardCharsets.UTF_8);
+        writer.startPostingsList(term, 0, term.length, n, n);
+        for (int j = 0; j < n; j++) {
+          writer.addPosting(docids[j], tfs[j]);
+        }
+        writer.finishPostingsList();
+        expected(version, postingsCodec, term, n, n, docids, tfs).build().writeDelimitedTo(expectedBytes);
+      }
+      writer.flush();
+      assertArrayEquals(expectedBytes.toByteArray(), bytes.toByteArray());
+      assertEquals(expectedBytes.size(), writer.getBytesWritten());
+    }
+  }
+
+  @Test
+  public void testDocRecords() throws IOException {
+    Object[][] docRecords = {
+        {0, "", 0}, {1, "doc1", 5}, {0, "doc0", 0}, {7, "", 0}, {0, "", 3}, {-1, "é中😀", -1},
+        {Integer.MAX_VALUE, "clueweb12-0000tw-00-00000", Integer.MAX_VALUE}};
+    for (Object[] docRecord : docRecords) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      CiffWriter writer = new CiffWriter(bytes);
+      writer.writeDocRecord((int) docRecord[0], (String) docRecord[1], (int) docRecord[2]);
+      assertWritesLikeGenerated(bytes, writer, DocRecord.newBuilder()
+          .setDocid((int) docRecord[0])
+          .setCollectionDocid((String) docRecord[1])
+          .setDoclength((int) docRecord[2])
+          .build());
+    }
+  }
+}
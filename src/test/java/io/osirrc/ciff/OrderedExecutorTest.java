@@ -0,0 +1,110 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that results reach the sink in the order their tasks were submitted, on the submitting thread, and that the
+ * exception of a failed task is thrown to the submitter.
+ */
+public class OrderedExecutorTest {
+  private static final int NUM_TASKS = 200;
+
+  private final Random random = new Random(42);
+
+  // Submits tasks that take random times, so that they finish out of order, failing the one given, if any.
+  private List<Integer> run(int threads, int failing, Throwable failure) throws Exception {
+    List<Integer> results = new ArrayList<>();
+    Thread submitter = Thread.currentThread();
+    try (OrderedExecutor<Integer> executor = new OrderedExecutor<>(threads, result -> {
+      assertSame(submitter, Thread.currentThread());
+      results.add(result);
+    })) {
+      try {
+        for (int i = 0; i < NUM_TASKS; i++) {
+          int task = i;
+          long sleep = random.nextInt(3);
+          executor.submit(() -> {
+            Thread.sleep(sleep);
+            if (task == failing) {
+              if (failure instanceof Error) {
+                throw (Error) failure;
+              }
+              throw (Exception) failure;
+            }
+            return task;
+          });
+        }
+        executor.finish();
+      } finally {
+        // Results handed to the sink before the failure are still those of the first tasks, in order.
+        assertEquals(IntStream.range(0, results.size()).boxed().collect(Collectors.toList()), results);
+      }
+    }
+    return results;
+  }
+
+  @Test
+  public void testOrder() throws Exception {
+    for (int threads : new int[] {1, 2, 8}) {
+      assertEquals(NUM_TASKS, run(threads, -1, null).size());
+    }
+  }
+
+  @Test
+  public void testFailedTask() throws Exception {
+    for (int threads : new int[] {1, 2, 8}) {
+      // Early on, thrown from submit() once the failed task is the oldest in flight, and last, thrown from finish().
+      for (int failing : new int[] {0, NUM_TASKS / 2, NUM_TASKS - 1}) {
+        IOException exception = new IOException("task " + failing);
+        try {
+          run(threads, failing, exception);
+          fail("Didn't throw the exception of a failed task");
+        } catch (IOException e) {
+          assertSame(exception, e);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFailedTaskWithError() throws Exception {
+    // Errors aren't exceptions, so they are thrown still wrapped in the ExecutionException of the task.
+    AssertionError error = new AssertionError("task 10");
+    try {
+      run(4, 10, error);
+      fail("Didn't throw the error of a failed task");
+    } catch (ExecutionException e) {
+      assertSame(error, e.getCause());
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the members written by {@link ParallelGZIPOutputStream} decode as the bytes written to it, whatever the
+ * number of threads and however the writes fall on the blocks, and that failures to write them are thrown.
+ */
+public class ParallelGZIPOutputStreamTest {
+  private static final int BLOCK_SIZE = 1000;
+
+  private final Random random = new Random(42);
+
+  // Bytes from a small alphabet, so that the blocks actually compress.
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) ('a' + random.nextInt(random.nextBoolean() ? 4 : 26));
+    }
+    return bytes;
+  }
+
+  private static byte[] gunzip(byte[] bytes) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readAllBytes();
+    }
+  }
+
+  // Writes the bytes in pieces of random lengths, from single bytes to several blocks, flushing now and then, which
+  // ends a member early.
+  private byte[] compress(byte[] bytes, int threads) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out = new ParallelGZIPOutputStream(compressed, threads, BLOCK_SIZE)) {
+      int off = 0;
+      while (off < bytes.length) {
+        int len = Math.min(bytes.length - off, random.nextBoolean() ? 1 : random.nextInt(3 * BLOCK_SIZE));
+        if (len == 1) {
+          out.write(bytes[off]);
+        } else {
+          out.write(bytes, off, len);
+        }
+        off += len;
+        if (random.nextInt(20) == 0) {
+          out.flush();
+        }
+      }
+    }
+    return compressed.toByteArray();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    for (int threads : new int[] {1, 4}) {
+      // Empty, and around one and several block boundaries.
+      int[] lengths = {
+          0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 2 * BLOCK_SIZE, 5 * BLOCK_SIZE + 1, 100 * BLOCK_SIZE + 7};
+      for (int length : lengths) {
+        byte[] bytes = randomBytes(length);
+        assertArrayEquals(String.format("%d threads, %d bytes", threads, length), bytes,
+            gunzip(compress(bytes, threads)));
+      }
+    }
+  }
+
+  @Test
+  public void testSameOutputWithAnyThreads() throws IOException {
+    // Members only depend on the blocks, so the output is the same however many threads compress them.
+    byte[] bytes = randomBytes(50 * BLOCK_SIZE + 3);
+    ByteArrayOutputStream[] compressed = new ByteArrayOutputStream[3];
+    int[] threads = {1, 2, 8};
+    for (int i = 0; i < threads.length; i++) {
+      compressed[i] = new ByteArrayOutputStream();
+      try (OutputStream out = new ParallelGZIPOutputStream(compressed[i], threads[i], BLOCK_SIZE)) {
+        out.write(bytes);
+      }
+    }
+    assertArrayEquals(compressed[0].toByteArray(), compressed[1].toByteArray());
+    assertArrayEquals(compressed[0].toByteArray(), compressed[2].toByteArray());
+  }
+
+  // Output stream that fails once a given number of bytes has been written to it.
+  private static class FailingOutputStream extends OutputStream {
+    private final int limit;
+    private int count;
+    private boolean closed;
+
+    FailingOutputStream(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (count + len > limit) {
+        throw new IOException("Disk full");
+      }
+      count += len;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Test
+  public void testFailureInWrite() throws IOException {
+    // With many more blocks than are kept in flight, the members are written out while the input is still written,
+    // so the failure is thrown from write(), and the output is still closed by close().
+    FailingOutputStream failing = new FailingOutputStream(10 * BLOCK_SIZE);
+    OutputStream out = new ParallelGZIPOutputStream(failing, 4, BLOCK_SIZE);
+    try {
+      byte[] bytes = new byte[BLOCK_SIZE];
+      for (int i = 0; i < 1000; i++) {
+        random.nextBytes(bytes);
+        out.write(bytes);
+      }
+      fail("Didn't throw the failure to write the output");
+    } catch (IOException e) {
+      assertEquals("Disk full", e.getMessage());
+    }
+    try {
+      out.close();
+    } catch (IOException e) {
+      // Writing what is left fails just as well.
+    }
+    assertTrue(failing.closed);
+  }
+
+  @Test
+  public void testFailureInClose() throws IOException {
+    // With fewer blocks than are kept in flight, nothing is written out before close(), which throws the failure.
+    FailingOutputStream failing = new FailingOutputStream(BLOCK_SIZE);
+    OutputStream out = new ParallelGZIPOutputStream(failing, 4, BLOCK_SIZE);
+    byte[] bytes = new byte[3 * BLOCK_SIZE];
+    random.nextBytes(bytes);
+    out.write(bytes);
+    try {
+      out.close();
+      fail("Didn't throw the failure to write the output");
+    } catch (IOException e) {
+      assertEquals("Disk full", e.getMessage());
+    }
+    assertTrue(failing.closed);
+  }
+}
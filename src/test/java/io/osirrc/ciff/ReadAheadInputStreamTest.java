@@ -0,0 +1,145 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that reading ahead hands over the bytes of the underlying stream as they are, whatever the chunk size, and that
+ * anything the underlying stream throws reaches the consumer, rather than leaving it waiting for the next chunk.
+ */
+public class ReadAheadInputStreamTest {
+  private static final int CHUNK_SIZE = 100;
+
+  private final Random random = new Random(42);
+
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  // Reads the stream to its end, in reads of random lengths, single bytes included.
+  private byte[] readAll(InputStream in, ByteArrayOutputStream read) throws IOException {
+    byte[] b = new byte[3 * CHUNK_SIZE];
+    while (true) {
+      if (random.nextInt(4) == 0) {
+        int c = in.read();
+        if (c == -1) {
+          return read.toByteArray();
+        }
+        read.write(c);
+      } else {
+        int n = in.read(b, 0, 1 + random.nextInt(b.length));
+        if (n == -1) {
+          return read.toByteArray();
+        }
+        read.write(b, 0, n);
+      }
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testReadAll() throws IOException {
+    // Empty, around one chunk, and many more chunks than there are buffers.
+    for (int length : new int[] {0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 100 * CHUNK_SIZE + 7}) {
+      byte[] bytes = randomBytes(length);
+      try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(bytes), CHUNK_SIZE, 2)) {
+        assertArrayEquals(bytes, readAll(in, new ByteArrayOutputStream()));
+        assertEquals(-1, in.read());
+      }
+    }
+  }
+
+  // Stream that throws once the given number of bytes has been read from it.
+  private static class FailingInputStream extends InputStream {
+    private final InputStream in;
+    private final int limit;
+    private final Throwable failure;
+    private int count;
+
+    FailingInputStream(byte[] bytes, int limit, Throwable failure) {
+      this.in = new ByteArrayInputStream(bytes);
+      this.limit = limit;
+      this.failure = failure;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (count == limit) {
+        if (failure instanceof IOException) {
+          throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        throw (Error) failure;
+      }
+      int n = in.read(b, off, Math.min(len, limit - count));
+      count += Math.max(n, 0);
+      return n;
+    }
+  }
+
+  // Reads a stream that fails part way, checking that the bytes before the failure come through as they are, and
+  // returns what was thrown.
+  private IOException readFailing(int limit, Throwable failure) {
+    byte[] bytes = randomBytes(10 * CHUNK_SIZE);
+    ByteArrayOutputStream read = new ByteArrayOutputStream();
+    try (InputStream in = new ReadAheadInputStream(new FailingInputStream(bytes, limit, failure), CHUNK_SIZE, 2)) {
+      readAll(in, read);
+      fail("Didn't throw the failure of the underlying stream");
+      return null;
+    } catch (IOException e) {
+      // Only full chunks are handed over, so the bytes of the chunk that failed are lost.
+      assertArrayEquals(Arrays.copyOf(bytes, limit / CHUNK_SIZE * CHUNK_SIZE), read.toByteArray());
+      return e;
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testFailures() {
+    for (int limit : new int[] {0, CHUNK_SIZE / 2, CHUNK_SIZE, 5 * CHUNK_SIZE + 3}) {
+      IOException ioException = new IOException("Corrupt");
+      assertSame(ioException, readFailing(limit, ioException));
+
+      // A decompressor that throws a RuntimeException on corrupt input, or runs out of memory.
+      RuntimeException runtimeException = new IllegalStateException("Corrupt");
+      assertSame(runtimeException, readFailing(limit, runtimeException).getCause());
+      Error error = new OutOfMemoryError("Corrupt");
+      assertSame(error, readFailing(limit, error).getCause());
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * CIFF (Common Index File Format):
+ * an open, binary exchange format for index structures to support search engine interoperability
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.osirrc.ciff;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the Stream VByte codec, with values of every byte length, and with buffers that end anywhere from right
+ * after the encoded values, where only the byte-at-a-time tail loop may read them, to far enough beyond them that the
+ * four-at-a-time loop reads them all.
+ */
+public class StreamVByteTest {
+  // The largest and smallest values of each byte length, with 2^32 - 1 as -1.
+  private static final int[] EDGE_VALUES = {
+      0, 1, 255, 256, 65535, 65536, (1 << 24) - 1, 1 << 24, Integer.MAX_VALUE, -1};
+  // Bytes left in the array after the encoded values, on either side of the 16 the four-at-a-time loop needs.
+  private static final int MAX_SLACK = 24;
+
+  private final Random random = new Random(42);
+
+  private static int byteLength(int value) {
+    return (value >>> 8) == 0 ? 1 : (value >>> 16) == 0 ? 2 : (value >>> 24) == 0 ? 3 : 4;
+  }
+
+  private int[] randomValues(int n) {
+    int[] values = new int[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = random.nextBoolean() ?
+          EDGE_VALUES[random.nextInt(EDGE_VALUES.length)] : random.nextInt() >>> (random.nextInt(4) << 3);
+    }
+    return values;
+  }
+
+  // Encodes the values at an offset, then decodes them from arrays that end 0 to MAX_SLACK bytes after them, with
+  // garbage in those bytes, which must be masked off by the loads that read them.
+  private void assertRoundTrip(int[] values) {
+    int n = values.length;
+    int expectedLength = (n + 3) / 4 + Arrays.stream(values).map(StreamVByteTest::byteLength).sum();
+    assertTrue(expectedLength <= StreamVByte.maxEncodedLength(n));
+
+    int offset = 3;
+    byte[] encoded = new byte[offset + StreamVByte.maxEncodedLength(n)];
+    Arrays.fill(encoded, (byte) 0xff);
+    // The values are taken from the middle of a larger array.
+    int[] padded = new int[n + 2];
+    System.arraycopy(values, 0, padded, 1, n);
+    assertEquals(offset + expectedLength, StreamVByte.encode(padded, 1, n, encoded, offset));
+    assertEquals(expectedLength, StreamVByte.encodedLength(encoded, offset, n));
+
+    for (int slack = 0; slack <= MAX_SLACK; slack++) {
+      byte[] bytes = Arrays.copyOf(encoded, offset + expectedLength + slack);
+      Arrays.fill(bytes, offset + expectedLength, bytes.length, (byte) 0xff);
+      int[] decoded = new int[n + 2];
+      assertEquals(offset + expectedLength, StreamVByte.decode(bytes, offset, n, decoded, 1));
+      assertArrayEquals(String.format("n=%d slack=%d", n, slack), values, Arrays.copyOfRange(decoded, 1, n + 1));
+      assertEquals(0, decoded[0]);
+      assertEquals(0, decoded[n + 1]);
+    }
+  }
+
+  @Test
+  public void testEncoding() {
+    // One value of each byte length, so the control byte holds the codes 0 to 3 from its least significant bits on.
+    byte[] bytes = new byte[StreamVByte.maxEncodedLength(4)];
+    int length = StreamVByte.encode(new int[] {0, 256, 65536, -1}, 0, 4, bytes, 0);
+    assertArrayEquals(new byte[] {(byte) 0xe4, 0, 0, 1, 0, 0, 1, -1, -1, -1, -1}, Arrays.copyOf(bytes, length));
+  }
+
+  @Test
+  public void testEdgeValues() {
+    for (int value : EDGE_VALUES) {
+      for (int n = 1; n <= 9; n++) {
+        int[] values = new int[n];
+        Arrays.fill(values, value);
+        assertRoundTrip(values);
+      }
+    }
+  }
+
+  @Test
+  public void testBlockSizes() {
+    // Around the block size, and runs that end with one to three values past the last full control byte.
+    for (int n : new int[] {0, 1, 2, 3, 4, 5, 7, 8, 127, 128, 129, 255, 256, 257}) {
+      for (int i = 0; i < 20; i++) {
+        assertRoundTrip(randomValues(n));
+      }
+    }
+  }
+
+  @Test
+  public void testEncodedLengthOfTruncatedValues() {
+    // Only the control bytes are needed to know the length, which decoders of untrusted input check before decoding.
+    int[] values = randomValues(CommonIndexFileFormatConstants.BLOCK_SIZE + 1);
+    byte[] bytes = new byte[StreamVByte.maxEncodedLength(values.length)];
+    int length = StreamVByte.encode(values, 0, values.length, bytes, 0);
+    byte[] controlBytes = Arrays.copyOf(bytes, (values.length + 3) / 4);
+    assertEquals(length, StreamVByte.encodedLength(controlBytes, 0, values.length));
+  }
+}